@@ -0,0 +1,134 @@
+package com.googlecode.objectify;
+
+import com.googlecode.objectify.impl.QueryImpl;
+import com.googlecode.objectify.util.StatMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <p>Chooses chunk sizes for queries which ask for {@code chunkAdaptive()}. Between chunks, the size is adjusted
+ * toward whatever would make a chunk carry the target payload (based on sampled entity sizes) and take the
+ * target time to fetch and translate, whichever is smaller. Each step can at most halve or double the size,
+ * and the size always stays within the min and max bounds.</p>
+ *
+ * <p>The last size chosen for each kind is remembered and becomes the starting size for the next adaptive
+ * query of that kind. You can tune the targets on the instance returned by {@code ObjectifyFactory.getChunkSizer()}.</p>
+ */
+public class ChunkSizer
+{
+	/** */
+	public class Stat
+	{
+		private volatile int chunkSize = QueryImpl.DEFAULT_CHUNK_SIZE;
+		private volatile float bytesPerEntity;
+		private volatile float nanosPerEntity;
+
+		/** The chunk size the next query of this kind will start with */
+		public int getChunkSize() { return this.chunkSize; }
+
+		/** Smoothed serialized size of an entity, or 0 if nothing has been sampled */
+		public float getBytesPerEntity() { return this.bytesPerEntity; }
+
+		/** Smoothed time to fetch and translate one entity */
+		public float getNanosPerEntity() { return this.nanosPerEntity; }
+	}
+
+	/** Weight given to each new observation in the smoothed per-entity values */
+	private static final float SMOOTHING = 0.25f;
+
+	/** */
+	private int minChunkSize = 10;
+	private int maxChunkSize = 1000;
+
+	/** Serialized entity bytes we aim to bring into memory per chunk */
+	private long targetBatchBytes = 1024 * 1024;
+
+	/** Time we aim to spend fetching and translating each chunk */
+	private long targetBatchNanos = TimeUnit.MILLISECONDS.toNanos(250);
+
+	/** */
+	private final StatMap<Stat> stats = new StatMap<Stat>() {
+		@Override
+		protected Stat create() {
+			return new Stat();
+		}
+	};
+
+	/**
+	 * Get the learned values, keyed by kind.  You can clear it if you want.
+	 */
+	public Map<String, Stat> getStats() { return this.stats.asMap(); }
+
+	/** */
+	public int getMinChunkSize() { return minChunkSize; }
+	public void setMinChunkSize(int value) { this.minChunkSize = value; }
+
+	/** */
+	public int getMaxChunkSize() { return maxChunkSize; }
+	public void setMaxChunkSize(int value) { this.maxChunkSize = value; }
+
+	/** */
+	public long getTargetBatchBytes() { return targetBatchBytes; }
+	public void setTargetBatchBytes(long value) { this.targetBatchBytes = value; }
+
+	/** */
+	public long getTargetBatchTime(TimeUnit unit) { return unit.convert(targetBatchNanos, TimeUnit.NANOSECONDS); }
+	public void setTargetBatchTime(long value, TimeUnit unit) { this.targetBatchNanos = unit.toNanos(value); }
+
+	/**
+	 * @return the chunk size an adaptive query of the kind should start with
+	 */
+	public int initialChunkSize(String kind) {
+		return clamp(getStat(kind).chunkSize);
+	}
+
+	/**
+	 * Learn from a completed chunk and pick the size of the next one.
+	 *
+	 * @param kind is the kind being queried
+	 * @param current is the size of the chunk which just completed
+	 * @param count is the number of results in that chunk
+	 * @param sampledBytes is the total serialized size of the entities which were sampled
+	 * @param sampledEntities is the number of entities which were sampled; can be 0
+	 * @param nanos is the time spent fetching and translating the chunk
+	 * @return the size for the next chunk
+	 */
+	public int adjust(String kind, int current, int count, long sampledBytes, int sampledEntities, long nanos) {
+		Stat stat = getStat(kind);
+
+		if (count == 0)
+			return current;
+
+		if (sampledEntities > 0)
+			stat.bytesPerEntity = smooth(stat.bytesPerEntity, (float)sampledBytes / sampledEntities);
+
+		stat.nanosPerEntity = smooth(stat.nanosPerEntity, (float)nanos / count);
+
+		long bySize = stat.bytesPerEntity > 0 ? (long)(targetBatchBytes / stat.bytesPerEntity) : maxChunkSize;
+		long byTime = stat.nanosPerEntity > 0 ? (long)(targetBatchNanos / stat.nanosPerEntity) : maxChunkSize;
+
+		// Move gradually; a single odd chunk (eg, a cold memcache) shouldn't swing the size wildly
+		long ideal = Math.min(bySize, byTime);
+		long next = Math.max(current / 2, Math.min((long)current * 2, ideal));
+
+		int size = clamp(next);
+		stat.chunkSize = size;
+
+		return size;
+	}
+
+	/** */
+	private int clamp(long size) {
+		return (int)Math.max(minChunkSize, Math.min(maxChunkSize, size));
+	}
+
+	/** */
+	private static float smooth(float previous, float observed) {
+		return (previous == 0) ? observed : previous + SMOOTHING * (observed - previous);
+	}
+
+	/** */
+	private Stat getStat(String kind) {
+		return this.stats.get(kind);
+	}
+}
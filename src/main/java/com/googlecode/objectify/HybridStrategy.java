@@ -0,0 +1,142 @@
+package com.googlecode.objectify;
+
+import com.googlecode.objectify.impl.EntityMemcacheStats;
+import com.googlecode.objectify.util.StatMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * <p>Decides whether a query should be executed as a hybrid (keys-only query followed by a batch get)
+ * or as a normal query. Rather than relying purely on the presence of {@code @Cache}, the decision is
+ * based on how many of the results we expect to obtain without going to the datastore for the batch get:
+ * the observed memcache hit ratio for the kind (from {@code EntityMemcacheStats}) combined with the
+ * number of entities of that kind already in the session, relative to the size of the query.</p>
+ *
+ * <p>Every decision is recorded in a per-kind {@code Stat}. You can tune the thresholds on the
+ * instance returned by {@code ObjectifyFactory.getHybridStrategy()}.</p>
+ */
+public class HybridStrategy
+{
+	/** */
+	public class Stat
+	{
+		private AtomicLong hybrid = new AtomicLong();
+		private AtomicLong normal = new AtomicLong();
+		private AtomicLong forced = new AtomicLong();
+
+		/** Number of automatic decisions to hybridize */
+		public long getHybrid() { return this.hybrid.get(); }
+
+		/** Number of automatic decisions to run a normal query */
+		public long getNormal() { return this.normal.get(); }
+
+		/** Number of queries where the user forced the choice with hybrid(boolean) */
+		public long getForced() { return this.forced.get(); }
+	}
+
+	/** Until we have seen this many memcache hits+misses for a cacheable kind, trust the @Cache annotation */
+	private int minSamples = 100;
+
+	/** Hybridize when at least this fraction of results is expected to come from memcache or the session */
+	private float minAvoidedFetchRatio = 0.5f;
+
+	/**
+	 * When a cacheable kind is running normal queries it stops producing memcache statistics, so
+	 * every Nth decision is hybridized anyway to keep the hit ratio current. Zero disables probing.
+	 */
+	private int probeInterval = 20;
+
+	/** */
+	private final EntityMemcacheStats memcacheStats;
+
+	/** */
+	private final StatMap<Stat> stats = new StatMap<Stat>() {
+		@Override
+		protected Stat create() {
+			return new Stat();
+		}
+	};
+
+	/** */
+	public HybridStrategy(EntityMemcacheStats memcacheStats) {
+		this.memcacheStats = memcacheStats;
+	}
+
+	/**
+	 * Get the live decision statistics, keyed by kind.  You can clear it if you want.
+	 */
+	public Map<String, Stat> getStats() { return this.stats.asMap(); }
+
+	/** */
+	public int getMinSamples() { return minSamples; }
+	public void setMinSamples(int value) { this.minSamples = value; }
+
+	/** */
+	public float getMinAvoidedFetchRatio() { return minAvoidedFetchRatio; }
+	public void setMinAvoidedFetchRatio(float value) { this.minAvoidedFetchRatio = value; }
+
+	/** */
+	public int getProbeInterval() { return probeInterval; }
+	public void setProbeInterval(int value) { this.probeInterval = value; }
+
+	/**
+	 * Decide (and record) whether a query should be hybridized.
+	 *
+	 * @param kind is the kind being queried
+	 * @param cacheable is true if the kind has @Cache and the global cache is enabled for this operation
+	 * @param residentCount is the number of entities of this kind in the session
+	 * @param limit is the query limit, or 0 if unbounded
+	 */
+	public boolean shouldHybridize(String kind, boolean cacheable, int residentCount, int limit) {
+		Stat stat = getStat(kind);
+
+		boolean hybrid = decide(kind, cacheable, residentCount, limit);
+
+		// Keep sampling the cache occasionally so a kind whose hit ratio improves can win back hybrid queries
+		if (!hybrid && cacheable && probeInterval > 0 && (stat.getHybrid() + stat.getNormal() + 1) % probeInterval == 0)
+			hybrid = true;
+
+		if (hybrid)
+			stat.hybrid.incrementAndGet();
+		else
+			stat.normal.incrementAndGet();
+
+		return hybrid;
+	}
+
+	/**
+	 * Record that the user forced the decision with hybrid(boolean).
+	 */
+	public void recordForced(String kind) {
+		getStat(kind).forced.incrementAndGet();
+	}
+
+	/**
+	 * The actual decision, without any bookkeeping. Override to provide a different policy.
+	 */
+	protected boolean decide(String kind, boolean cacheable, int residentCount, int limit) {
+		float cacheHitRatio = 0;
+
+		if (cacheable) {
+			EntityMemcacheStats.Stat memStat = memcacheStats.getStats().get(kind);
+
+			// Not enough data yet; behave like we always have for @Cache entities
+			if (memStat == null || memStat.getHits() + memStat.getMisses() < minSamples)
+				return true;
+
+			cacheHitRatio = memStat.getPercent();
+		}
+
+		// We can only estimate session residency when we know how big the result set can get
+		float residency = (limit > 0) ? Math.min(1f, (float)residentCount / limit) : 0f;
+
+		float avoided = 1f - (1f - cacheHitRatio) * (1f - residency);
+
+		return avoided >= minAvoidedFetchRatio;
+	}
+
+	/** */
+	private Stat getStat(String kind) {
+		return this.stats.get(kind);
+	}
+}
@@ -0,0 +1,226 @@
+package com.googlecode.objectify;
+
+import com.google.appengine.api.NamespaceManager;
+import com.google.appengine.api.datastore.AsyncDatastoreService;
+import com.google.appengine.api.datastore.DatastoreServiceConfig;
+import com.google.appengine.api.datastore.KeyRange;
+import com.googlecode.objectify.Key;
+import com.googlecode.objectify.ObjectifyFactory;
+import com.googlecode.objectify.impl.KeyMetadata;
+import com.googlecode.objectify.util.FutureHelper;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Future;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * <p>Hands out preallocated ids so that entities with null Long ids can be given complete keys before
+ * they are saved. Each kind which is enabled keeps a range of allocated ids; when the range runs low,
+ * a new one is requested with an async allocateIds() call, so the only time a save waits on allocation
+ * is when a kind burns through a whole range before the refill comes back. There is at most one
+ * allocation in flight per pool, and everyone who finds the pool empty waits on that one.</p>
+ *
+ * <p>Only root entities (classes without a @Parent field) can be pooled. Allocated ids are sequential
+ * within a range, unlike the scattered ids the datastore assigns on put, so this is best used for kinds
+ * which are not sorted or filtered by key in hot indexes.</p>
+ *
+ * <p>Ranges are kept per namespace, since allocation happens in the namespace current at the time.</p>
+ */
+public class IdPool
+{
+	/** */
+	private static final Logger log = Logger.getLogger(IdPool.class.getName());
+
+	/**
+	 * The ids available for one kind in one namespace.
+	 */
+	private class Pool
+	{
+		final String kind;
+		final int batchSize;
+
+		/** The next id to hand out and the last one in the current range; next > last means empty. Guarded by this. */
+		long next = 1;
+		long last = 0;
+
+		/** The allocation in flight, if any. Guarded by this. */
+		Future<KeyRange> refill;
+
+		Pool(String kind, int batchSize) {
+			this.kind = kind;
+			this.batchSize = batchSize;
+		}
+
+		/**
+		 * Never waits while holding the monitor; a finished refill is installed without blocking, and
+		 * callers who find the pool empty wait on the shared refill outside it.
+		 */
+		long take() {
+			while (true) {
+				Future<KeyRange> awaiting;
+
+				synchronized (this) {
+					if (next > last && refill != null && refill.isDone())
+						install();
+
+					if (next <= last) {
+						long id = next++;
+
+						if (refill == null && last - next + 1 < batchSize / 4)
+							refill = allocate();
+
+						return id;
+					}
+
+					if (refill == null)
+						refill = allocate();
+
+					awaiting = refill;
+				}
+
+				if (log.isLoggable(Level.FINEST))
+					log.finest("Waiting for id allocation of kind " + kind);
+
+				try {
+					FutureHelper.quietGet(awaiting);
+				} catch (RuntimeException ex) {
+					// Let the next caller try again
+					synchronized (this) {
+						if (refill == awaiting)
+							refill = null;
+					}
+					throw ex;
+				}
+			}
+		}
+
+		/** Replace the empty range with the finished refill */
+		private void install() {
+			Future<KeyRange> done = refill;
+			refill = null;
+
+			KeyRange range = FutureHelper.quietGet(done);
+			next = range.getStart().getId();
+			last = range.getEnd().getId();
+		}
+
+		/** */
+		private Future<KeyRange> allocate() {
+			if (log.isLoggable(Level.FINEST))
+				log.finest("Allocating " + batchSize + " ids of kind " + kind);
+
+			return getDatastore().allocateIds(kind, batchSize);
+		}
+	}
+
+	/** */
+	private final ObjectifyFactory fact;
+
+	/** Batch size for each enabled kind */
+	private final Map<String, Integer> batchSizes = new ConcurrentHashMap<>();
+
+	/** Keyed by namespace and kind */
+	private final ConcurrentMap<String, Pool> pools = new ConcurrentHashMap<>();
+
+	/** Created when first needed; relaxed, an extra one does no harm */
+	private AsyncDatastoreService datastore;
+
+	/** */
+	public IdPool(ObjectifyFactory fact) {
+		this.fact = fact;
+	}
+
+	/**
+	 * Start pooling ids for the entity class, allocating them batchSize at a time.
+	 *
+	 * @param clazz must be a registered entity class with a Long id and no @Parent field
+	 * @throws IllegalArgumentException if the class can't be pooled
+	 */
+	public void enable(Class<?> clazz, int batchSize) {
+		if (batchSize < 1)
+			throw new IllegalArgumentException("Batch size must be positive, was " + batchSize);
+
+		KeyMetadata<?> meta = fact.keys().getMetadataSafe(clazz);
+
+		if (!meta.isIdGeneratable())
+			throw new IllegalArgumentException("Only classes with a Long @Id can have pooled ids: " + clazz.getName());
+
+		if (meta.hasParentField())
+			throw new IllegalArgumentException("Only classes without a @Parent can have pooled ids: " + clazz.getName());
+
+		batchSizes.put(meta.getKind(), batchSize);
+	}
+
+	/**
+	 * Stop pooling ids for the entity class. Ids already allocated are simply abandoned.
+	 */
+	public void disable(Class<?> clazz) {
+		String kind = Key.getKind(clazz);
+		batchSizes.remove(kind);
+
+		for (Map.Entry<String, Pool> entry: pools.entrySet())
+			if (entry.getValue().kind.equals(kind))
+				pools.remove(entry.getKey(), entry.getValue());
+	}
+
+	/**
+	 * @return true if ids for the kind come from this pool
+	 */
+	public boolean isEnabled(String kind) {
+		return batchSizes.containsKey(kind);
+	}
+
+	/**
+	 * If the pojo has a null id and its kind is enabled, give it the next id from the pool.
+	 *
+	 * @return true if an id was assigned
+	 */
+	@SuppressWarnings("unchecked")
+	public boolean assign(Object pojo) {
+		if (batchSizes.isEmpty())
+			return false;
+
+		KeyMetadata<Object> meta = (KeyMetadata<Object>)fact.keys().getMetadataSafe(pojo);
+		if (!meta.requiresAutogeneratedId(pojo))
+			return false;
+
+		Integer batchSize = batchSizes.get(meta.getKind());
+		if (batchSize == null)
+			return false;
+
+		meta.setLongId(pojo, getPool(meta.getKind(), batchSize).take());
+		return true;
+	}
+
+	/** */
+	private Pool getPool(String kind, int batchSize) {
+		String key = namespaced(kind);
+
+		Pool pool = pools.get(key);
+		if (pool == null) {
+			Pool created = new Pool(kind, batchSize);
+			pool = pools.putIfAbsent(key, created);
+			if (pool == null)
+				pool = created;
+		}
+
+		return pool;
+	}
+
+	/** Namespaces can't contain a slash */
+	private static String namespaced(String kind) {
+		String namespace = NamespaceManager.get();
+		return (namespace == null ? "" : namespace) + "/" + kind;
+	}
+
+	/** */
+	private AsyncDatastoreService getDatastore() {
+		if (datastore == null)
+			datastore = fact.createAsyncDatastoreService(DatastoreServiceConfig.Builder.withDefaults(), false);
+
+		return datastore;
+	}
+}
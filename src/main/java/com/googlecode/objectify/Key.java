@@ -16,6 +16,18 @@ public class Key<T> implements Serializable, Comparable<Key<?>>
 {
 	private static final long serialVersionUID = 2L;
 
+	/** Finding the kind means walking the hierarchy looking at annotations; it never changes, so do it once per class */
+	private static final ClassValue<String> KINDS = new ClassValue<String>() {
+		@Override
+		protected String computeValue(Class<?> clazz) {
+			String kind = getKindRecursive(clazz);
+			if (kind == null)
+				return clazz.getSimpleName();
+			else
+				return kind;
+		}
+	};
+
 	/** Key.create(key) is easier to type than new Key<Blah>(key) */
 	public static <T> Key<T> create(com.google.appengine.api.datastore.Key raw) {
 		if (raw == null)
@@ -246,11 +258,7 @@ public class Key<T> implements Serializable, Comparable<Key<?>>
 	 * <p>If no @Entity annotation is found, just uses the simplename as is.</p>
 	 */
 	public static String getKind(Class<?> clazz) {
-		String kind = getKindRecursive(clazz);
-		if (kind == null)
-			return clazz.getSimpleName();
-		else
-			return kind;
+		return KINDS.get(clazz);
 	}
 
 	/**
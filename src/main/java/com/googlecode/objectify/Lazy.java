@@ -0,0 +1,40 @@
+package com.googlecode.objectify;
+
+import com.googlecode.objectify.impl.translate.SerializedLazy;
+
+import java.io.Serializable;
+
+
+/**
+ * <p>A value which is decoded the first time it is needed. Use it as the type of a {@code @Serialize}
+ * property - say, {@code @Serialize Lazy<Map<String, Stats>> stats} - when loading the entity often
+ * doesn't involve looking at the property. Loading just keeps the stored bytes; get() deserializes
+ * them. If the entity is saved without get() having been called, the stored bytes are written back
+ * as they are.</p>
+ *
+ * <p>Since deserialization happens in get(), that is where a problem with the stored data shows up
+ * (as an IllegalStateException) rather than when the entity is loaded.</p>
+ */
+abstract public class Lazy<T> implements Serializable
+{
+	private static final long serialVersionUID = 1L;
+
+	/** Wraps a value which is already available, for saving */
+	public static <T> Lazy<T> create(T value) {
+		return new SerializedLazy<>(value);
+	}
+
+	/** */
+	protected Lazy() {}
+
+	/**
+	 * @return the value, deserializing it if that hasn't been done yet. Can be null.
+	 * @throws IllegalStateException if the stored data can't be deserialized
+	 */
+	abstract public T get();
+
+	/**
+	 * @return true if get() will not need to deserialize anything
+	 */
+	abstract public boolean isDecoded();
+}
@@ -142,6 +142,25 @@ public interface Objectify
 	 */
 	Objectify cache(boolean value);
 
+	/**
+	 * <p>Provides a new Objectify instance which does (or doesn't) fingerprint entities as they are loaded.
+	 * When an entity which was loaded with a fingerprint is saved, the save is skipped if the entity
+	 * translates to exactly what was loaded. This avoids paying for datastore writes (including index writes)
+	 * in code that loads, maybe modifies, and then unconditionally saves. Skipped writes are counted in
+	 * {@code ObjectifyFactory.getDirtyCheckStats()}.</p>
+	 *
+	 * <p>Fingerprints live in the session, so the check applies to any save (including deferred saves) of an
+	 * entity that was loaded this way. Clear the session if you need to force a write of an unchanged entity.</p>
+	 *
+	 * <p>Objectify instances are dirtyChecking(false) by default.</p>
+	 *
+	 * <p><b>All command objects are immutable; this method returns a new object rather than modifying the
+	 * current command object.</b></p>
+	 *
+	 * @return a new immutable Objectify instance which will (or won't) fingerprint loaded entities
+	 */
+	Objectify dirtyChecking(boolean value);
+
 	/**
 	 * <p>Get the underlying transaction object associated with this Objectify instance.  You typically
 	 * do not need to use this; use transact() instead.</p>
@@ -9,14 +9,17 @@ import com.googlecode.objectify.cache.EntityMemcache;
 import com.googlecode.objectify.impl.CacheControlImpl;
 import com.googlecode.objectify.impl.EntityMemcacheStats;
 import com.googlecode.objectify.impl.EntityMetadata;
+import com.googlecode.objectify.impl.Filterables;
 import com.googlecode.objectify.impl.Forge;
 import com.googlecode.objectify.impl.Keys;
 import com.googlecode.objectify.impl.ObjectifyImpl;
+import com.googlecode.objectify.impl.RefPaths;
 import com.googlecode.objectify.impl.Registrar;
 import com.googlecode.objectify.impl.TypeUtils;
 import com.googlecode.objectify.impl.translate.Translators;
+import com.googlecode.objectify.stats.ContentionStats;
+import com.googlecode.objectify.stats.DirtyCheckStats;
 
-import java.lang.reflect.Constructor;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
@@ -28,6 +31,7 @@ import java.util.SortedMap;
 import java.util.SortedSet;
 import java.util.TreeMap;
 import java.util.TreeSet;
+import java.util.concurrent.Executor;
 
 /**
  * <p>Factory which allows us to construct implementations of the Objectify interface.
@@ -67,9 +71,36 @@ public class ObjectifyFactory implements Forge
 	/** All the various loaders */
 	protected Translators translators = new Translators(this);
 
+	/** Where the @Load refs are in each registered class */
+	protected RefPaths refPaths = new RefPaths(this);
+
+	/** Preallocated ids for kinds which have asked for them */
+	protected IdPool idPool = new IdPool(this);
+
+	/** Saves which are written eventually by background workers */
+	protected WriteBehind writeBehind = new WriteBehind(this);
+
 	/** Tracks stats */
 	protected EntityMemcacheStats memcacheStats = new EntityMemcacheStats();
 
+	/** Decides whether queries should be hybridized, based partly on the memcache stats */
+	protected HybridStrategy hybridStrategy = new HybridStrategy(this.memcacheStats);
+
+	/** Counts writes skipped by dirty checking */
+	protected DirtyCheckStats dirtyCheckStats = new DirtyCheckStats();
+
+	/** Decides how transactions are retried after concurrency failures */
+	protected RetryPolicy retryPolicy = new RetryPolicy();
+
+	/** Counts transaction attempts and concurrency failures */
+	protected ContentionStats contentionStats = new ContentionStats();
+
+	/** Chooses chunk sizes for adaptive queries, learning per kind */
+	protected ChunkSizer chunkSizer = new ChunkSizer();
+
+	/** Converts query filter values, remembering how for each class */
+	protected Filterables filterables = new Filterables(this);
+
 	/** Manages caching of entities at a low level */
 	protected EntityMemcache entityMemcache = new EntityMemcache(MEMCACHE_NAMESPACE, new CacheControlImpl(this), this.memcacheStats);
 	
@@ -81,8 +112,7 @@ public class ObjectifyFactory implements Forge
 	@Override
 	public <T> T construct(Class<T> type) {
 		// We do this instead of calling newInstance directly because this lets us work around accessiblity
-		Constructor<T> ctor = TypeUtils.getNoArgConstructor(type);
-		return TypeUtils.newInstance(ctor);
+		return TypeUtils.newInstance(type);
 	}
 
 	/**
@@ -185,11 +215,85 @@ public class ObjectifyFactory implements Forge
 		this.registrar.register(clazz);
 	}
 
+	/**
+	 * <p>Registers an entity class without building its translators; that happens (safely) the first
+	 * time the kind is used. Useful when there are many entity classes and most requests use few of them.
+	 * Classes with {@code @Subclass} are registered immediately, just as with register().</p>
+	 *
+	 * @see Registrar#registerLazily(Class)
+	 */
+	public <T> void registerLazily(Class<T> clazz) {
+		this.registrar.registerLazily(clazz);
+	}
+
+	/**
+	 * <p>Registers many classes, scanning them in parallel on the executor before their translators are
+	 * built. Only the scan is parallel; the executor is used only for the duration of this call.</p>
+	 *
+	 * @see Registrar#register(Iterable, Executor)
+	 */
+	public void register(Iterable<? extends Class<?>> classes, Executor executor) {
+		this.registrar.register(classes, executor);
+	}
+
 	/**
 	 * Get the object that tracks memcache stats.
 	 */
 	public EntityMemcacheStats getMemcacheStats() { return this.memcacheStats; }
 
+	/**
+	 * Get the index of properties which can lead to @Load refs.
+	 */
+	public RefPaths getRefPaths() { return this.refPaths; }
+
+	/**
+	 * Get the pool of preallocated ids. Kinds must be enabled on it before ids are pooled;
+	 * see {@link IdPool#enable(Class, int)}.
+	 */
+	public IdPool getIdPool() { return this.idPool; }
+
+	/**
+	 * Get the write-behind queue, for saves which don't need to complete within the request.
+	 */
+	public WriteBehind getWriteBehind() { return this.writeBehind; }
+
+	/**
+	 * Get the object that decides whether queries are hybridized. You can adjust its thresholds
+	 * and inspect the decisions it has made.
+	 */
+	public HybridStrategy getHybridStrategy() { return this.hybridStrategy; }
+
+	/**
+	 * Get the object that counts saves skipped (and not skipped) by dirty checking.
+	 */
+	public DirtyCheckStats getDirtyCheckStats() { return this.dirtyCheckStats; }
+
+	/**
+	 * Get the policy for retrying transactions after concurrency failures. You can adjust its delays.
+	 */
+	public RetryPolicy getRetryPolicy() { return this.retryPolicy; }
+
+	/**
+	 * Replace the policy for retrying transactions, for example with a subclass that observes contention.
+	 */
+	public void setRetryPolicy(RetryPolicy value) { this.retryPolicy = value; }
+
+	/**
+	 * Get the counts of transaction attempts and concurrency failures for each kind of work.
+	 */
+	public ContentionStats getContentionStats() { return this.contentionStats; }
+
+	/**
+	 * Get the object that chooses chunk sizes for queries with chunkAdaptive(). You can adjust its
+	 * targets and bounds and inspect what it has learned.
+	 */
+	public ChunkSizer getChunkSizer() { return this.chunkSizer; }
+
+	/**
+	 * Get the converter for query filter values. This is an internal Objectify API and subject to change.
+	 */
+	public Filterables getFilterables() { return this.filterables; }
+
 	/**
 	 * Sets the error handler for the main memcache object.
 	 */
@@ -64,6 +64,15 @@ public class ObjectifyService
 		factory().register(clazz); 
 	}
 
+	/**
+	 * A shortcut for {@code ObjectifyFactory.registerLazily()}
+	 *
+	 * @see ObjectifyFactory#registerLazily(Class)
+	 */
+	public static void registerLazily(Class<?> clazz) {
+		factory().registerLazily(clazz);
+	}
+
 	/**
 	 * <p>Runs one unit of work, making the root Objectify context available. This does not start a transaction,
 	 * but it makes the static ofy() method return an appropriate object.</p>
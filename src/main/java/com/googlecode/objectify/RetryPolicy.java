@@ -0,0 +1,77 @@
+package com.googlecode.objectify;
+
+import com.googlecode.objectify.Work;
+
+import java.util.ConcurrentModificationException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <p>Decides how transactions are retried after optimistic concurrency failures. Retrying immediately means
+ * every contender for an entity group comes back at the same moment and collides again; instead, each retry
+ * waits a random time between zero and an exponentially growing ceiling ("full jitter"), which spreads the
+ * contenders out.</p>
+ *
+ * <p>Retries stop when the try limit passed to {@code transactNew()} is reached or when the total time spent
+ * on the work exceeds the maximum elapsed time, whichever comes first. Subclass and override
+ * {@link #onContention(Work, int, ConcurrentModificationException)} to observe contended work; install the
+ * policy with {@code ObjectifyFactory.setRetryPolicy()}.</p>
+ */
+public class RetryPolicy
+{
+	/** */
+	private long baseDelayNanos = TimeUnit.MILLISECONDS.toNanos(10);
+	private long maxDelayNanos = TimeUnit.SECONDS.toNanos(1);
+	private long maxElapsedNanos = Long.MAX_VALUE;
+
+	/** The ceiling of the first retry's delay; it doubles with each further retry */
+	public long getBaseDelay(TimeUnit unit) { return unit.convert(baseDelayNanos, TimeUnit.NANOSECONDS); }
+	public void setBaseDelay(long value, TimeUnit unit) { this.baseDelayNanos = unit.toNanos(value); }
+
+	/** The delay ceiling never grows past this */
+	public long getMaxDelay(TimeUnit unit) { return unit.convert(maxDelayNanos, TimeUnit.NANOSECONDS); }
+	public void setMaxDelay(long value, TimeUnit unit) { this.maxDelayNanos = unit.toNanos(value); }
+
+	/** No retry is started once this much time has passed since the first attempt. Unlimited by default. */
+	public long getMaxElapsed(TimeUnit unit) { return unit.convert(maxElapsedNanos, TimeUnit.NANOSECONDS); }
+	public void setMaxElapsed(long value, TimeUnit unit) { this.maxElapsedNanos = unit.toNanos(value); }
+
+	/**
+	 * Called every time an attempt fails with a concurrency failure, whether or not it will be retried.
+	 * Does nothing by default.
+	 *
+	 * @param work is the work which was contended
+	 * @param failures is how many attempts have failed so far, including this one
+	 */
+	public void onContention(Work<?> work, int failures, ConcurrentModificationException ex) {
+	}
+
+	/**
+	 * @param failures is how many attempts have failed so far
+	 * @param elapsedNanos is the time since the first attempt started
+	 * @return true if another attempt should be made; the try limit has already been checked
+	 */
+	public boolean shouldRetry(int failures, long elapsedNanos) {
+		return elapsedNanos < maxElapsedNanos;
+	}
+
+	/**
+	 * @param failures is how many attempts have failed so far, at least 1
+	 * @return how long to wait before the next attempt, in nanoseconds
+	 */
+	public long getDelay(int failures) {
+		long ceiling = delayCeiling(failures);
+		return (ceiling <= 0) ? 0 : ThreadLocalRandom.current().nextLong(ceiling + 1);
+	}
+
+	/** */
+	private long delayCeiling(int failures) {
+		// Past 62 doublings we would overflow; the max delay will have taken over long before
+		int doublings = Math.min(failures - 1, 62);
+		long ceiling = baseDelayNanos << doublings;
+
+		return (ceiling < 0 || (baseDelayNanos != 0 && ceiling >> doublings != baseDelayNanos))
+				? maxDelayNanos
+				: Math.min(ceiling, maxDelayNanos);
+	}
+}
@@ -0,0 +1,366 @@
+package com.googlecode.objectify;
+
+import com.google.appengine.api.ThreadManager;
+import com.google.appengine.api.datastore.AsyncDatastoreService;
+import com.google.appengine.api.datastore.DatastoreServiceConfig;
+import com.google.appengine.api.datastore.Entity;
+import com.googlecode.objectify.ObjectifyFactory;
+import com.googlecode.objectify.impl.WriteEngine;
+import com.googlecode.objectify.impl.translate.SaveContext;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * <p>A queue of saves which don't need to finish before the request does - audit trails, view counters,
+ * last-seen timestamps. Entities are translated (and @OnSave methods run) on the calling thread when they
+ * are queued; worker threads then write them in large batches. If an entity with the same key is queued
+ * again before it is written, only the latest version is written. A key is only ever being written by one
+ * worker at a time; a newer version waits until the write of the older one completes, so the last save wins.</p>
+ *
+ * <p>The queue is bounded. When it is full, save() blocks until the workers make room, so a burst can slow
+ * callers down but never grows the heap without limit. Writes which fail are logged and counted, not retried.</p>
+ *
+ * <p>Writes go around the session entirely; a load in the same request may not see them. Entities without
+ * ids are written with datastore-assigned ids which are not copied back to the pojo (unless the kind uses
+ * the IdPool).</p>
+ *
+ * <p>Workers are created with {@code ThreadManager.backgroundThreadFactory()} by default, which requires
+ * an instance class that allows background threads. Workers start on the first save(); call shutdown()
+ * to write everything queued and stop them. A JVM shutdown hook does this too, where the environment
+ * allows one; shutdown() removes the hook, so a factory that is shut down can be collected.</p>
+ */
+public class WriteBehind
+{
+	/** */
+	private static final Logger log = Logger.getLogger(WriteBehind.class.getName());
+
+	/** */
+	private static class Pending
+	{
+		Entity entity;
+		final long queuedAt = System.nanoTime();
+
+		Pending(Entity entity) {
+			this.entity = entity;
+		}
+	}
+
+	/** */
+	private final ObjectifyFactory fact;
+
+	/** Configuration; changes after the workers start affect only capacity and batch size */
+	private int capacity = 10000;
+	private int batchSize = WriteEngine.MAX_BATCH_COUNT;
+	private int workers = 2;
+	private ThreadFactory threadFactory;
+
+	/** Keyed by datastore key; entities with incomplete keys get a unique placeholder so they never coalesce */
+	private final LinkedHashMap<Object, Pending> pending = new LinkedHashMap<>();
+
+	/** Everything below is guarded by the lock */
+	private final ReentrantLock lock = new ReentrantLock();
+	private final Condition notFull = lock.newCondition();
+	private final Condition notEmpty = lock.newCondition();
+	private final Condition idle = lock.newCondition();
+	private int inFlight;
+	private final Set<Object> writing = new HashSet<>();
+	private boolean started;
+	private boolean shuttingDown;
+	private List<Thread> threads = new ArrayList<>();
+	private Thread shutdownHook;
+
+	/** */
+	private final AtomicLong queued = new AtomicLong();
+	private final AtomicLong coalesced = new AtomicLong();
+	private final AtomicLong written = new AtomicLong();
+	private final AtomicLong failed = new AtomicLong();
+
+	/** */
+	private AsyncDatastoreService datastore;
+
+	/** */
+	public WriteBehind(ObjectifyFactory fact) {
+		this.fact = fact;
+	}
+
+	/** */
+	public int getCapacity() { return capacity; }
+	public void setCapacity(int value) { this.capacity = value; }
+
+	/** */
+	public int getBatchSize() { return batchSize; }
+	public void setBatchSize(int value) { this.batchSize = value; }
+
+	/** */
+	public int getWorkers() { return workers; }
+	public void setWorkers(int value) { this.workers = value; }
+
+	/** */
+	public void setThreadFactory(ThreadFactory value) { this.threadFactory = value; }
+
+	/** Saves accepted by the queue */
+	public long getQueued() { return queued.get(); }
+
+	/** Saves which replaced an earlier save of the same key before it was written */
+	public long getCoalesced() { return coalesced.get(); }
+
+	/** Entities written */
+	public long getWritten() { return written.get(); }
+
+	/** Entities whose write failed */
+	public long getFailed() { return failed.get(); }
+
+	/** Entities waiting to be written, not counting batches in flight */
+	public int getPending() {
+		lock.lock();
+		try {
+			return pending.size();
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * @return how long the oldest waiting entity has been in the queue, or 0 if the queue is empty
+	 */
+	public long getLag(TimeUnit unit) {
+		lock.lock();
+		try {
+			if (pending.isEmpty())
+				return 0;
+
+			return unit.convert(System.nanoTime() - pending.values().iterator().next().queuedAt, TimeUnit.NANOSECONDS);
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * Queue the entities to be written eventually. Blocks while the queue is full.
+	 *
+	 * @param entities can be entity pojos or datastore Entity objects
+	 */
+	public void save(Iterable<?> entities) {
+		List<Entity> translated = new ArrayList<>();
+		SaveContext ctx = new SaveContext();
+
+		for (Object obj: entities) {
+			if (obj == null)
+				throw new NullPointerException("Attempted to save a null entity");
+
+			if (obj instanceof Entity) {
+				translated.add((Entity)obj);
+			} else {
+				fact.getIdPool().assign(obj);
+				translated.add(fact.getMetadataForEntity(obj).save(obj, ctx));
+			}
+		}
+
+		lock.lock();
+		try {
+			if (shuttingDown)
+				throw new IllegalStateException("Write-behind queue has been shut down");
+
+			start();
+
+			for (Entity entity: translated) {
+				Object key = entity.getKey().isComplete() ? entity.getKey() : new Object();
+
+				Pending existing = pending.get(key);
+				if (existing != null) {
+					// Last write wins, but it keeps its place (and age) in line
+					existing.entity = entity;
+					coalesced.incrementAndGet();
+				} else {
+					while (pending.size() >= capacity)
+						notFull.awaitUninterruptibly();
+
+					pending.put(key, new Pending(entity));
+				}
+
+				queued.incrementAndGet();
+			}
+
+			notEmpty.signalAll();
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * Block until everything queued so far has been written (or has failed).
+	 */
+	public void flush() {
+		lock.lock();
+		try {
+			while (!pending.isEmpty() || inFlight > 0)
+				idle.awaitUninterruptibly();
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * Write everything queued and stop the workers. Further saves are rejected.
+	 */
+	public void shutdown() {
+		List<Thread> stopping;
+		Thread hook;
+
+		lock.lock();
+		try {
+			shuttingDown = true;
+			notEmpty.signalAll();
+			stopping = threads;
+			threads = new ArrayList<>();
+			hook = shutdownHook;
+			shutdownHook = null;
+		} finally {
+			lock.unlock();
+		}
+
+		// The hook holds this queue (and its factory) for the life of the JVM unless it is removed
+		if (hook != null && hook != Thread.currentThread()) {
+			try {
+				Runtime.getRuntime().removeShutdownHook(hook);
+			} catch (IllegalStateException | SecurityException ex) {
+				// The JVM is already shutting down, or we may not touch hooks; either way it no longer matters
+			}
+		}
+
+		for (Thread thread: stopping) {
+			try {
+				thread.join();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				return;
+			}
+		}
+	}
+
+	/**
+	 * Start the workers if they aren't running. Must hold the lock.
+	 */
+	private void start() {
+		if (started)
+			return;
+
+		started = true;
+
+		ThreadFactory tf = (threadFactory != null) ? threadFactory : ThreadManager.backgroundThreadFactory();
+		for (int i = 0; i < workers; i++) {
+			Thread thread = tf.newThread(new Runnable() {
+				@Override
+				public void run() {
+					work();
+				}
+			});
+			thread.start();
+			threads.add(thread);
+		}
+
+		Thread hook = new Thread(new Runnable() {
+			@Override
+			public void run() {
+				shutdown();
+			}
+		});
+
+		try {
+			Runtime.getRuntime().addShutdownHook(hook);
+			shutdownHook = hook;
+		} catch (SecurityException ex) {
+			log.log(Level.FINE, "Can't register shutdown hook for write-behind queue; call shutdown() yourself", ex);
+		}
+	}
+
+	/**
+	 * The worker loop. Exits once shutting down and everything has been written.
+	 */
+	private void work() {
+		while (true) {
+			List<Entity> batch = new ArrayList<>();
+			List<Object> keys = new ArrayList<>();
+
+			lock.lock();
+			try {
+				while (true) {
+					takeBatch(batch, keys);
+					if (!batch.isEmpty())
+						break;
+
+					if (pending.isEmpty() && shuttingDown)
+						return;
+
+					notEmpty.awaitUninterruptibly();
+				}
+
+				inFlight++;
+				notFull.signalAll();
+			} finally {
+				lock.unlock();
+			}
+
+			try {
+				getDatastore().put(batch).get();
+				written.addAndGet(batch.size());
+			} catch (Exception ex) {
+				failed.addAndGet(batch.size());
+				log.log(Level.WARNING, "Write-behind of " + batch.size() + " entities failed", ex);
+			} finally {
+				lock.lock();
+				try {
+					inFlight--;
+					writing.removeAll(keys);
+
+					// Newer versions of the keys we just wrote may have been waiting for us
+					if (!pending.isEmpty())
+						notEmpty.signalAll();
+					else if (inFlight == 0)
+						idle.signalAll();
+				} finally {
+					lock.unlock();
+				}
+			}
+		}
+	}
+
+	/**
+	 * Move up to batchSize pending entities into the batch, skipping keys which another worker is still
+	 * writing; those stay in line until that write completes. Must hold the lock.
+	 */
+	private void takeBatch(List<Entity> batch, List<Object> keys) {
+		Iterator<Map.Entry<Object, Pending>> it = pending.entrySet().iterator();
+		while (it.hasNext() && batch.size() < batchSize) {
+			Map.Entry<Object, Pending> entry = it.next();
+			if (writing.contains(entry.getKey()))
+				continue;
+
+			batch.add(entry.getValue().entity);
+			keys.add(entry.getKey());
+			writing.add(entry.getKey());
+			it.remove();
+		}
+	}
+
+	/** Relaxed; an extra one does no harm */
+	private AsyncDatastoreService getDatastore() {
+		if (datastore == null)
+			datastore = fact.createAsyncDatastoreService(DatastoreServiceConfig.Builder.withDefaults(), true);
+
+		return datastore;
+	}
+}
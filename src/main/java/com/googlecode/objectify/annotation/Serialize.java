@@ -1,5 +1,8 @@
 package com.googlecode.objectify.annotation;
 
+import com.googlecode.objectify.codec.JavaSerializationCodec;
+import com.googlecode.objectify.codec.SerializeCodec;
+
 import java.lang.annotation.ElementType;
 import java.lang.annotation.Retention;
 import java.lang.annotation.RetentionPolicy;
@@ -8,7 +11,7 @@ import java.util.zip.Deflater;
 
 /**
  * <p>When placed on an entity field, the field will be written as a single Blob
- * property using java serialization.  Can also be placed on a class to indicate
+ * property using java serialization (or another {@link #codec()}).  Can also be placed on a class to indicate
  * that all fields of that type should be serialized.</p>
  * 
  * <ul>
@@ -41,4 +44,12 @@ public @interface Serialize
 	 * If zip is true, sets the compression level of the Deflater.
 	 */
 	int compressionLevel() default Deflater.DEFAULT_COMPRESSION;
+
+	/**
+	 * How the value is turned into bytes. It will be constructed with ObjectifyFactory.construct().
+	 * The default is java serialization; {@code CompactCodec} is smaller and faster for values made of
+	 * strings, numbers, and the common collections. The default codec writes the same bytes @Serialize always
+	 * has; changing the codec of a property makes values saved with the old codec unreadable.
+	 */
+	Class<? extends SerializeCodec> codec() default JavaSerializationCodec.class;
 }
\ No newline at end of file
@@ -74,4 +74,15 @@ public interface Deleter
 	 * Convenient substitute for entities(Iterable)
 	 */
 	Result<Void> entities(Object... entities);
+
+	/**
+	 * <p>Delete every entity which matches the query. The query is executed keys-only and its keys are
+	 * deleted in batches as they stream in, so the full set of keys is never held in memory.</p>
+	 * <p>Like any other delete, the work starts right away; call now() on the result to wait for all of it.
+	 * If the deletion fails partway, the result's cursor tells you where to restart the query.</p>
+	 *
+	 * @param query selects the entities to delete. Its chunk size is replaced with the delete batch size.
+	 * @return a Result whose value is the number of entities deleted, and which reports progress.
+	 */
+	QueryDeletion query(SimpleQuery<?> query);
 }
@@ -40,6 +40,26 @@ public interface Loader extends SimpleQuery<Object>
 	 */
 	Loader group(Class<?>... groups);
 
+	/**
+	 * <p>Loads only the named properties of entities, leaving every other property as the entity's
+	 * constructor left it. Paths are dotted property names, eg {@code fields("name", "address.city")};
+	 * selecting an embedded property selects everything inside it. Key fields are always loaded. This
+	 * saves the cost of translating properties you don't need, say for a list view of wide entities.</p>
+	 *
+	 * <p>The entities are incomplete, so they are kept out of the session (and each load goes to the
+	 * datastore or memcache), and attempting to save one throws IllegalStateException.
+	 * Only the requested entities are loaded: {@code @Load} and load groups are ignored, so Refs are left
+	 * unloaded and fetch whole entities through the session when used.
+	 * Calling this method multiple times is the same as passing all the paths into one call.</p>
+	 *
+	 * <p><b>All command objects are immutable; this method returns a new object instead of modifying the
+	 * current command object.</b></p>
+	 *
+	 * @param paths are one or more property paths to load.
+	 * @return a continuation of the immutable command pattern, loading only those properties.
+	 */
+	Loader fields(String... paths);
+
 	/**
 	 * <p>Restricts the find operation to entities of a particular type.  The type may be the
 	 * base of a polymorphic class hierarchy.  This is optional.</p>
@@ -2,6 +2,7 @@ package com.googlecode.objectify.cmd;
 
 import com.google.appengine.api.datastore.Cursor;
 import com.google.appengine.api.datastore.Query.Filter;
+import com.googlecode.objectify.stats.QueryProfile;
 
 
 /**
@@ -126,12 +127,24 @@ public interface Query<T> extends SimpleQuery<T>
 	@Override
 	public Query<T> chunkAll();
 
+	/* (non-Javadoc)
+	 * @see com.googlecode.objectify.cmd.SimpleQuery#chunkAdaptive()
+	 */
+	@Override
+	public Query<T> chunkAdaptive();
+
 	/* (non-Javadoc)
 	 * @see com.googlecode.objectify.cmd.SimpleQuery#hybrid(boolean)
 	 */
 	@Override
 	public Query<T> hybrid(boolean force);
 	
+	/* (non-Javadoc)
+	 * @see com.googlecode.objectify.cmd.SimpleQuery#profile(com.googlecode.objectify.stats.QueryProfile)
+	 */
+	@Override
+	public Query<T> profile(QueryProfile profile);
+
 	/* (non-Javadoc)
 	 * @see com.googlecode.objectify.cmd.SimpleQuery#reverse()
 	 */
@@ -0,0 +1,28 @@
+package com.googlecode.objectify.cmd;
+
+import com.google.appengine.api.datastore.Cursor;
+import com.googlecode.objectify.Result;
+
+
+/**
+ * <p>The result of deleting by query. The value is the number of entities deleted. Like any other delete,
+ * the work starts as soon as the command is issued: keys are streamed from the query in chunks and deleted in
+ * batches, with a few batches in flight at once. {@code now()} waits for the rest; if nobody calls it, the
+ * deletion is finished at the end of the request.</p>
+ *
+ * <p>Progress can be inspected while the deletion runs or after it fails. The cursor only ever advances past
+ * batches whose delete has completed, so restarting the query there will not skip anything.</p>
+ */
+public interface QueryDeletion extends Result<Integer>
+{
+	/**
+	 * @return the number of entities whose delete has completed so far
+	 */
+	public int getDeleted();
+
+	/**
+	 * @return a cursor positioned just after the last completed batch, or null if no batch has completed.
+	 * Once {@code now()} has returned normally, this is the end of the query.
+	 */
+	public Cursor getCursor();
+}
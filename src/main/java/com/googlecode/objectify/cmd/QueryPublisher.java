@@ -0,0 +1,66 @@
+package com.googlecode.objectify.cmd;
+
+import com.google.appengine.api.datastore.Cursor;
+
+
+/**
+ * <p>A push-style source of query results in which downstream demand drives fetching. Nothing is fetched
+ * until the subscriber calls {@code request(n)}; after that the query fetches a chunk at a time, one chunk
+ * ahead of delivery, so memory stays bounded by the query's chunk size.</p>
+ *
+ * <p>The shape follows the Reactive Streams {@code Publisher}/{@code Subscriber}/{@code Subscription}
+ * contract, so adapting to any Reactive Streams library is a matter of a few lines of delegation.</p>
+ *
+ * <p>Each call to {@code subscribe()} executes the query independently.</p>
+ */
+public interface QueryPublisher<T>
+{
+	/**
+	 * Receives results from a QueryPublisher. Signals are delivered serially and never reentrantly, even if
+	 * the subscriber calls {@code request()} from inside {@code onNext()}.
+	 */
+	public interface Subscriber<T>
+	{
+		/** Called exactly once, before any other signal */
+		public void onSubscribe(Subscription subscription);
+
+		/** Called at most as many times as the total requested */
+		public void onNext(T item);
+
+		/** Terminal; called if the query fails or {@code onNext()} throws */
+		public void onError(Throwable throwable);
+
+		/** Terminal; called when the results are exhausted */
+		public void onComplete();
+	}
+
+	/**
+	 * The link between a QueryPublisher and a single Subscriber.
+	 */
+	public interface Subscription
+	{
+		/**
+		 * Asks for up to n more results; demand is cumulative. Use Long.MAX_VALUE for unbounded demand.
+		 * A non-positive value terminates the subscription with an IllegalArgumentException.
+		 */
+		public void request(long n);
+
+		/**
+		 * Stops delivery; no further results are fetched. Results already fetched but not yet
+		 * delivered are discarded.
+		 */
+		public void cancel();
+
+		/**
+		 * @return a cursor which points just past the last result delivered to onNext(), suitable for
+		 * resuming the query with startAt(). May be null before anything has been fetched if the
+		 * query had no starting cursor. Safe to call from any thread; it waits for a fetch in progress.
+		 */
+		public Cursor getCursor();
+	}
+
+	/**
+	 * Start a new execution of the query, delivering results to the subscriber.
+	 */
+	public void subscribe(Subscriber<? super T> subscriber);
+}
@@ -1,6 +1,7 @@
 package com.googlecode.objectify.cmd;
 
 import com.google.appengine.api.datastore.Cursor;
+import com.googlecode.objectify.stats.QueryProfile;
 
 
 /**
@@ -146,6 +147,22 @@ public interface SimpleQuery<T> extends QueryExecute<T>
 	 */
 	public SimpleQuery<T> chunkAll();
 
+	/**
+	 * <p>Lets Objectify choose the chunk size, adjusting it between chunks so that each chunk carries a
+	 * reasonable payload and takes a reasonable time to fetch and translate. Small entities are fetched in
+	 * large chunks with fewer round trips; huge entities in small chunks. The size each kind settles on
+	 * is remembered for the next query. Affects performance only; the result set will be the same.</p>
+	 *
+	 * <p>The targets and bounds can be changed through {@code ObjectifyFactory.getChunkSizer()}. A later
+	 * call to chunk() overrides this; kindless queries ignore it.</p>
+	 *
+	 * <p><b>All command objects are immutable; this method returns a new object instead of modifying the
+	 * current command object.</b></p>
+	 *
+	 * @return a new immutable query object that sizes chunks adaptively
+	 */
+	public SimpleQuery<T> chunkAdaptive();
+
 	/**
 	 * <p>Converts this query into a <a href="https://developers.google.com/appengine/docs/java/datastore/projectionqueries">projection query</a>.
 	 * Projection queries allow values to be selected directly out of an index rather than loading the whole entity. While this allows
@@ -162,6 +179,33 @@ public interface SimpleQuery<T> extends QueryExecute<T>
 	 */
 	public SimpleQuery<T> project(String... fields);
 
+	/**
+	 * <p>Executes a projection query which maps the projected properties directly into a small view type rather
+	 * than into full entity objects. This bypasses the session and the normal translation machinery, so it is
+	 * much cheaper when iterating through very large result sets. @Load annotations are not processed.</p>
+	 *
+	 * <p>The view type can be an interface with getters named after the projected properties (eg {@code getAge()}
+	 * or {@code age()}), or a class with a no-arg constructor and fields named after the projected properties.
+	 * A getter or field named {@code key} of type {@code Key<?>} receives the entity key. An interface with
+	 * methods that are not getters is rejected with IllegalArgumentException when this is called.
+	 * If {@code project()} has not been called, the properties of the view type are projected.</p>
+	 *
+	 * @param viewType is an interface or simple class describing the projected properties
+	 * @return a query command which produces instances of the view type
+	 */
+	public <V> QueryExecute<V> projectInto(Class<V> viewType);
+
+	/**
+	 * <p>Executes the query as a push-style stream in which the subscriber's {@code request(n)} drives fetching.
+	 * The query runs once per subscriber and fetches a chunk at a time (see chunk()), starting on the next
+	 * chunk while the current one is delivered, so a slow consumer such as an HTTP response or a message queue
+	 * holds at most two chunks in memory no matter how it requests results. The subscription reports a cursor
+	 * for resuming after the last delivered result.</p>
+	 *
+	 * @return a publisher which executes the query once for each subscriber
+	 */
+	public QueryPublisher<T> publisher();
+
 	/**
 	 * Determines whether this is a SELECT DISTINCT query.
 	 *
@@ -187,7 +231,9 @@ public interface SimpleQuery<T> extends QueryExecute<T>
 	 *
 	 * <p>If Objectify knows you are fetching an entity type that can be cached, it automatically converts
 	 * queries into a "hybrid" of keys-only query followed by a batch fetch of the keys.  This is cheaper (keys-only
-	 * results are 1/7th the price of a full fetch) and, if the cache hits, significantly faster.  However,
+	 * results are 1/7th the price of a full fetch) and, if the cache hits, significantly faster.  Once enough
+	 * memcache statistics have accumulated for a kind, the decision follows the observed hit ratio and the number
+	 * of entities of that kind already in the session (see {@code ObjectifyFactory.getHybridStrategy()}).  However,
 	 * there are some circumstances in which you may wish to force behavior one way or another:</p>
 	 *
 	 * <ul>
@@ -217,6 +263,20 @@ public interface SimpleQuery<T> extends QueryExecute<T>
 	 */
 	public SimpleQuery<T> hybrid(boolean force);
 
+	/**
+	 * <p>Records a summary of how this query executes into the profile: the execution strategy, the number
+	 * of chunks and batch gets, how many results came from the session, memcache, or the datastore, how
+	 * many results were dropped, and the time spent translating entities. Counts accumulate as the results
+	 * are iterated.</p>
+	 *
+	 * <p><b>All command objects are immutable; this method returns a new object instead of modifying the
+	 * current command object.</b></p>
+	 *
+	 * @param profile receives the summary; pass null to stop profiling
+	 * @return a new immutable query object that records into the profile
+	 */
+	public SimpleQuery<T> profile(QueryProfile profile);
+
 	/**
 	 * Switches to a keys-only query.  Keys-only responses are billed as "minor datastore operations"
 	 * which are faster and free compared to fetching whole entities.
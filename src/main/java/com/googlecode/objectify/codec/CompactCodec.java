@@ -0,0 +1,397 @@
+package com.googlecode.objectify.codec;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+
+/**
+ * <p>A codec which writes the common building blocks of serialized data - strings, boxed primitives,
+ * byte[], long[], int[], double[], and ArrayList, HashSet, LinkedHashSet, HashMap, LinkedHashMap of those -
+ * as a compact tagged binary format. It avoids the class descriptors and reflection of java serialization,
+ * so it is a good deal smaller and faster for values like {@code Map<String, List<Long>>}.</p>
+ *
+ * <p>Anything else in the graph is written with java serialization, so it must be Serializable. Collections
+ * come back as exactly the class they were saved as, but object identity within the graph is not preserved;
+ * a collection referenced twice is written twice, and cycles are not allowed.</p>
+ *
+ * <p>Strings are written as modified UTF-8, the encoding of {@code DataOutput.writeUTF()} but without its
+ * 64K limit, so any String comes back exactly - including unpaired surrogates, which standard UTF-8
+ * would replace with '?'.</p>
+ */
+public class CompactCodec implements SerializeCodec
+{
+	/** */
+	private static final int NULL = 0;
+	private static final int STRING = 1;
+	private static final int LONG = 2;
+	private static final int INTEGER = 3;
+	private static final int SHORT = 4;
+	private static final int DOUBLE = 5;
+	private static final int FLOAT = 6;
+	private static final int TRUE = 7;
+	private static final int FALSE = 8;
+	private static final int BYTES = 9;
+	private static final int LONGS = 10;
+	private static final int INTS = 11;
+	private static final int DOUBLES = 12;
+	private static final int ARRAY_LIST = 13;
+	private static final int HASH_SET = 14;
+	private static final int LINKED_HASH_SET = 15;
+	private static final int HASH_MAP = 16;
+	private static final int LINKED_HASH_MAP = 17;
+	private static final int SERIALIZED = 18;
+
+	@Override
+	public void encode(Object value, OutputStream out) throws IOException {
+		DataOutputStream data = new DataOutputStream(out);
+		write(value, data);
+		data.flush();
+	}
+
+	@Override
+	public Object decode(InputStream in) throws IOException, ClassNotFoundException {
+		return read(new DataInputStream(in));
+	}
+
+	/** */
+	private void write(Object value, DataOutputStream out) throws IOException {
+		if (value == null) {
+			out.writeByte(NULL);
+		}
+		else if (value instanceof String) {
+			byte[] bytes = encodeString((String)value);
+			out.writeByte(STRING);
+			writeVarLong(bytes.length, out);
+			out.write(bytes);
+		}
+		else if (value instanceof Long) {
+			out.writeByte(LONG);
+			writeVarLong(zigzag((Long)value), out);
+		}
+		else if (value instanceof Integer) {
+			out.writeByte(INTEGER);
+			writeVarLong(zigzag((Integer)value), out);
+		}
+		else if (value instanceof Short) {
+			out.writeByte(SHORT);
+			out.writeShort((Short)value);
+		}
+		else if (value instanceof Double) {
+			out.writeByte(DOUBLE);
+			out.writeDouble((Double)value);
+		}
+		else if (value instanceof Float) {
+			out.writeByte(FLOAT);
+			out.writeFloat((Float)value);
+		}
+		else if (value instanceof Boolean) {
+			out.writeByte((Boolean)value ? TRUE : FALSE);
+		}
+		else if (value instanceof byte[]) {
+			byte[] bytes = (byte[])value;
+			out.writeByte(BYTES);
+			writeVarLong(bytes.length, out);
+			out.write(bytes);
+		}
+		else if (value instanceof long[]) {
+			long[] longs = (long[])value;
+			out.writeByte(LONGS);
+			writeVarLong(longs.length, out);
+			for (long l: longs)
+				writeVarLong(zigzag(l), out);
+		}
+		else if (value instanceof int[]) {
+			int[] ints = (int[])value;
+			out.writeByte(INTS);
+			writeVarLong(ints.length, out);
+			for (int i: ints)
+				writeVarLong(zigzag(i), out);
+		}
+		else if (value instanceof double[]) {
+			double[] doubles = (double[])value;
+			out.writeByte(DOUBLES);
+			writeVarLong(doubles.length, out);
+			for (double d: doubles)
+				out.writeDouble(d);
+		}
+		else if (value.getClass() == ArrayList.class) {
+			writeCollection(ARRAY_LIST, (Collection<?>)value, out);
+		}
+		else if (value.getClass() == HashSet.class) {
+			writeCollection(HASH_SET, (Collection<?>)value, out);
+		}
+		else if (value.getClass() == LinkedHashSet.class) {
+			writeCollection(LINKED_HASH_SET, (Collection<?>)value, out);
+		}
+		else if (value.getClass() == HashMap.class) {
+			writeMap(HASH_MAP, (Map<?, ?>)value, out);
+		}
+		else if (value.getClass() == LinkedHashMap.class) {
+			writeMap(LINKED_HASH_MAP, (Map<?, ?>)value, out);
+		}
+		else {
+			ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+			ObjectOutputStream oos = new ObjectOutputStream(bytes);
+			oos.writeObject(value);
+			oos.close();
+
+			out.writeByte(SERIALIZED);
+			writeVarLong(bytes.size(), out);
+			bytes.writeTo(out);
+		}
+	}
+
+	/** */
+	private void writeCollection(int tag, Collection<?> coll, DataOutputStream out) throws IOException {
+		out.writeByte(tag);
+		writeVarLong(coll.size(), out);
+		for (Object element: coll)
+			write(element, out);
+	}
+
+	/** */
+	private void writeMap(int tag, Map<?, ?> map, DataOutputStream out) throws IOException {
+		out.writeByte(tag);
+		writeVarLong(map.size(), out);
+		for (Map.Entry<?, ?> entry: map.entrySet()) {
+			write(entry.getKey(), out);
+			write(entry.getValue(), out);
+		}
+	}
+
+	/** */
+	private Object read(DataInputStream in) throws IOException, ClassNotFoundException {
+		int tag = in.readUnsignedByte();
+		switch (tag) {
+			case NULL:
+				return null;
+
+			case STRING:
+				return decodeString(readBytes(in));
+
+			case LONG:
+				return unzigzag(readVarLong(in));
+
+			case INTEGER:
+				return (int)unzigzag(readVarLong(in));
+
+			case SHORT:
+				return in.readShort();
+
+			case DOUBLE:
+				return in.readDouble();
+
+			case FLOAT:
+				return in.readFloat();
+
+			case TRUE:
+				return Boolean.TRUE;
+
+			case FALSE:
+				return Boolean.FALSE;
+
+			case BYTES:
+				return readBytes(in);
+
+			case LONGS: {
+				long[] longs = new long[readLength(in)];
+				for (int i = 0; i < longs.length; i++)
+					longs[i] = unzigzag(readVarLong(in));
+				return longs;
+			}
+
+			case INTS: {
+				int[] ints = new int[readLength(in)];
+				for (int i = 0; i < ints.length; i++)
+					ints[i] = (int)unzigzag(readVarLong(in));
+				return ints;
+			}
+
+			case DOUBLES: {
+				double[] doubles = new double[readLength(in)];
+				for (int i = 0; i < doubles.length; i++)
+					doubles[i] = in.readDouble();
+				return doubles;
+			}
+
+			case ARRAY_LIST: {
+				int size = readLength(in);
+				return readCollection(new ArrayList<>(size), size, in);
+			}
+
+			case HASH_SET: {
+				int size = readLength(in);
+				return readCollection(new HashSet<>(capacity(size)), size, in);
+			}
+
+			case LINKED_HASH_SET: {
+				int size = readLength(in);
+				return readCollection(new LinkedHashSet<>(capacity(size)), size, in);
+			}
+
+			case HASH_MAP: {
+				int size = readLength(in);
+				return readMap(new HashMap<>(capacity(size)), size, in);
+			}
+
+			case LINKED_HASH_MAP: {
+				int size = readLength(in);
+				return readMap(new LinkedHashMap<>(capacity(size)), size, in);
+			}
+
+			case SERIALIZED: {
+				ObjectInputStream ois = new ObjectInputStream(new ByteArrayInputStream(readBytes(in)));
+				return ois.readObject();
+			}
+
+			default:
+				throw new IOException("Unknown tag " + tag + " in compact serialized data");
+		}
+	}
+
+	/** */
+	private Collection<Object> readCollection(Collection<Object> coll, int size, DataInputStream in) throws IOException, ClassNotFoundException {
+		for (int i = 0; i < size; i++)
+			coll.add(read(in));
+
+		return coll;
+	}
+
+	/** */
+	private Map<Object, Object> readMap(Map<Object, Object> map, int size, DataInputStream in) throws IOException, ClassNotFoundException {
+		for (int i = 0; i < size; i++) {
+			Object key = read(in);
+			map.put(key, read(in));
+		}
+
+		return map;
+	}
+
+	/**
+	 * Modified UTF-8: each char on its own, in one byte (0x01-0x7F), two (0 and up to 0x7FF), or three.
+	 * Surrogates are encoded as the chars they are, so even an unpaired one survives.
+	 */
+	private static byte[] encodeString(String str) {
+		int length = 0;
+		for (int i = 0; i < str.length(); i++) {
+			char c = str.charAt(i);
+			length += (c >= 0x01 && c <= 0x7F) ? 1 : (c <= 0x7FF) ? 2 : 3;
+		}
+
+		byte[] bytes = new byte[length];
+		int pos = 0;
+		for (int i = 0; i < str.length(); i++) {
+			char c = str.charAt(i);
+			if (c >= 0x01 && c <= 0x7F) {
+				bytes[pos++] = (byte)c;
+			} else if (c <= 0x7FF) {
+				bytes[pos++] = (byte)(0xC0 | (c >> 6));
+				bytes[pos++] = (byte)(0x80 | (c & 0x3F));
+			} else {
+				bytes[pos++] = (byte)(0xE0 | (c >> 12));
+				bytes[pos++] = (byte)(0x80 | ((c >> 6) & 0x3F));
+				bytes[pos++] = (byte)(0x80 | (c & 0x3F));
+			}
+		}
+
+		return bytes;
+	}
+
+	/** */
+	private static String decodeString(byte[] bytes) throws IOException {
+		char[] chars = new char[bytes.length];
+		int count = 0;
+		int pos = 0;
+		while (pos < bytes.length) {
+			int b = bytes[pos] & 0xFF;
+			if (b < 0x80) {
+				chars[count++] = (char)b;
+				pos += 1;
+			} else if ((b & 0xE0) == 0xC0 && pos + 1 < bytes.length) {
+				chars[count++] = (char)(((b & 0x1F) << 6) | continuation(bytes[pos + 1]));
+				pos += 2;
+			} else if ((b & 0xF0) == 0xE0 && pos + 2 < bytes.length) {
+				chars[count++] = (char)(((b & 0x0F) << 12) | (continuation(bytes[pos + 1]) << 6) | continuation(bytes[pos + 2]));
+				pos += 3;
+			} else {
+				throw new IOException("Malformed string in compact serialized data");
+			}
+		}
+
+		return new String(chars, 0, count);
+	}
+
+	/** @return the six bits of a continuation byte */
+	private static int continuation(byte b) throws IOException {
+		if ((b & 0xC0) != 0x80)
+			throw new IOException("Malformed string in compact serialized data");
+
+		return b & 0x3F;
+	}
+
+	/** Hash collections sized so they won't rehash while being filled */
+	private static int capacity(int size) {
+		return size + size / 3 + 1;
+	}
+
+	/** */
+	private static byte[] readBytes(DataInputStream in) throws IOException {
+		byte[] bytes = new byte[readLength(in)];
+		in.readFully(bytes);
+		return bytes;
+	}
+
+	/** */
+	private static int readLength(DataInputStream in) throws IOException {
+		long length = readVarLong(in);
+		if (length < 0 || length > Integer.MAX_VALUE)
+			throw new IOException("Bad length " + length + " in compact serialized data");
+
+		return (int)length;
+	}
+
+	/** Small magnitudes, positive or negative, become small unsigned numbers */
+	private static long zigzag(long value) {
+		return (value << 1) ^ (value >> 63);
+	}
+
+	/** */
+	private static long unzigzag(long value) {
+		return (value >>> 1) ^ -(value & 1);
+	}
+
+	/** Seven bits at a time, low bits first; the high bit says more follow */
+	private static void writeVarLong(long value, DataOutputStream out) throws IOException {
+		while ((value & ~0x7FL) != 0) {
+			out.writeByte((int)((value & 0x7F) | 0x80));
+			value >>>= 7;
+		}
+		out.writeByte((int)value);
+	}
+
+	/** */
+	private static long readVarLong(DataInputStream in) throws IOException {
+		long value = 0;
+		for (int shift = 0; shift < 64; shift += 7) {
+			int b = in.readUnsignedByte();
+			value |= (long)(b & 0x7F) << shift;
+			if ((b & 0x80) == 0)
+				return value;
+		}
+
+		throw new IOException("Malformed number in compact serialized data");
+	}
+}
@@ -0,0 +1,27 @@
+package com.googlecode.objectify.codec;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.OutputStream;
+
+/**
+ * <p>Plain java serialization; the default codec, and the only format @Serialize used before codecs
+ * existed. Handles anything Serializable.</p>
+ */
+public class JavaSerializationCodec implements SerializeCodec
+{
+	@Override
+	public void encode(Object value, OutputStream out) throws IOException {
+		ObjectOutputStream oos = new ObjectOutputStream(out);
+		oos.writeObject(value);
+		oos.flush();
+	}
+
+	@Override
+	public Object decode(InputStream in) throws IOException, ClassNotFoundException {
+		ObjectInputStream ois = new ObjectInputStream(in);
+		return ois.readObject();
+	}
+}
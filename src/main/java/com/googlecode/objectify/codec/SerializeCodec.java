@@ -0,0 +1,29 @@
+package com.googlecode.objectify.codec;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+/**
+ * <p>Turns the value of a {@code @Serialize} property into bytes and back. Objectify takes care of
+ * compression and of the header which identifies the stored format, so a codec only deals with
+ * the value itself.</p>
+ *
+ * <p>Codecs are constructed with ObjectifyFactory.construct() and are shared by every load and save
+ * of the property, so they must be thread-safe.</p>
+ *
+ * @see com.googlecode.objectify.annotation.Serialize#codec()
+ */
+public interface SerializeCodec
+{
+	/**
+	 * Write the value to the stream. Do not close the stream.
+	 * @param value will not be null
+	 */
+	void encode(Object value, OutputStream out) throws IOException;
+
+	/**
+	 * Read back a value written by encode(). Do not close the stream.
+	 */
+	Object decode(InputStream in) throws IOException, ClassNotFoundException;
+}
@@ -62,4 +62,9 @@ public class IfDefault extends ValueIf<Object> implements InitializeIf
 		else
 			return this.defaultValue.equals(value);
 	}
+
+	/** @return the value the field has after construction; null before init() */
+	public Object getDefaultValue() {
+		return this.defaultValue;
+	}
 }
\ No newline at end of file
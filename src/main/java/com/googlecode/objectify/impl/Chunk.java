@@ -9,11 +9,20 @@ import java.util.Iterator;
  */
 public class Chunk<T> implements Iterator<ResultWithCursor<T>> {
 	private final Cursor cursor;
+	private final Cursor endCursor;
 	private final Iterator<T> valueIt;
 	private int offset = 0;
 
 	public Chunk(Cursor cursor, Iterable<T> result) {
+		this(cursor, null, result);
+	}
+
+	/**
+	 * @param endCursor where the chunk ended, or null if the source is still positioned there
+	 */
+	public Chunk(Cursor cursor, Cursor endCursor, Iterable<T> result) {
 		this.cursor = cursor;
+		this.endCursor = endCursor;
 		this.valueIt = result.iterator();
 	}
 
@@ -25,7 +34,7 @@ public class Chunk<T> implements Iterator<ResultWithCursor<T>> {
 	@Override
 	public ResultWithCursor<T> next() {
 		T value = valueIt.next();
-		return new ResultWithCursor<>(cursor, offset++, value, !valueIt.hasNext());
+		return new ResultWithCursor<>(cursor, offset++, value, !valueIt.hasNext(), endCursor);
 	}
 
 	@Override
@@ -5,6 +5,7 @@ import com.google.appengine.api.datastore.QueryResultIterator;
 import com.google.common.collect.Iterables;
 import com.google.common.collect.Iterators;
 import com.google.common.collect.Lists;
+import com.googlecode.objectify.ChunkSizer;
 import com.googlecode.objectify.Key;
 import com.googlecode.objectify.Result;
 import com.googlecode.objectify.util.IterateFunction;
@@ -16,6 +17,14 @@ import java.util.List;
 /**
  * Splits a QueryResultIterator into a series of chunks which include the Cursor for
  * the beginning of the chunk. The results are materialized in the results as well.
+ *
+ * If a ChunkSizer is provided, the size of each chunk is adjusted based on how the previous
+ * chunk performed. Because chunks are consumed in order, the previous chunk has been fully
+ * fetched and translated by the time the next one is requested.
+ *
+ * If prefetching is enabled, the iterator stays one chunk ahead: handing out a chunk starts the batch get
+ * for the following one, so it is in flight while the caller consumes the current one. Adaptive
+ * measurements then lag by a chunk, since a chunk is sized before its predecessor has been consumed.
  */
 public class ChunkIterator<T> implements Iterator<Chunk<T>> {
 
@@ -23,6 +32,22 @@ public class ChunkIterator<T> implements Iterator<Chunk<T>> {
 	Iterator<Iterator<Key<T>>> chunks;
 	LoadEngine engine;
 
+	/** Only for adaptive chunking */
+	ChunkSizer sizer;
+	String kind;
+	int chunkSize;
+
+	/** Measurements of the previous chunk, only for adaptive chunking */
+	int lastCount;
+	long lastNanos;
+	long lastLoadNanos;
+	long lastSampledBytes;
+	int lastSampledEntities;
+
+	/** Only for prefetching; the next chunk, already started */
+	boolean prefetch;
+	Chunk<T> ahead;
+
 	public ChunkIterator(QueryResultIterator<Key<T>> allKeys, int chunkSize, LoadEngine engine) {
 		this.allKeys = allKeys;
 
@@ -34,15 +59,56 @@ public class ChunkIterator<T> implements Iterator<Chunk<T>> {
 		this.engine = engine;
 	}
 
+	/**
+	 * Adaptive chunking; the chunk size starts at whatever the sizer has learned for the kind.
+	 */
+	public ChunkIterator(QueryResultIterator<Key<T>> allKeys, LoadEngine engine, ChunkSizer sizer, String kind) {
+		this.allKeys = allKeys;
+		this.engine = engine;
+		this.sizer = sizer;
+		this.kind = kind;
+		this.chunkSize = sizer.initialChunkSize(kind);
+
+		engine.setMeasuring(true);
+	}
+
+	/**
+	 * Keep one chunk ahead of the caller.
+	 */
+	public void setPrefetch(boolean prefetch) {
+		this.prefetch = prefetch;
+	}
+
 	@Override
 	public boolean hasNext() {
-		return chunks.hasNext();
+		if (ahead != null)
+			return true;
+
+		return (sizer == null) ? chunks.hasNext() : allKeys.hasNext();
 	}
 
 	@Override
 	public Chunk<T> next() {
+		Chunk<T> chunk = (ahead != null) ? ahead : fetch();
+		ahead = null;
+
+		if (prefetch && hasNext())
+			ahead = fetch();
+
+		return chunk;
+	}
+
+	/**
+	 * Pull the keys for one chunk and start loading them.
+	 */
+	private Chunk<T> fetch() {
+		if (sizer != null)
+			adjust();
+
+		long start = (sizer == null) ? 0 : System.nanoTime();
+
 		Cursor cursor = allKeys.getCursor();
-		Iterator<Key<T>> keys = chunks.next();
+		Iterator<Key<T>> keys = (sizer == null) ? chunks.next() : Iterators.limit(allKeys, chunkSize);
 		List<Result<T>> results = Lists.newArrayList();
 
 		while (keys.hasNext()) {
@@ -51,9 +117,39 @@ public class ChunkIterator<T> implements Iterator<Chunk<T>> {
 
 		engine.execute();
 
+		if (engine.getProfile() != null)
+			engine.getProfile().recordChunk();
+
+		if (sizer != null) {
+			lastCount = results.size();
+			lastNanos = System.nanoTime() - start;
+		}
+
 		Iterable<T> materialized = Iterables.transform(results, ResultNowFunction.<T>instance());
 
-		return new Chunk<>(cursor, materialized);
+		// When prefetching, the source moves past this chunk before it is consumed
+		Cursor end = prefetch ? allKeys.getCursor() : null;
+
+		return new Chunk<>(cursor, end, materialized);
+	}
+
+	/**
+	 * Pick the size of the next chunk based on the one which was just consumed. The time spent pulling keys
+	 * (which, for normal queries, includes the datastore fetches) is combined with the time the engine spent
+	 * waiting for batch gets and translating.
+	 */
+	private void adjust() {
+		if (lastCount > 0) {
+			long nanos = lastNanos + (engine.loadNanos - lastLoadNanos);
+			long bytes = engine.sampledBytes - lastSampledBytes;
+			int sampled = engine.sampledEntities - lastSampledEntities;
+
+			chunkSize = sizer.adjust(kind, chunkSize, lastCount, bytes, sampled, nanos);
+		}
+
+		lastLoadNanos = engine.loadNanos;
+		lastSampledBytes = engine.sampledBytes;
+		lastSampledEntities = engine.sampledEntities;
 	}
 
 	@Override
@@ -7,7 +7,9 @@ import com.google.appengine.api.datastore.PreparedQuery;
 import com.google.appengine.api.datastore.QueryResultIterator;
 import com.google.common.collect.Iterators;
 import com.google.common.collect.PeekingIterator;
+import com.googlecode.objectify.ChunkSizer;
 import com.googlecode.objectify.Key;
+import com.googlecode.objectify.stats.QueryProfile;
 
 import java.util.List;
 import java.util.NoSuchElementException;
@@ -30,16 +32,30 @@ public class ChunkingIterator<T> implements QueryResultIterator<T> {
 	/** As we process */
 	private PeekingIterator<ResultWithCursor<T>> stream;
 
+	/** Null unless we are profiling */
+	private QueryProfile profile;
+
 	/** Track the values for the next time we need to get this */
 	private Cursor nextCursor;
 	private int nextOffset;
 
 	/** */
-	public ChunkingIterator(LoadEngine loadEngine, PreparedQuery pq, QueryResultIterator<Key<T>> source, int chunkSize) {
-		this.pq = pq;
-		this.source = source;
+	public ChunkingIterator(LoadEngine loadEngine, PreparedQuery pq, QueryResultIterator<Key<T>> source, int chunkSize, boolean prefetch) {
+		this(loadEngine, pq, new ChunkIterator<>(source, chunkSize, loadEngine), prefetch);
+	}
+
+	/** Adaptive chunk sizing */
+	public ChunkingIterator(LoadEngine loadEngine, PreparedQuery pq, QueryResultIterator<Key<T>> source, ChunkSizer sizer, String kind, boolean prefetch) {
+		this(loadEngine, pq, new ChunkIterator<>(source, loadEngine, sizer, kind), prefetch);
+	}
+
+	/** */
+	private ChunkingIterator(LoadEngine loadEngine, PreparedQuery pq, ChunkIterator<T> chunkIt, boolean prefetch) {
+		chunkIt.setPrefetch(prefetch);
 
-		ChunkIterator<T> chunkIt = new ChunkIterator<>(source, chunkSize, loadEngine);
+		this.pq = pq;
+		this.source = chunkIt.allKeys;
+		this.profile = loadEngine.getProfile();
 		this.stream = Iterators.peekingIterator(Iterators.concat(chunkIt));
 
 		// Always start with a cursor; there might actually be any results
@@ -55,8 +71,9 @@ public class ChunkingIterator<T> implements QueryResultIterator<T> {
 
 			if (peek.getResult() != null)
 				return true;
-			else
-				stream.next();
+
+			stream.next();
+			droppedNull();
 		}
 
 		return false;
@@ -69,7 +86,8 @@ public class ChunkingIterator<T> implements QueryResultIterator<T> {
 
 			if (rc.isLast()) {
 				// We know we are back to the beginning of a batch, and the source cursor should be pointed the right place.
-				nextCursor = source.getCursor();
+				// Unless the next chunk was prefetched; then the chunk remembered where it ended.
+				nextCursor = (rc.getEndCursor() != null) ? rc.getEndCursor() : source.getCursor();
 				nextOffset = 0;
 			} else {
 				nextCursor = rc.getCursor();
@@ -77,13 +95,24 @@ public class ChunkingIterator<T> implements QueryResultIterator<T> {
 			}
 
 			if (rc.getResult() != null) {
+				if (profile != null)
+					profile.recordResult();
+
 				return rc.getResult();
 			}
+
+			droppedNull();
 		}
 
 		throw new NoSuchElementException();
 	}
 
+	/** */
+	private void droppedNull() {
+		if (profile != null)
+			profile.recordNullDropped();
+	}
+
 	/** Not implemented */
 	@Override
 	public void remove() {
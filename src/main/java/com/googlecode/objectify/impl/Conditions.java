@@ -0,0 +1,135 @@
+package com.googlecode.objectify.impl;
+
+import com.googlecode.objectify.condition.Always;
+import com.googlecode.objectify.condition.If;
+import com.googlecode.objectify.condition.IfDefault;
+import com.googlecode.objectify.condition.IfNotNull;
+import com.googlecode.objectify.condition.IfNull;
+import com.googlecode.objectify.condition.PojoIf;
+import com.googlecode.objectify.condition.ValueIf;
+
+/**
+ * <p>A set of If conditions (as generated by IfConditionGenerator) compiled into one test, which is
+ * true if any of the conditions match. The common cases - no conditions, Always, IfNull, IfNotNull,
+ * IfDefault - become specialized tests that don't go through the If interface at all; anything else
+ * only calls the half of the If interface which can match.</p>
+ *
+ * <p>The caller reads the field value once and passes it in.</p>
+ */
+abstract public class Conditions
+{
+	/** No conditions at all; never matches */
+	public static final Conditions NEVER = new Conditions() {
+		@Override
+		public boolean matches(Object onPojo, Object value) {
+			return false;
+		}
+	};
+
+	/** */
+	public static final Conditions ALWAYS = new Conditions() {
+		@Override
+		public boolean matches(Object onPojo, Object value) {
+			return true;
+		}
+	};
+
+	/** */
+	private static final Conditions IS_NULL = new Conditions() {
+		@Override
+		public boolean matches(Object onPojo, Object value) {
+			return value == null;
+		}
+	};
+
+	/** */
+	private static final Conditions NOT_NULL = new Conditions() {
+		@Override
+		public boolean matches(Object onPojo, Object value) {
+			return value != null;
+		}
+	};
+
+	/**
+	 * @param conditions can be null, which never matches
+	 */
+	public static Conditions compile(If<?, ?>[] conditions) {
+		if (conditions == null || conditions.length == 0)
+			return NEVER;
+
+		for (If<?, ?> condition: conditions)
+			if (condition.getClass() == Always.class)
+				return ALWAYS;
+
+		if (conditions.length == 1) {
+			If<?, ?> condition = conditions[0];
+
+			// Exact classes only; a subclass might have changed the meaning
+			if (condition.getClass() == IfNull.class)
+				return IS_NULL;
+
+			if (condition.getClass() == IfNotNull.class)
+				return NOT_NULL;
+
+			if (condition.getClass() == IfDefault.class) {
+				final Object defaultValue = ((IfDefault)condition).getDefaultValue();
+				if (defaultValue == null)
+					return IS_NULL;
+
+				return new Conditions() {
+					@Override
+					public boolean matches(Object onPojo, Object value) {
+						return defaultValue.equals(value);
+					}
+				};
+			}
+		}
+
+		return new General(conditions);
+	}
+
+	/**
+	 * @param onPojo is the pojo (entity or embedded object) which holds the field
+	 * @param value is the value of the field
+	 * @return true if any of the conditions match
+	 */
+	abstract public boolean matches(Object onPojo, Object value);
+
+	/**
+	 * Tries each condition in turn. ValueIf never matches a pojo and PojoIf never matches a value,
+	 * so those calls are skipped.
+	 */
+	private static class General extends Conditions
+	{
+		/** */
+		private final If<Object, Object>[] conditions;
+		private final boolean[] testValue;
+		private final boolean[] testPojo;
+
+		/** */
+		@SuppressWarnings("unchecked")
+		General(If<?, ?>[] conditions) {
+			this.conditions = (If<Object, Object>[])conditions.clone();
+			this.testValue = new boolean[conditions.length];
+			this.testPojo = new boolean[conditions.length];
+
+			for (int i = 0; i < conditions.length; i++) {
+				testValue[i] = !(conditions[i] instanceof PojoIf<?>);
+				testPojo[i] = !(conditions[i] instanceof ValueIf<?>);
+			}
+		}
+
+		@Override
+		public boolean matches(Object onPojo, Object value) {
+			for (int i = 0; i < conditions.length; i++) {
+				if (testValue[i] && conditions[i].matchesValue(value))
+					return true;
+
+				if (testPojo[i] && conditions[i].matchesPojo(onPojo))
+					return true;
+			}
+
+			return false;
+		}
+	}
+}
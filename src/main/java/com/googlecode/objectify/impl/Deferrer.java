@@ -1,6 +1,7 @@
 package com.googlecode.objectify.impl;
 
 import com.google.appengine.api.datastore.Entity;
+import com.google.common.collect.Lists;
 import com.googlecode.objectify.Key;
 import com.googlecode.objectify.Objectify;
 import com.googlecode.objectify.Result;
@@ -15,6 +16,9 @@ import java.util.Map;
  */
 public class Deferrer {
 
+	/** Saves are translated and sent in batches of this size; matches what the datastore takes in one put */
+	static final int FLUSH_BATCH_SIZE = WriteEngine.MAX_BATCH_COUNT;
+
 	/** */
 	private final Objectify ofy;
 
@@ -67,6 +71,13 @@ public class Deferrer {
 				autogeneratedIdSaves.add(entity);
 			}
 		} else {
+			// Refuse now rather than at flush time, and keep it out of the session
+			if (FieldMask.isPartial(entity))
+				throw new IllegalStateException("Entity " + entity + " was loaded with only some of its fields and cannot be saved");
+
+			// With a pooled id, the entity goes into the session right away like any other
+			ofy.factory().getIdPool().assign(entity);
+
 			if (ofy.factory().keys().requiresAutogeneratedId(entity)) {
 				autogeneratedIdSaves.add(entity);
 			} else {
@@ -83,8 +94,16 @@ public class Deferrer {
 		operations.put(key, null);
 	}
 
+	/**
+	 * Execute all deferred operations. Deletes are issued first since they need no translation. Saves are
+	 * issued in batches; each batch is translated and its RPC started before the next batch is translated,
+	 * so translation overlaps with the datastore work. Like the parts of one large save in WriteEngine, no
+	 * more than MAX_PARTS_IN_FLIGHT batches are outstanding; beyond that, the oldest is waited for before
+	 * the next is issued.
+	 */
 	public void flush() {
 		final List<Result<?>> futures = new ArrayList<>();
+		final List<Result<?>> saveFutures = new ArrayList<>();
 
 		// Need to do this in a loop because @OnSave methods can enlist more deferred operations. Execution
 		// of save or delete will undefer() all the relevant items, so both lists empty mean we're done.
@@ -102,11 +121,18 @@ public class Deferrer {
 
 			saves.addAll(autogeneratedIdSaves);
 
-			if (!saves.isEmpty())
-				futures.add(ofy.save().entities(saves));
-
 			if (!deletes.isEmpty())
 				futures.add(ofy.delete().keys(deletes));
+
+			// Sublists are views, but save() copies what it needs before returning
+			for (List<Object> batch : Lists.partition(saves, FLUSH_BATCH_SIZE)) {
+				if (saveFutures.size() >= WriteEngine.MAX_PARTS_IN_FLIGHT)
+					saveFutures.get(saveFutures.size() - WriteEngine.MAX_PARTS_IN_FLIGHT).now();
+
+				Result<?> saved = ofy.save().entities(batch);
+				saveFutures.add(saved);
+				futures.add(saved);
+			}
 		}
 
 		// Complete any pending operations
@@ -4,6 +4,8 @@ import com.googlecode.objectify.Key;
 import com.googlecode.objectify.Result;
 import com.googlecode.objectify.cmd.DeleteType;
 import com.googlecode.objectify.cmd.Deleter;
+import com.googlecode.objectify.cmd.QueryDeletion;
+import com.googlecode.objectify.cmd.SimpleQuery;
 
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -88,4 +90,12 @@ public class DeleterImpl implements Deleter
 	public Result<Void> entities(Object... entities) {
 		return this.entities(Arrays.asList(entities));
 	}
+
+	/* (non-Javadoc)
+	 * @see com.googlecode.objectify.cmd.Deleter#query(com.googlecode.objectify.cmd.SimpleQuery)
+	 */
+	@Override
+	public QueryDeletion query(SimpleQuery<?> query) {
+		return new QueryDeletionImpl(this, query);
+	}
 }
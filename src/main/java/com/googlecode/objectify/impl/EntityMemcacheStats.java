@@ -35,6 +35,9 @@ public class EntityMemcacheStats implements MemcacheStats
 	
 	/** */
 	private Map<String, Stat> stats = new ConcurrentHashMap<>();
+
+	/** Lets a single operation on the current thread see the hits and misses it produces */
+	private ThreadLocal<MemcacheStats> observer = new ThreadLocal<>();
 	
 	/**
 	 * Get the live statistics.  You can clear it if you want. 
@@ -48,6 +51,10 @@ public class EntityMemcacheStats implements MemcacheStats
 	public void recordHit(Key key)
 	{
 		this.getStat(key.getKind()).hits.incrementAndGet();
+
+		MemcacheStats obs = this.observer.get();
+		if (obs != null)
+			obs.recordHit(key);
 	}
 
 	/** */
@@ -55,6 +62,30 @@ public class EntityMemcacheStats implements MemcacheStats
 	public void recordMiss(Key key)
 	{
 		this.getStat(key.getKind()).misses.incrementAndGet();
+
+		MemcacheStats obs = this.observer.get();
+		if (obs != null)
+			obs.recordMiss(key);
+	}
+
+	/**
+	 * Hits and misses recorded on the current thread will also be passed to the observer, until
+	 * the previous observer is restored. Memcache reads happen synchronously when a batch get is
+	 * issued, so this lets a caller attribute hits to a particular operation.
+	 *
+	 * @param obs can be null to stop observing
+	 * @return the previous observer, which should be restored when finished
+	 */
+	public MemcacheStats observe(MemcacheStats obs)
+	{
+		MemcacheStats previous = this.observer.get();
+
+		if (obs == null)
+			this.observer.remove();
+		else
+			this.observer.set(obs);
+
+		return previous;
 	}
 
 	/**
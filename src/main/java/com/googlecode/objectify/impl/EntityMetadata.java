@@ -48,6 +48,8 @@ public class EntityMetadata<P>
 		this.cached = clazz.getAnnotation(Cache.class);
 		this.translator = (ClassTranslator<P>)fact.getTranslators().getRoot(clazz);
 		this.keyMetadata = ((EntityCreator<P>)translator.getCreator()).getKeyMetadata();
+
+		fact.getRefPaths().index(clazz);
 	}
 
 	/**
@@ -83,6 +85,9 @@ public class EntityMetadata<P>
 	 * Converts an object to a datastore Entity with the appropriate Key type.
 	 */
 	public Entity save(P pojo, SaveContext ctx) {
+		if (FieldMask.isPartial(pojo))
+			throw new IllegalStateException("Entity " + pojo + " was loaded with only some of its fields and cannot be saved");
+
 		try {
 			ctx.startOneEntity();
 
@@ -0,0 +1,123 @@
+package com.googlecode.objectify.impl;
+
+import com.google.common.collect.Iterables;
+import com.google.common.collect.MapMaker;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * <p>The set of property paths selected by {@code Loader.fields()}. A property is loaded if its path is
+ * selected, leads to a selected path (so that embedded objects holding selected properties get created), or
+ * is inside a selected path. Everything else is left as the constructor set it.</p>
+ *
+ * <p>Entities loaded this way are incomplete. They are remembered (weakly) so that saving one can be refused
+ * instead of silently erasing the properties that were never loaded.</p>
+ */
+public class FieldMask
+{
+	/** Entities which were loaded through a mask; weak keys compare by identity */
+	private static final Set<Object> PARTIALS = Collections.newSetFromMap(new MapMaker().weakKeys().<Object, Boolean>makeMap());
+
+	/**
+	 * Set once any entity has been marked. Every save asks isPartial(), and until then the answer can't be
+	 * yes, so apps which never use a mask don't pay for hashing into the shared weak set.
+	 */
+	private static volatile boolean anyPartials;
+
+	/** @return true if the entity was loaded through a mask */
+	public static boolean isPartial(Object entity) {
+		return anyPartials && PARTIALS.contains(entity);
+	}
+
+	/** One segment of the selected paths */
+	private static class Node
+	{
+		/** True if this path itself was selected, which means everything below it is too */
+		boolean selected;
+
+		/** */
+		final Map<String, Node> children = new HashMap<>();
+	}
+
+	/** */
+	private final Node root = new Node();
+
+	/** As given, for combining and for toString() */
+	private final Set<String> paths = new LinkedHashSet<>();
+
+	/**
+	 * @param paths are dotted property paths, eg "address.city"
+	 */
+	public FieldMask(Iterable<String> paths) {
+		for (String path: paths)
+			add(path);
+	}
+
+	/** */
+	private void add(String path) {
+		if (path == null || path.isEmpty())
+			throw new IllegalArgumentException("Field paths cannot be empty");
+
+		paths.add(path);
+
+		Node node = root;
+		for (String segment: path.split("\\.")) {
+			Node child = node.children.get(segment);
+			if (child == null) {
+				child = new Node();
+				node.children.put(segment, child);
+			}
+			node = child;
+		}
+
+		node.selected = true;
+	}
+
+	/** @return a mask with the paths of both */
+	public FieldMask plus(Iterable<String> more) {
+		return new FieldMask(Iterables.concat(this.paths, more));
+	}
+
+	/**
+	 * @return true if the property named {@code name} in the container at {@code containerPath} should be loaded
+	 */
+	public boolean includes(Path containerPath, String name) {
+		Node node = find(containerPath);
+		if (node == null)
+			return false;
+
+		if (node.selected)
+			return true;
+
+		return node.children.containsKey(name);
+	}
+
+	/**
+	 * @return the node for the path, or a selected node above it; null if the path is outside the mask
+	 */
+	private Node find(Path path) {
+		if (path.isRoot())
+			return root;
+
+		Node above = find(path.getPrevious());
+		if (above == null || above.selected)
+			return above;
+
+		return above.children.get(path.getSegment());
+	}
+
+	/** Remember that the entity is incomplete */
+	public void markPartial(Object entity) {
+		PARTIALS.add(entity);
+		anyPartials = true;
+	}
+
+	@Override
+	public String toString() {
+		return "FieldMask" + paths;
+	}
+}
@@ -27,6 +27,11 @@ public class FieldProperty extends AbstractProperty
 	
 	/** If we have an @IgnoreSave and it isn't Always */
 	boolean hasIgnoreSaveConditions;
+
+	/** The conditions above, compiled */
+	Conditions index;
+	Conditions unindex;
+	Conditions ignoreSave;
 	
 	/**
 	 * @param examinedClass is the actual top level concrete class we are examining; the field might
@@ -64,6 +69,10 @@ public class FieldProperty extends AbstractProperty
 		IgnoreSave ignoreSave = field.getAnnotation(IgnoreSave.class);
 		if (ignoreSave != null)
 			ignoreSaveConditions = ifGenerator.generateIfConditions(ignoreSave.value(), field);
+
+		this.index = Conditions.compile(indexConditions);
+		this.unindex = Conditions.compile(unindexConditions);
+		this.ignoreSave = Conditions.compile(ignoreSaveConditions);
 	}
 	
 	/** */
@@ -101,42 +110,38 @@ public class FieldProperty extends AbstractProperty
 	/** */
 	@Override
 	public boolean isSaved(Object onPojo) {
-		return !this.matches(onPojo, ignoreSaveConditions);
+		if (ignoreSave == Conditions.NEVER)
+			return true;
+
+		return isSaved(onPojo, this.get(onPojo));
 	}
 
 	/** */
 	@Override
-	public Boolean getIndexInstruction(Object onPojo) {
-		if (this.matches(onPojo, indexConditions))
-			return true;
-		else if (this.matches(onPojo, unindexConditions))
-			return false;
-		else
-			return null;
+	public boolean isSaved(Object onPojo, Object value) {
+		return !ignoreSave.matches(onPojo, value);
 	}
-	
-	/**
-	 * Tests whether a set of conditions match.
-	 * @param conditions can be null; this always matches false
-	 * @return true if we match the conditions, false if we do not 
-	 */
-	private boolean matches(Object onPojo, If<?, ?>[] conditions) {
-		if (conditions == null)
-			return false;
-		
-		Object value = this.get(onPojo);
 
-		for (If<?, ?> condition: conditions) {
-			@SuppressWarnings("unchecked")
-			If<Object, Object> cond = (If<Object, Object>)condition;
+	/** */
+	@Override
+	public Boolean getIndexInstruction(Object onPojo) {
+		if (index == Conditions.ALWAYS)
+			return true;
 
-			if (cond.matchesValue(value))
-				return true;
+		if (index == Conditions.NEVER && unindex == Conditions.NEVER)
+			return null;
 
-			if (cond.matchesPojo(onPojo))
-				return true;
-		}
+		return getIndexInstruction(onPojo, this.get(onPojo));
+	}
 
-		return false;
+	/** */
+	@Override
+	public Boolean getIndexInstruction(Object onPojo, Object value) {
+		if (index.matches(onPojo, value))
+			return true;
+		else if (unindex.matches(onPojo, value))
+			return false;
+		else
+			return null;
 	}
 }
\ No newline at end of file
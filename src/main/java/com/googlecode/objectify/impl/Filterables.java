@@ -0,0 +1,190 @@
+package com.googlecode.objectify.impl;
+
+import com.googlecode.objectify.Key;
+import com.googlecode.objectify.ObjectifyFactory;
+import com.googlecode.objectify.annotation.Entity;
+import com.googlecode.objectify.impl.translate.CreateContext;
+import com.googlecode.objectify.impl.translate.NumberTranslatorFactory.NumberTranslator;
+import com.googlecode.objectify.impl.translate.SaveContext;
+import com.googlecode.objectify.impl.translate.Translator;
+import com.googlecode.objectify.impl.translate.TypeKey;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * <p>Converts query filter values into something the datastore can filter by: entities become keys,
+ * Key<?>s become raw keys, and everything else goes through the translator for its class.</p>
+ *
+ * <p>We don't have much type information about a filter value - there may be no field to check, and erasure
+ * wipes out the component type of a collection - so the decision is made on the runtime class of each value.
+ * That decision is made once per class and remembered, so building a query doesn't resolve translators.</p>
+ */
+public class Filterables
+{
+	/** Turns one (non-null, non-collection) value into its filterable form */
+	private static abstract class Converter {
+		abstract Object convert(Object value);
+	}
+
+	/** For types the datastore already understands, and those whose translator passes them through */
+	private static final Converter AS_IS = new Converter() {
+		@Override
+		Object convert(Object value) {
+			return value;
+		}
+	};
+
+	/** */
+	private static final Converter KEY = new Converter() {
+		@Override
+		Object convert(Object value) {
+			return ((Key<?>)value).getRaw();
+		}
+	};
+
+	/** */
+	private final ObjectifyFactory factory;
+
+	/** Decided on first sight of each class */
+	private final ConcurrentMap<Class<?>, Converter> converters = new ConcurrentHashMap<>();
+
+	/** */
+	public Filterables(ObjectifyFactory factory) {
+		this.factory = factory;
+	}
+
+	/**
+	 * Translate a filter value. Arrays and other Iterables become lists of translated values; the
+	 * elements are translated individually because the list could be heterogeneous.
+	 */
+	public Object make(Object value) {
+		if (value == null)
+			return null;
+
+		if (value instanceof Iterable) {
+			List<Object> result = new ArrayList<>(50);	// hard limit is 30, but wth
+			for (Object obj: (Iterable<?>)value)
+				result.add(make(obj));
+
+			return result;
+		}
+
+		if (value.getClass().isArray())
+			return makeArray(value);
+
+		return converterFor(value.getClass()).convert(value);
+	}
+
+	/** Each primitive array type is spelled out to avoid reflective access to the elements */
+	private List<Object> makeArray(Object array) {
+		List<Object> result;
+
+		if (array instanceof Object[]) {
+			Object[] values = (Object[])array;
+			result = new ArrayList<>(values.length);
+			for (Object obj: values)
+				result.add(make(obj));
+		}
+		else if (array instanceof long[]) {
+			long[] values = (long[])array;
+			result = new ArrayList<>(values.length);
+			for (long value: values)
+				result.add(make(value));
+		}
+		else if (array instanceof int[]) {
+			int[] values = (int[])array;
+			result = new ArrayList<>(values.length);
+			for (int value: values)
+				result.add(make(value));
+		}
+		else if (array instanceof short[]) {
+			short[] values = (short[])array;
+			result = new ArrayList<>(values.length);
+			for (short value: values)
+				result.add(make(value));
+		}
+		else if (array instanceof byte[]) {
+			byte[] values = (byte[])array;
+			result = new ArrayList<>(values.length);
+			for (byte value: values)
+				result.add(make(value));
+		}
+		else if (array instanceof double[]) {
+			double[] values = (double[])array;
+			result = new ArrayList<>(values.length);
+			for (double value: values)
+				result.add(make(value));
+		}
+		else if (array instanceof float[]) {
+			float[] values = (float[])array;
+			result = new ArrayList<>(values.length);
+			for (float value: values)
+				result.add(make(value));
+		}
+		else if (array instanceof boolean[]) {
+			boolean[] values = (boolean[])array;
+			result = new ArrayList<>(values.length);
+			for (boolean value: values)
+				result.add(make(value));
+		}
+		else {
+			char[] values = (char[])array;
+			result = new ArrayList<>(values.length);
+			for (char value: values)
+				result.add(make(value));
+		}
+
+		return result;
+	}
+
+	/** */
+	private Converter converterFor(Class<?> clazz) {
+		Converter converter = converters.get(clazz);
+		if (converter == null) {
+			converter = createConverter(clazz);
+
+			Converter existing = converters.putIfAbsent(clazz, converter);
+			if (existing != null)
+				converter = existing;
+		}
+
+		return converter;
+	}
+
+	/**
+	 * Entities and Key<?>s are handled directly, as they always have been. Anything else gets its translator
+	 * now; numbers are passed through untouched, which is all their translator does. Strings and enums keep
+	 * their (cached) translators so that translators registered for them still apply.
+	 */
+	private Converter createConverter(Class<?> clazz) {
+		// Special case entity pojos that become keys
+		if (clazz.isAnnotationPresent(Entity.class)) {
+			return new Converter() {
+				@Override
+				Object convert(Object value) {
+					return factory.keys().getMetadataSafe(value).getRawKey(value);
+				}
+			};
+		}
+
+		if (clazz == Key.class)
+			return KEY;
+
+		@SuppressWarnings("unchecked")
+		final Translator<Object, Object> translator = factory.getTranslators().get(new TypeKey<>((Class<Object>)clazz), new CreateContext(factory), Path.root());
+
+		Translator<?, ?> examined = translator;
+		if (examined instanceof NumberTranslator)
+			return AS_IS;
+
+		return new Converter() {
+			@Override
+			Object convert(Object value) {
+				return translator.save(value, false, new SaveContext(), Path.root());
+			}
+		};
+	}
+}
@@ -4,6 +4,7 @@ import com.googlecode.objectify.ObjectifyFactory;
 import com.googlecode.objectify.condition.Always;
 import com.googlecode.objectify.condition.If;
 import com.googlecode.objectify.condition.InitializeIf;
+import com.googlecode.objectify.impl.translate.ClassMembers;
 import com.googlecode.objectify.repackaged.gentyref.GenericTypeReflector;
 
 import java.lang.reflect.Field;
@@ -42,11 +43,12 @@ public class IfConditionGenerator
 
 			// Sanity check the generic If class types to ensure that they match the actual types of the field & entity.
 			
-			Type valueType = GenericTypeReflector.getTypeParameter(ifClass, If.class.getTypeParameters()[0]);
-			Class<?> valueClass = GenericTypeReflector.erase(valueType);
-			
-			Type pojoType = GenericTypeReflector.getTypeParameter(ifClass, If.class.getTypeParameters()[1]);
-			Class<?> pojoClass = GenericTypeReflector.erase(pojoType);
+			Class<?>[] types = ClassMembers.of(field.getDeclaringClass()).getIfTypes(ifClass);
+			if (types == null)
+				types = resolveTypes(ifClass);
+
+			Class<?> valueClass = types[0];
+			Class<?> pojoClass = types[1];
 			
 			if (!TypeUtils.isAssignableFrom(valueClass, field.getType()))
 				throw new IllegalStateException("Cannot use If class " + ifClass.getName() + " on " + field
@@ -60,6 +62,17 @@ public class IfConditionGenerator
 		return result;
 	}
 	
+	/**
+	 * Resolving these with gentyref is relatively expensive, so MetadataProcessor does it at build time when it can.
+	 * @return the erased value and pojo type parameters of the If class
+	 */
+	private Class<?>[] resolveTypes(Class<? extends If<?, ?>> ifClass) {
+		Type valueType = GenericTypeReflector.getTypeParameter(ifClass, If.class.getTypeParameters()[0]);
+		Type pojoType = GenericTypeReflector.getTypeParameter(ifClass, If.class.getTypeParameters()[1]);
+
+		return new Class<?>[] { GenericTypeReflector.erase(valueType), GenericTypeReflector.erase(pojoType) };
+	}
+
 	/** */
 	public If<?, ?> createIf(Class<? extends If<?, ?>> ifClass, Field field) {
 		If<?, ?> created = fact.construct(ifClass);
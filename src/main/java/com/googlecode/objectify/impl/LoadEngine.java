@@ -6,8 +6,11 @@ import com.google.appengine.api.datastore.Transaction;
 import com.googlecode.objectify.Key;
 import com.googlecode.objectify.Ref;
 import com.googlecode.objectify.Result;
+import com.googlecode.objectify.cache.MemcacheStats;
 import com.googlecode.objectify.impl.ref.LiveRef;
 import com.googlecode.objectify.impl.translate.LoadContext;
+import com.googlecode.objectify.stats.QueryProfile;
+import com.googlecode.objectify.util.DatastoreUtils;
 import com.googlecode.objectify.util.ResultCache;
 import lombok.extern.java.Log;
 import java.util.HashMap;
@@ -35,6 +38,22 @@ public class LoadEngine
 	/** The current round, replaced whenever the round executes */
 	Round round;
 
+	/** If non-null, we record what we do here */
+	QueryProfile profile;
+
+	/** If non-null, only these properties are loaded */
+	private FieldMask fieldMask;
+
+	/** Sample one entity in this many when measuring */
+	private static final int SIZE_SAMPLE_INTERVAL = 10;
+
+	/** When true, we measure load time and entity sizes for adaptive chunk sizing; see ChunkIterator */
+	boolean measuring;
+	long loadNanos;
+	long sampledBytes;
+	int sampledEntities;
+	private int sampleCountdown;
+
 	/**
 	 */
 	public LoadEngine(ObjectifyImpl<?> ofy, Session session, AsyncDatastoreService ads, LoadArrangement loadArrangement) {
@@ -62,15 +81,17 @@ public class LoadEngine
 
 		// If we are running a transaction, enlist the result so that it gets processed on commit even
 		// if the client never materializes the result.
-		if (ofy.getTransaction() != null)
+		if (ofy.getTransaction() != null) {
 			ofy.getTransaction().enlist(result);
+			ofy.getTransaction().enlist(this);
+		}
 
 		// Now check to see if we need to recurse and add our parent(s) to the round
 		if (key.getParent() != null) {
 			KeyMetadata<?> meta = ofy.factory().keys().getMetadata(key);
 			// Is it really possible for this to be null?
 			if (meta != null) {
-				if (meta.shouldLoadParent(loadArrangement)) {
+				if (fieldMask == null && meta.shouldLoadParent(loadArrangement)) {
 					load(key.getParent());
 				}
 			}
@@ -106,10 +127,11 @@ public class LoadEngine
 	}
 
 	/**
-	 * @return true if the specified property should be loaded in this batch
+	 * @return true if the specified property should be loaded in this batch. Never when loading through a
+	 * field mask; the mask only makes sense for the requested entities, not whatever they refer to.
 	 */
 	public boolean shouldLoad(LoadConditions loadConditions) {
-		return loadConditions.shouldLoad(loadArrangement, ofy.getTransaction() != null);
+		return fieldMask == null && loadConditions.shouldLoad(loadArrangement, ofy.getTransaction() != null);
 	}
 
 	/**
@@ -117,6 +139,7 @@ public class LoadEngine
 	 * Called by non-hybrid queries to add results and eliminate batch fetching.
 	 */
 	public void stuff(Entity ent) {
+		sample(ent);
 		round.stuff(ent);
 	}
 
@@ -132,16 +155,31 @@ public class LoadEngine
 			/** */
 			@Override
 			public Map<Key<?>, Object> nowUncached() {
+				// Includes waiting for the fetch
+				long loadStart = measuring ? System.nanoTime() : 0;
+
 				Map<Key<?>, Object> result = new HashMap<>(raw.now().size() * 2);
 
 				ctx = new LoadContext(LoadEngine.this);
 
+				long start = (profile == null) ? 0 : System.nanoTime();
+
 				for (Entity ent: raw.now().values()) {
+					sample(ent);
 					Key<?> key = Key.create(ent.getKey());
 					Object entity = load(ent, ctx);
 					result.put(key, entity);
+
+					if (ofy.getDirtyChecking())
+						fingerprint(key, ent);
 				}
 
+				if (profile != null)
+					profile.recordTranslation(System.nanoTime() - start);
+
+				if (measuring)
+					loadNanos += System.nanoTime() - loadStart;
+
 				return result;
 			}
 
@@ -157,14 +195,55 @@ public class LoadEngine
 		};
 	}
 
+	/**
+	 * Remember what the entity looked like when it was loaded so that a save can skip writing it if unchanged.
+	 */
+	private void fingerprint(Key<?> key, Entity ent) {
+		SessionValue<?> sv = session.get(key);
+		if (sv != null)
+			sv.fingerprint = DatastoreUtils.fingerprint(ent);
+	}
+
+	/**
+	 * Occasionally record the serialized size of an entity, if we are measuring
+	 */
+	private void sample(Entity ent) {
+		if (measuring && --sampleCountdown <= 0) {
+			sampleCountdown = SIZE_SAMPLE_INTERVAL;
+			sampledBytes += com.google.appengine.api.datastore.EntityTranslator.convertToPb(ent).getSerializedSize();
+			sampledEntities++;
+		}
+	}
+
 	/**
 	 * Fetch the keys from the async datastore using the current transaction context
 	 */
 	public Result<Map<com.google.appengine.api.datastore.Key, Entity>> fetch(Set<com.google.appengine.api.datastore.Key> keys) {
 		Transaction txn = (ofy.getTransaction() == null) ? null : ofy.getTransaction().getRaw();
 
-		Future<Map<com.google.appengine.api.datastore.Key, Entity>> fut = ads.get(txn, keys);
-		return ResultAdapter.create(fut);
+		Future<Map<com.google.appengine.api.datastore.Key, Entity>> fut;
+
+		if (profile == null) {
+			fut = ads.get(txn, keys);
+		} else {
+			profile.recordBatchGet(keys.size());
+
+			// Memcache is read synchronously during the get(), so we can attribute the hits to this profile
+			EntityMemcacheStats stats = ofy.factory().getMemcacheStats();
+			MemcacheStats previous = stats.observe(profile.memcacheObserver());
+			try {
+				fut = ads.get(txn, keys);
+			} finally {
+				stats.observe(previous);
+			}
+		}
+
+		Result<Map<com.google.appengine.api.datastore.Key, Entity>> fetched = ResultAdapter.create(fut);
+
+		if (ofy.getTransaction() != null)
+			ofy.getTransaction().enlistInFlight(fetched);
+
+		return fetched;
 	}
 
 	/**
@@ -179,8 +258,13 @@ public class LoadEngine
 		EntityMetadata<T> meta = ofy.factory().getMetadata(ent.getKind());
 		if (meta == null)
 			return (T)ent;
-		else
-			return meta.load(ent, ctx);
+
+		T pojo = meta.load(ent, ctx);
+
+		if (fieldMask != null)
+			fieldMask.markPartial(pojo);
+
+		return pojo;
 	}
 
 	/** */
@@ -192,4 +276,29 @@ public class LoadEngine
 	public LoadArrangement getLoadArrangement() {
 		return loadArrangement;
 	}
+
+	/** @return the profile we are recording into, or null if not profiling */
+	public QueryProfile getProfile() {
+		return profile;
+	}
+
+	/** Start measuring load times and entity sizes */
+	public void setMeasuring(boolean value) {
+		this.measuring = value;
+	}
+
+	/** @return the properties to load, or null to load everything */
+	public FieldMask getFieldMask() {
+		return fieldMask;
+	}
+
+	/** Load only some properties */
+	public void setFieldMask(FieldMask fieldMask) {
+		this.fieldMask = fieldMask;
+	}
+
+	/** Start recording what this engine does into the profile */
+	public void setProfile(QueryProfile profile) {
+		this.profile = profile;
+	}
 }
\ No newline at end of file
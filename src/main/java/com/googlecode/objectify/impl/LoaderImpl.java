@@ -38,6 +38,9 @@ public class LoaderImpl<L extends Loader> extends Queryable<Object> implements L
 	/** */
 	protected LoadArrangement loadArrangement = new LoadArrangement();
 
+	/** If non-null, only these properties are loaded */
+	protected FieldMask fieldMask;
+
 	/** */
 	public LoaderImpl(ObjectifyImpl<?> ofy) {
 		super(null);
@@ -67,6 +70,19 @@ public class LoaderImpl<L extends Loader> extends Queryable<Object> implements L
 		return (L)clone;
 	}
 
+	/* (non-Javadoc)
+	 * @see com.googlecode.objectify.cmd.Loader#fields(java.lang.String[])
+	 */
+	@Override
+	@SuppressWarnings("unchecked")
+	public L fields(String... paths) {
+		LoaderImpl<L> clone = this.clone();
+
+		clone.fieldMask = (this.fieldMask == null) ? new FieldMask(Arrays.asList(paths)) : this.fieldMask.plus(Arrays.asList(paths));
+
+		return (L)clone;
+	}
+
 	/* (non-Javadoc)
 	 * @see com.googlecode.objectify.cmd.Loader#type(java.lang.Class)
 	 */
@@ -232,7 +248,13 @@ public class LoaderImpl<L extends Loader> extends Queryable<Object> implements L
 	 * @return a fresh engine that handles fundamental datastore operations for load commands
 	 */
 	LoadEngine createLoadEngine() {
-		return new LoadEngine(ofy, ofy.getSession(), ofy.createAsyncDatastoreService(), loadArrangement);
+		if (fieldMask == null)
+			return new LoadEngine(ofy, ofy.getSession(), ofy.createAsyncDatastoreService(), loadArrangement);
+
+		// Partial entities must not be mistaken for whole ones, so they get a session of their own
+		LoadEngine engine = new LoadEngine(ofy, new Session(), ofy.createAsyncDatastoreService(), loadArrangement);
+		engine.setFieldMask(fieldMask);
+		return engine;
 	}
 
 	/**
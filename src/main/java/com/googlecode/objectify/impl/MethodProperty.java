@@ -63,9 +63,21 @@ public class MethodProperty extends AbstractProperty
 		return false;
 	}
 
+	/** Never saved */
+	@Override
+	public boolean isSaved(Object onPojo, Object value) {
+		return false;
+	}
+
 	/** Since we are never saved this is never called */
 	@Override
 	public Boolean getIndexInstruction(Object onPojo) {
 		throw new UnsupportedOperationException("This should never have been called!");
 	}
+
+	/** Since we are never saved this is never called */
+	@Override
+	public Boolean getIndexInstruction(Object onPojo, Object value) {
+		throw new UnsupportedOperationException("This should never have been called!");
+	}
 }
\ No newline at end of file
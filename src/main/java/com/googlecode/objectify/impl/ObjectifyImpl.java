@@ -9,18 +9,10 @@ import com.googlecode.objectify.Objectify;
 import com.googlecode.objectify.ObjectifyFactory;
 import com.googlecode.objectify.TxnType;
 import com.googlecode.objectify.Work;
-import com.googlecode.objectify.annotation.Entity;
 import com.googlecode.objectify.cmd.Deferred;
 import com.googlecode.objectify.cmd.Deleter;
 import com.googlecode.objectify.cmd.Loader;
 import com.googlecode.objectify.cmd.Saver;
-import com.googlecode.objectify.impl.translate.CreateContext;
-import com.googlecode.objectify.impl.translate.SaveContext;
-import com.googlecode.objectify.impl.translate.Translator;
-import com.googlecode.objectify.impl.translate.TypeKey;
-import java.lang.reflect.Array;
-import java.util.ArrayList;
-import java.util.List;
 
 /**
  * <p>Implementation of the Objectify interface. This is also suitable for subclassing; you
@@ -40,6 +32,7 @@ public class ObjectifyImpl<O extends Objectify> implements Objectify, Cloneable
 	protected boolean cache = true;
 	protected Consistency consistency = Consistency.STRONG;
 	protected Double deadline;
+	protected boolean dirtyChecking;
 
 	/** */
 	protected Transactor<O> transactor = new TransactorNo<>(this);
@@ -56,6 +49,7 @@ public class ObjectifyImpl<O extends Objectify> implements Objectify, Cloneable
 		this.cache = other.cache;
 		this.consistency = other.consistency;
 		this.deadline = other.deadline;
+		this.dirtyChecking = other.dirtyChecking;
 		this.transactor = other.transactor;
 	}
 
@@ -134,6 +128,17 @@ public class ObjectifyImpl<O extends Objectify> implements Objectify, Cloneable
 		return (O)clone;
 	}
 
+	/* (non-Javadoc)
+	 * @see com.googlecode.objectify.Objectify#dirtyChecking(boolean)
+	 */
+	@Override
+	@SuppressWarnings("unchecked")
+	public O dirtyChecking(boolean value) {
+		ObjectifyImpl<O> clone = this.clone();
+		clone.dirtyChecking = value;
+		return (O)clone;
+	}
+
 	/* (non-Javadoc)
 	 * @see com.googlecode.objectify.Objectify#transactionless()
 	 */
@@ -241,47 +246,7 @@ public class ObjectifyImpl<O extends Objectify> implements Objectify, Cloneable
 	 * @return whatever can be put into a filter clause.
 	 */
 	protected Object makeFilterable(Object value) {
-		if (value == null)
-			return null;
-
-		// This is really quite a dilemma.  We need to convert that value into something we can filter by, but we don't
-		// really have a lot of information about it.  We could use type information from the matched field, but there's
-		// no guarantee that there is a field to check - it could be a typeless query or a query on an old property value.
-		// The only real solution is to create a (non root!) translator on the fly.  Even that is not straightforward,
-		// because erasure wipes out any component type information in a collection. We don't know what the collection
-		// contains.
-		//
-		// The answer:  Check for collections explicitly.  Create a separate translator for every item in the collection;
-		// after all, it could be a heterogeneous list.  This is not especially efficient but GAE only allows a handful of
-		// items in a IN operation and at any rate processing will still be negligible compared to the cost of a query.
-
-		// If this is an array, make life easier by turning it into a list first.  Because of primitive
-		// mismatching we can't trust Arrays.asList().
-		if (value.getClass().isArray()) {
-			int len = Array.getLength(value);
-			List<Object> asList = new ArrayList<>(len);
-			for (int i=0; i<len; i++)
-				asList.add(Array.get(value, i));
-
-			value = asList;
-		}
-
-		if (value instanceof Iterable) {
-			List<Object> result = new ArrayList<>(50);	// hard limit is 30, but wth
-			for (Object obj: (Iterable<?>)value)
-				result.add(makeFilterable(obj));
-
-			return result;
-		} else {
-			// Special case entity pojos that become keys
-			if (value.getClass().isAnnotationPresent(Entity.class)) {
-				return factory().keys().getMetadataSafe(value).getRawKey(value);
-			} else {
-				// Run it through a translator
-				Translator<Object, Object> translator = factory().getTranslators().get(new TypeKey<>(value.getClass()), new CreateContext(factory()), Path.root());
-				return translator.save(value, false, new SaveContext(), Path.root());
-			}
-		}
+		return factory().getFilterables().make(value);
 	}
 
 	/** */
@@ -294,6 +259,11 @@ public class ObjectifyImpl<O extends Objectify> implements Objectify, Cloneable
 		return cache;
 	}
 
+	/** @return true if loaded entities should be fingerprinted */
+	public boolean getDirtyChecking() {
+		return dirtyChecking;
+	}
+
 	/* (non-Javadoc)
 	 * @see com.googlecode.objectify.Objectify#isLoaded(com.googlecode.objectify.Key)
 	 */
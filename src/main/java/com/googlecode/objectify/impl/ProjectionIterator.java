@@ -3,6 +3,7 @@ package com.googlecode.objectify.impl;
 import com.google.appengine.api.datastore.Entity;
 import com.google.appengine.api.datastore.QueryResultIterator;
 import com.googlecode.objectify.impl.translate.LoadContext;
+import com.googlecode.objectify.stats.QueryProfile;
 import com.googlecode.objectify.util.TranslatingQueryResultIterator;
 
 import java.util.logging.Logger;
@@ -26,6 +27,15 @@ public class ProjectionIterator<T> extends TranslatingQueryResultIterator<Entity
 
 	@Override
 	protected T translate(Entity from) {
-		return loadEngine.load(from, ctx);
+		QueryProfile profile = loadEngine.getProfile();
+		if (profile == null)
+			return loadEngine.load(from, ctx);
+
+		long start = System.nanoTime();
+		T result = loadEngine.load(from, ctx);
+		profile.recordTranslation(System.nanoTime() - start);
+		profile.recordResult();
+
+		return result;
 	}
 }
\ No newline at end of file
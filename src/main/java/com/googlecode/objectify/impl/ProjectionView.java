@@ -0,0 +1,315 @@
+package com.googlecode.objectify.impl;
+
+import com.google.appengine.api.datastore.Entity;
+import com.google.appengine.api.datastore.RawValue;
+import com.google.common.base.Defaults;
+import com.google.common.primitives.Primitives;
+import com.googlecode.objectify.Key;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * <p>Maps the properties of a projected Entity directly onto a small view type, bypassing the session,
+ * the LoadEngine, and the translator tree entirely. There are two kinds of view types:</p>
+ *
+ * <ul>
+ * <li>An interface whose no-arg getters ({@code getFoo()}, {@code isFoo()}, or {@code foo()}) name projected
+ * properties. Each result is a lightweight proxy that reads and converts values from the Entity on demand.</li>
+ * <li>A class with a no-arg constructor whose non-static, non-final fields name projected properties.</li>
+ * </ul>
+ *
+ * <p>Values are converted only in the simplest ways: numbers are narrowed to the declared type, Strings become
+ * enums, and native keys become {@code Key<?>}. A getter or field named {@code key} with a key type receives the
+ * key of the entity; every other member is a projected property.</p>
+ *
+ * <p>Views are built once per view type and shared; use {@link #of(Class)}.</p>
+ */
+public class ProjectionView<V>
+{
+	/** The member which receives the entity key rather than a property */
+	private static final String KEY_NAME = "key";
+
+	/** */
+	private static final ClassValue<ProjectionView<?>> CACHE = new ClassValue<ProjectionView<?>>() {
+		@Override
+		protected ProjectionView<?> computeValue(Class<?> viewType) {
+			return new ProjectionView<>(viewType);
+		}
+	};
+
+	/**
+	 * @param viewType must be an interface with only getter methods, or a class with a no-arg constructor
+	 * @throws IllegalArgumentException if the type can't be a view; this is not cached
+	 */
+	@SuppressWarnings("unchecked")
+	public static <V> ProjectionView<V> of(Class<V> viewType) {
+		return (ProjectionView<V>)CACHE.get(viewType);
+	}
+
+	/** */
+	private final Class<V> viewType;
+
+	/** Names of the mapped properties, in declaration order */
+	private final String[] names;
+
+	/** Declared types of the mapped properties, parallel to names */
+	private final Class<?>[] types;
+
+	/** For class views; parallel to names */
+	private final MethodHandle[] setters;
+
+	/** For class views */
+	private final Constructor<V> ctor;
+
+	/** For interface views, index into names */
+	private final Map<Method, Integer> getters;
+
+	/** */
+	private ProjectionView(Class<V> viewType) {
+		this.viewType = viewType;
+
+		List<String> nameList = new ArrayList<>();
+		List<Class<?>> typeList = new ArrayList<>();
+
+		if (viewType.isInterface()) {
+			this.getters = new HashMap<>();
+			this.setters = null;
+			this.ctor = null;
+
+			for (Method method: viewType.getMethods()) {
+				// Redeclared equals(), hashCode(), toString() are answered by the proxy itself
+				if (isObjectMethod(method))
+					continue;
+
+				if (method.getParameterTypes().length > 0 || method.getReturnType() == void.class)
+					throw new IllegalArgumentException("Projection view " + viewType.getName() + " can only have getter methods: " + method);
+
+				String name = propertyName(method);
+				int index = nameList.indexOf(name);
+				if (index < 0) {
+					index = nameList.size();
+					nameList.add(name);
+					typeList.add(method.getReturnType());
+				}
+
+				getters.put(method, index);
+			}
+		} else {
+			this.getters = null;
+			this.ctor = TypeUtils.getNoArgConstructor(viewType);
+
+			List<MethodHandle> setterList = new ArrayList<>();
+			for (Class<?> clazz = viewType; clazz != Object.class; clazz = clazz.getSuperclass()) {
+				for (Field field: clazz.getDeclaredFields()) {
+					if ((field.getModifiers() & (Modifier.STATIC | Modifier.FINAL)) != 0 || field.isSynthetic())
+						continue;
+
+					field.setAccessible(true);
+					try {
+						setterList.add(MethodHandles.lookup().unreflectSetter(field));
+					}
+					catch (IllegalAccessException e) {
+						throw new IllegalStateException(e);
+					}
+
+					nameList.add(field.getName());
+					typeList.add(field.getType());
+				}
+			}
+
+			this.setters = setterList.toArray(new MethodHandle[setterList.size()]);
+		}
+
+		if (nameList.isEmpty())
+			throw new IllegalArgumentException("Projection view " + viewType.getName() + " has no properties");
+
+		this.names = nameList.toArray(new String[nameList.size()]);
+		this.types = typeList.toArray(new Class<?>[typeList.size()]);
+	}
+
+	/**
+	 * @return the type this view produces
+	 */
+	public Class<V> getViewType() {
+		return viewType;
+	}
+
+	/**
+	 * @return the names of properties which should be projected to fill this view; everything but the entity key
+	 */
+	public String[] getProjectedNames() {
+		Set<String> projected = new LinkedHashSet<>();
+		for (int i=0; i<names.length; i++)
+			if (!isEntityKey(i))
+				projected.add(names[i]);
+
+		return projected.toArray(new String[projected.size()]);
+	}
+
+	/**
+	 * Create a view of the projected entity.
+	 */
+	public V map(Entity ent) {
+		if (getters != null) {
+			@SuppressWarnings("unchecked")
+			V proxy = (V)Proxy.newProxyInstance(viewType.getClassLoader(), new Class<?>[] { viewType }, new ViewHandler(ent));
+			return proxy;
+		} else {
+			V view = TypeUtils.newInstance(ctor);
+
+			for (int i=0; i<names.length; i++) {
+				Object value = value(ent, i);
+				if (value != null) {
+					try {
+						setters[i].invoke(view, value);
+					}
+					catch (RuntimeException ex) { throw ex; }
+					catch (Throwable ex) { throw new RuntimeException(ex); }
+				}
+			}
+
+			return view;
+		}
+	}
+
+	/**
+	 * Obtain the converted value of the i'th property from the entity
+	 */
+	private Object value(Entity ent, int i) {
+		if (isEntityKey(i))
+			return convert(ent.getKey(), types[i]);
+		else
+			return convert(ent.getProperty(names[i]), types[i]);
+	}
+
+	/** @return true if the i'th member receives the entity key */
+	private boolean isEntityKey(int i) {
+		return names[i].equals(KEY_NAME) && (types[i] == Key.class || types[i] == com.google.appengine.api.datastore.Key.class);
+	}
+
+	/** @return true if the method is one of Object's, redeclared by an interface */
+	private static boolean isObjectMethod(Method method) {
+		try {
+			Object.class.getMethod(method.getName(), method.getParameterTypes());
+			return true;
+		} catch (NoSuchMethodException ex) {
+			return false;
+		}
+	}
+
+	/**
+	 * Strip the bean prefix off of a getter.
+	 */
+	private static String propertyName(Method method) {
+		String name = method.getName();
+
+		if (name.startsWith("get") && name.length() > 3)
+			return Character.toLowerCase(name.charAt(3)) + name.substring(4);
+		else if (name.startsWith("is") && name.length() > 2 && Primitives.wrap(method.getReturnType()) == Boolean.class)
+			return Character.toLowerCase(name.charAt(2)) + name.substring(3);
+		else
+			return name;
+	}
+
+	/**
+	 * Converts a projected (possibly RawValue) datastore value into the declared type.
+	 * Primitives receive their default value when the datastore value is null.
+	 */
+	@SuppressWarnings({"unchecked", "rawtypes"})
+	static Object convert(Object value, Class<?> type) {
+		Class<?> wrapped = Primitives.wrap(type);
+
+		// Projection queries produce RawValue because the index data is not self-describing
+		if (value instanceof RawValue)
+			value = ((RawValue)value).asType(indexType(wrapped));
+
+		if (value == null)
+			return type.isPrimitive() ? Defaults.defaultValue(type) : null;
+
+		if (wrapped.isInstance(value))
+			return value;
+
+		if (value instanceof Number) {
+			Number number = (Number)value;
+
+			if (wrapped == Long.class)
+				return number.longValue();
+			else if (wrapped == Integer.class)
+				return number.intValue();
+			else if (wrapped == Short.class)
+				return number.shortValue();
+			else if (wrapped == Byte.class)
+				return number.byteValue();
+			else if (wrapped == Double.class)
+				return number.doubleValue();
+			else if (wrapped == Float.class)
+				return number.floatValue();
+		}
+		else if (value instanceof String && wrapped.isEnum()) {
+			return Enum.valueOf((Class<Enum>)wrapped, (String)value);
+		}
+		else if (value instanceof com.google.appengine.api.datastore.Key && wrapped == Key.class) {
+			return Key.create((com.google.appengine.api.datastore.Key)value);
+		}
+
+		throw new IllegalStateException("Cannot convert projected value '" + value + "' of " + value.getClass() + " to " + type);
+	}
+
+	/**
+	 * The type in which the datastore index holds values for the declared (wrapped) type.
+	 */
+	private static Class<?> indexType(Class<?> wrapped) {
+		if (wrapped == Long.class || wrapped == Integer.class || wrapped == Short.class || wrapped == Byte.class)
+			return Long.class;
+		else if (wrapped == Double.class || wrapped == Float.class)
+			return Double.class;
+		else if (wrapped.isEnum())
+			return String.class;
+		else if (wrapped == Key.class)
+			return com.google.appengine.api.datastore.Key.class;
+		else
+			return wrapped;
+	}
+
+	/**
+	 * Backs interface views. Reads and converts values from the entity only when a getter is called.
+	 */
+	private class ViewHandler implements InvocationHandler
+	{
+		/** */
+		private final Entity ent;
+
+		/** */
+		ViewHandler(Entity ent) {
+			this.ent = ent;
+		}
+
+		@Override
+		public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+			Integer index = getters.get(method);
+			if (index != null)
+				return value(ent, index);
+
+			// Methods from Object
+			switch (method.getName()) {
+				case "equals": return proxy == args[0];
+				case "hashCode": return System.identityHashCode(proxy);
+				case "toString": return viewType.getSimpleName() + "(" + ent.getKey() + ")" + ent.getProperties();
+				default: throw new IllegalStateException("Not a method of the view: " + method);	// the constructor rules this out
+			}
+		}
+	}
+}
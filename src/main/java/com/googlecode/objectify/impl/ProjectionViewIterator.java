@@ -0,0 +1,38 @@
+package com.googlecode.objectify.impl;
+
+import com.google.appengine.api.datastore.Entity;
+import com.google.appengine.api.datastore.QueryResultIterator;
+import com.googlecode.objectify.stats.QueryProfile;
+import com.googlecode.objectify.util.TranslatingQueryResultIterator;
+
+/**
+ * Like ProjectionIterator, but maps each projected Entity straight into a view type without
+ * involving the LoadEngine or any translators.
+ */
+public class ProjectionViewIterator<V> extends TranslatingQueryResultIterator<Entity, V> {
+
+	private final ProjectionView<V> view;
+
+	/** Null unless we are profiling */
+	private final QueryProfile profile;
+
+	/** */
+	public ProjectionViewIterator(QueryResultIterator<Entity> base, ProjectionView<V> view, QueryProfile profile) {
+		super(base);
+		this.view = view;
+		this.profile = profile;
+	}
+
+	@Override
+	protected V translate(Entity from) {
+		if (profile == null)
+			return view.map(from);
+
+		long start = System.nanoTime();
+		V result = view.map(from);
+		profile.recordTranslation(System.nanoTime() - start);
+		profile.recordResult();
+
+		return result;
+	}
+}
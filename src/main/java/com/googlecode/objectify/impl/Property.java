@@ -34,6 +34,11 @@ public interface Property
 	 * @return true if this field should be saved, false if not
 	 */
 	boolean isSaved(Object onPojo);
+
+	/**
+	 * Same as isSaved(Object), for when the caller already has the value of the property in hand.
+	 */
+	boolean isSaved(Object onPojo, Object value);
 	
 	/**
 	 * Gets the index instruction for this property, if there is one.  Properties do not necessarily have a
@@ -44,4 +49,9 @@ public interface Property
 	 * @return true if this field should be indexed, false if it should be unindexed, null is "no information, continue with defaults".
 	 */
 	Boolean getIndexInstruction(Object onPojo);
+
+	/**
+	 * Same as getIndexInstruction(Object), for when the caller already has the value of the property in hand.
+	 */
+	Boolean getIndexInstruction(Object onPojo, Object value);
 }
\ No newline at end of file
@@ -49,6 +49,10 @@ public class PropertyPopulator<P, D> implements Populator<P> {
 	 */
 	@Override
 	public void load(PropertyContainer container, LoadContext ctx, Path containerPath, Object intoPojo) {
+		FieldMask mask = ctx.getFieldMask();
+		if (mask != null && !mask.includes(containerPath, property.getName()))
+			return;
+
 		try {
 			if (translator instanceof Recycles)
 				ctx.recycle(property.get(intoPojo));
@@ -122,14 +126,16 @@ public class PropertyPopulator<P, D> implements Populator<P> {
 	 */
 	@Override
 	public void save(Object onPojo, boolean index, SaveContext ctx, Path containerPath, PropertyContainer into) {
-		if (property.isSaved(onPojo)) {
+		// Read the value once; the conditions all test the same one
+		@SuppressWarnings("unchecked")
+		P value = (P)property.get(onPojo);
+
+		if (property.isSaved(onPojo, value)) {
 			// Look for an override on indexing
-			Boolean propertyIndexInstruction = property.getIndexInstruction(onPojo);
+			Boolean propertyIndexInstruction = property.getIndexInstruction(onPojo, value);
 			if (propertyIndexInstruction != null)
 				index = propertyIndexInstruction;
 
-			@SuppressWarnings("unchecked")
-			P value = (P)property.get(onPojo);
 			try {
 				Path propPath = containerPath.extend(property.getName());
 				Object propValue = translator.save(value, index, ctx, propPath);
@@ -0,0 +1,163 @@
+package com.googlecode.objectify.impl;
+
+import com.google.appengine.api.datastore.Cursor;
+import com.google.appengine.api.datastore.QueryResultIterator;
+import com.googlecode.objectify.Key;
+import com.googlecode.objectify.Result;
+import com.googlecode.objectify.cache.PendingFutures;
+import com.googlecode.objectify.cmd.QueryDeletion;
+import com.googlecode.objectify.cmd.SimpleQuery;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Implementation of QueryDeletion. The deletes go through the normal Deleter, so the session,
+ * deferred operations, and the global cache are kept up to date just like any other delete.
+ *
+ * <p>The first batches are issued when the command is created. The rest are issued as earlier ones complete,
+ * which happens in now() - or, if nobody calls it, when pending futures are completed at the end of the
+ * request (by ObjectifyFilter or ObjectifyService.run()).</p>
+ */
+class QueryDeletionImpl implements QueryDeletion
+{
+	/** */
+	private static final Logger log = Logger.getLogger(QueryDeletionImpl.class.getName());
+
+	/** Keys per delete; also the chunk size of the keys-only query */
+	static final int BATCH_SIZE = WriteEngine.MAX_BATCH_COUNT;
+
+	/** Deletes we allow to run at once before waiting for the oldest */
+	static final int MAX_BATCHES_IN_FLIGHT = WriteEngine.MAX_PARTS_IN_FLIGHT;
+
+	/** A delete which has been issued, and where the query stood when it was */
+	private static class Batch
+	{
+		final Result<Void> result;
+		final int size;
+		final Cursor cursor;
+
+		Batch(Result<Void> result, int size, Cursor cursor) {
+			this.result = result;
+			this.size = size;
+			this.cursor = cursor;
+		}
+	}
+
+	/** */
+	private final SimpleQuery<?> query;
+	private final DeleterImpl deleter;
+
+	/** */
+	private volatile int deleted;
+	private volatile Cursor cursor;
+	private volatile boolean done;
+	private RuntimeException failure;
+
+	/** Guarded by this */
+	private final QueryResultIterator<? extends Key<?>> keys;
+	private final Deque<Batch> inFlight = new ArrayDeque<>();
+
+	/** Lets the end of the request finish the deletion if nobody calls now(); see PendingFutures */
+	private final Future<Integer> completion = new Future<Integer>() {
+		@Override
+		public boolean cancel(boolean mayInterruptIfRunning) {
+			return false;
+		}
+
+		@Override
+		public boolean isCancelled() {
+			return false;
+		}
+
+		@Override
+		public boolean isDone() {
+			return done;
+		}
+
+		@Override
+		public Integer get() {
+			return now();
+		}
+
+		@Override
+		public Integer get(long timeout, TimeUnit unit) {
+			return now();
+		}
+	};
+
+	/**
+	 * Runs the query and issues the first deletes right away, like any other delete command.
+	 */
+	QueryDeletionImpl(DeleterImpl deleter, SimpleQuery<?> query) {
+		this.deleter = deleter;
+		this.query = query;
+
+		synchronized (this) {
+			this.keys = query.chunk(BATCH_SIZE).keys().iterator();
+			issue();
+		}
+
+		PendingFutures.addPending(completion);
+	}
+
+	@Override
+	public int getDeleted() {
+		return deleted;
+	}
+
+	@Override
+	public Cursor getCursor() {
+		return cursor;
+	}
+
+	@Override
+	public synchronized Integer now() {
+		if (!done) {
+			try {
+				// Batches complete in order, so the cursor never moves past a delete that hasn't finished
+				while (!inFlight.isEmpty()) {
+					complete(inFlight.removeFirst());
+					issue();
+				}
+
+				if (log.isLoggable(Level.FINEST))
+					log.finest("Deleted " + deleted + " entities matching " + query);
+			} catch (RuntimeException ex) {
+				failure = ex;
+			} finally {
+				done = true;
+				PendingFutures.removePending(completion);
+			}
+		}
+
+		if (failure != null)
+			throw failure;
+
+		return deleted;
+	}
+
+	/** Issue deletes until enough are in flight or the keys run out. Must hold the monitor. */
+	private void issue() {
+		while (inFlight.size() < MAX_BATCHES_IN_FLIGHT && keys.hasNext()) {
+			List<Key<?>> batch = new ArrayList<>(BATCH_SIZE);
+			while (batch.size() < BATCH_SIZE && keys.hasNext())
+				batch.add(keys.next());
+
+			inFlight.addLast(new Batch(deleter.keys(batch), batch.size(), keys.getCursor()));
+		}
+	}
+
+	/** */
+	private void complete(Batch batch) {
+		batch.result.now();
+		deleted += batch.size;
+		cursor = batch.cursor;
+	}
+}
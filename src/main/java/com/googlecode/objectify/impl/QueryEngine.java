@@ -1,12 +1,15 @@
 package com.googlecode.objectify.impl;
 
 import com.google.appengine.api.datastore.AsyncDatastoreService;
+import com.google.appengine.api.datastore.Entity;
 import com.google.appengine.api.datastore.FetchOptions;
 import com.google.appengine.api.datastore.PreparedQuery;
 import com.google.appengine.api.datastore.QueryResultIterable;
 import com.google.appengine.api.datastore.QueryResultIterator;
 import com.google.appengine.api.datastore.Transaction;
+import com.googlecode.objectify.ChunkSizer;
 import com.googlecode.objectify.Key;
+import com.googlecode.objectify.stats.QueryProfile;
 import com.googlecode.objectify.util.DatastoreUtils;
 
 import java.util.logging.Logger;
@@ -26,6 +29,15 @@ public class QueryEngine
 	protected AsyncDatastoreService ads;
 	protected Transaction transactionRaw;
 
+	/** If non-null, record what the query does */
+	protected QueryProfile profile;
+
+	/** If non-null, chunk sizes adapt as the query proceeds */
+	protected ChunkSizer chunkSizer;
+
+	/** If true, hybrid and normal queries start loading each chunk before the previous one is consumed */
+	protected boolean prefetch;
+
 	/**
 	 */
 	public QueryEngine(LoaderImpl<?> loader, AsyncDatastoreService ads, Transaction transactionRaw) {
@@ -34,6 +46,29 @@ public class QueryEngine
 		this.transactionRaw = transactionRaw;
 	}
 
+	/**
+	 * Record what happens in the queries executed by this engine.
+	 * @param profile can be null to disable profiling
+	 */
+	public void setProfile(QueryProfile profile) {
+		this.profile = profile;
+	}
+
+	/**
+	 * Adapt chunk sizes in hybrid and normal queries.
+	 * @param sizer can be null to use the fixed chunk size from the fetch options
+	 */
+	public void setChunkSizer(ChunkSizer sizer) {
+		this.chunkSizer = sizer;
+	}
+
+	/**
+	 * Keep hybrid and normal queries one chunk ahead of the consumer.
+	 */
+	public void setPrefetch(boolean prefetch) {
+		this.prefetch = prefetch;
+	}
+
 	/**
 	 * Perform a keys-only query.
 	 */
@@ -42,11 +77,21 @@ public class QueryEngine
 		log.finest("Starting keys-only query");
 
 		final PreparedQuery pq = prepare(query);
+		profile(QueryProfile.Strategy.KEYS_ONLY);
 
 		return new QueryResultIterable<Key<T>>() {
 			@Override
 			public QueryResultIterator<Key<T>> iterator() {
-				return new KeysOnlyIterator<>(pq, fetchOpts);
+				if (profile == null) {
+					return new KeysOnlyIterator<>(pq, fetchOpts);
+				} else {
+					return new KeysOnlyIterator<T>(pq, fetchOpts) {
+						@Override
+						protected void loaded(Entity ent) {
+							profile.recordResult();
+						}
+					};
+				}
 			}
 		};
 	}
@@ -61,11 +106,13 @@ public class QueryEngine
 		query = DatastoreUtils.cloneQuery(query).setKeysOnly();
 
 		final PreparedQuery pq = prepare(query);
+		final String kind = query.getKind();
+		profile(QueryProfile.Strategy.HYBRID);
 
 		return new QueryResultIterable<T>() {
 			@Override
 			public QueryResultIterator<T> iterator() {
-				return new ChunkingIterator<>(loader.createLoadEngine(), pq, new KeysOnlyIterator<T>(pq, fetchOpts), fetchOpts.getChunkSize());
+				return chunking(createLoadEngine(), pq, new KeysOnlyIterator<T>(pq, fetchOpts), fetchOpts, kind);
 			}
 		};
 	}
@@ -78,12 +125,14 @@ public class QueryEngine
 		log.finest("Starting normal query");
 
 		final PreparedQuery pq = prepare(query);
-		final LoadEngine loadEngine = loader.createLoadEngine();
+		final LoadEngine loadEngine = createLoadEngine();
+		final String kind = query.getKind();
+		profile(QueryProfile.Strategy.NORMAL);
 
 		return new QueryResultIterable<T>() {
 			@Override
 			public QueryResultIterator<T> iterator() {
-				return new ChunkingIterator<>(loadEngine, pq, new StuffingIterator<T>(pq, fetchOpts, loadEngine), fetchOpts.getChunkSize());
+				return chunking(loadEngine, pq, new StuffingIterator<T>(pq, fetchOpts, loadEngine), fetchOpts, kind);
 			}
 		};
 	}
@@ -97,7 +146,8 @@ public class QueryEngine
 		log.finest("Starting projection query");
 
 		final PreparedQuery pq = prepare(query);
-		final LoadEngine loadEngine = loader.createLoadEngine();
+		final LoadEngine loadEngine = createLoadEngine();
+		profile(QueryProfile.Strategy.PROJECTION);
 
 		return new QueryResultIterable<T>() {
 			@Override
@@ -107,6 +157,25 @@ public class QueryEngine
 		};
 	}
 
+	/**
+	 * A projection query which maps results directly into a view type. Bypasses the session and the translators.
+	 */
+	public <V> QueryResultIterable<V> queryProjectionView(com.google.appengine.api.datastore.Query query, final FetchOptions fetchOpts, final ProjectionView<V> view) {
+		assert !query.isKeysOnly();
+		assert !query.getProjections().isEmpty();
+		log.finest("Starting projection view query");
+
+		final PreparedQuery pq = prepare(query);
+		profile(QueryProfile.Strategy.PROJECTION);
+
+		return new QueryResultIterable<V>() {
+			@Override
+			public QueryResultIterator<V> iterator() {
+				return new ProjectionViewIterator<>(pq.asQueryResultIterator(fetchOpts), view, profile);
+			}
+		};
+	}
+
 	/**
 	 * The fundamental query count operation.  This is sufficiently different from normal query().
 	 */
@@ -115,6 +184,27 @@ public class QueryEngine
 		return pq.countEntities(fetchOpts);
 	}
 
+	/** @return a chunking iterator, adaptive if we have a sizer and a kind to learn about */
+	private <T> ChunkingIterator<T> chunking(LoadEngine loadEngine, PreparedQuery pq, QueryResultIterator<Key<T>> source, FetchOptions fetchOpts, String kind) {
+		if (chunkSizer != null && kind != null)
+			return new ChunkingIterator<>(loadEngine, pq, source, chunkSizer, kind, prefetch);
+		else
+			return new ChunkingIterator<>(loadEngine, pq, source, fetchOpts.getChunkSize(), prefetch);
+	}
+
+	/** @return a load engine which records into our profile, if there is one */
+	private LoadEngine createLoadEngine() {
+		LoadEngine loadEngine = loader.createLoadEngine();
+		loadEngine.setProfile(profile);
+		return loadEngine;
+	}
+
+	/** Note how the query is executed, if we are profiling */
+	private void profile(QueryProfile.Strategy strategy) {
+		if (profile != null)
+			profile.recordStrategy(strategy);
+	}
+
 	/** */
 	private PreparedQuery prepare(com.google.appengine.api.datastore.Query query) {
 		return ads.prepare(transactionRaw, query);
@@ -10,12 +10,14 @@ import com.google.appengine.api.datastore.Query.FilterOperator;
 import com.google.appengine.api.datastore.Query.SortDirection;
 import com.google.appengine.api.datastore.QueryResultIterable;
 import com.google.appengine.api.datastore.QueryResultIterator;
+import com.googlecode.objectify.HybridStrategy;
 import com.googlecode.objectify.Key;
 import com.googlecode.objectify.LoadResult;
 import com.googlecode.objectify.ObjectifyFactory;
 import com.googlecode.objectify.annotation.Subclass;
 import com.googlecode.objectify.cmd.Query;
 import com.googlecode.objectify.impl.translate.ClassTranslator;
+import com.googlecode.objectify.stats.QueryProfile;
 import com.googlecode.objectify.util.DatastoreUtils;
 import com.googlecode.objectify.util.IteratorFirstResult;
 import com.googlecode.objectify.util.MakeListResult;
@@ -35,7 +37,7 @@ public class QueryImpl<T> extends SimpleQueryImpl<T> implements Query<T>, Clonea
 	 * Because we process @Load batches, we need to always work in chunks.  So we should always specify
 	 * a chunk size to the query.  This is the default if user does not specify an explicit chunk size.
 	 */
-	static final int DEFAULT_CHUNK_SIZE = 30;
+	public static final int DEFAULT_CHUNK_SIZE = 30;
 
 	/** We need to track this because it enables the ability to filter/sort by id */
 	Class<T> classRestriction;
@@ -53,6 +55,15 @@ public class QueryImpl<T> extends SimpleQueryImpl<T> implements Query<T>, Clonea
 	/** Three states; null is "figure it out automatically" */
 	Boolean hybrid;
 
+	/** If non-null, execution is recorded here */
+	QueryProfile profile;
+
+	/** True if the chunk size should be chosen by the factory's ChunkSizer */
+	boolean chunkAdaptive;
+
+	/** True if each chunk should start loading before the previous one is consumed */
+	boolean prefetch;
+
 	/** */
 	QueryImpl(LoaderImpl<?> loader) {
 		super(loader);
@@ -240,6 +251,17 @@ public class QueryImpl<T> extends SimpleQueryImpl<T> implements Query<T>, Clonea
 	/** Modifies the instance */
 	void setChunk(int value) {
 		this.chunk = value;
+		this.chunkAdaptive = false;
+	}
+
+	/** Modifies the instance */
+	void setChunkAdaptive() {
+		this.chunkAdaptive = true;
+	}
+
+	/** Modifies the instance */
+	void setPrefetch() {
+		this.prefetch = true;
 	}
 
 	/** Modifies the instance */
@@ -247,6 +269,11 @@ public class QueryImpl<T> extends SimpleQueryImpl<T> implements Query<T>, Clonea
 		this.hybrid = force;
 	}
 
+	/** Modifies the instance */
+	void setProfile(QueryProfile value) {
+		this.profile = value;
+	}
+
 	/** Modifies the instance */
 	void setKeysOnly() {
 		if (!this.actual.getProjections().isEmpty())
@@ -339,7 +366,7 @@ public class QueryImpl<T> extends SimpleQueryImpl<T> implements Query<T>, Clonea
 	 */
 	@Override
 	public int count() {
-		return loader.createQueryEngine().queryCount(this.getActualQuery(), this.fetchOptions());
+		return queryEngine().queryCount(this.getActualQuery(), this.fetchOptions());
 	}
 
 	/* (non-Javadoc)
@@ -372,31 +399,49 @@ public class QueryImpl<T> extends SimpleQueryImpl<T> implements Query<T>, Clonea
 	 */
 	public QueryResultIterable<Key<T>> keysIterable() {
 		assert actual.isKeysOnly();
-		return loader.createQueryEngine().queryKeysOnly(this.getActualQuery(), this.fetchOptions());
+		return queryEngine().queryKeysOnly(this.getActualQuery(), this.fetchOptions());
+	}
+
+	/**
+	 * Get an iterator over projected views.  Not part of the public api, but used by QueryViewImpl.  Assumes
+	 * that projections have already been set.
+	 */
+	public <V> QueryResultIterable<V> viewIterable(ProjectionView<V> view) {
+		assert !actual.getProjections().isEmpty();
+		return queryEngine().queryProjectionView(this.getActualQuery(), this.fetchOptions(), view);
 	}
 
 	/** Produces the basic iterable on results based on the current query.  Used to generate other iterables via transformation. */
 	private QueryResultIterable<T> resultIterable() {
 		if (!actual.getProjections().isEmpty())
-			return loader.createQueryEngine().queryProjection(this.getActualQuery(), this.fetchOptions());
+			return queryEngine().queryProjection(this.getActualQuery(), this.fetchOptions());
 		else if (shouldHybridize())
-			return loader.createQueryEngine().queryHybrid(this.getActualQuery(), this.fetchOptions());
+			return queryEngine().queryHybrid(this.getActualQuery(), this.fetchOptions());
 		else
-			return loader.createQueryEngine().queryNormal(this.getActualQuery(), this.fetchOptions());
+			return queryEngine().queryNormal(this.getActualQuery(), this.fetchOptions());
 	}
 
 	/**
-	 * @return true if we should hybridize this query
+	 * @return true if we should hybridize this query; the HybridStrategy decides unless the user forced it
 	 */
 	private boolean shouldHybridize() {
-		if (hybrid != null)
+		HybridStrategy strategy = fact().getHybridStrategy();
+
+		if (hybrid != null) {
+			if (actual.getKind() != null)
+				strategy.recordForced(actual.getKind());
+
 			return hybrid;
+		}
+
+		// We don't auto-hybridize kindless or untyped queries
+		if (classRestriction == null)
+			return false;
 
-		// If the class is cacheable
-		if (classRestriction != null && loader.getObjectifyImpl().getCache() && fact().getMetadata(classRestriction).getCacheExpirySeconds() != null)
-			return true;
+		boolean cacheable = loader.getObjectifyImpl().getCache() && fact().getMetadata(classRestriction).getCacheExpirySeconds() != null;
+		int resident = loader.getObjectifyImpl().getSession().countOfKind(actual.getKind());
 
-		return false;
+		return strategy.shouldHybridize(actual.getKind(), cacheable, resident, limit);
 	}
 
 	/* (non-Javadoc)
@@ -434,7 +479,9 @@ public class QueryImpl<T> extends SimpleQueryImpl<T> implements Query<T>, Clonea
 		if (this.offset != 0)
 			opts = opts.offset(this.offset);
 
-		if (this.chunk == null)
+		if (isChunkAdaptive())
+			opts = opts.chunkSize(fact().getChunkSizer().initialChunkSize(actual.getKind()));
+		else if (this.chunk == null)
 			opts = opts.chunkSize(DEFAULT_CHUNK_SIZE);
 		else
 			opts = opts.chunkSize(this.chunk);
@@ -442,6 +489,30 @@ public class QueryImpl<T> extends SimpleQueryImpl<T> implements Query<T>, Clonea
 		return opts;
 	}
 
+	/**
+	 * @return a fresh query engine which records into our profile, if we have one
+	 */
+	private QueryEngine queryEngine() {
+		QueryEngine engine = loader.createQueryEngine();
+
+		if (profile != null) {
+			profile.recordQuery(this.toString());
+			engine.setProfile(profile);
+		}
+
+		if (isChunkAdaptive())
+			engine.setChunkSizer(fact().getChunkSizer());
+
+		engine.setPrefetch(prefetch);
+
+		return engine;
+	}
+
+	/** Adaptive chunking learns per kind, so kindless queries can't use it */
+	private boolean isChunkAdaptive() {
+		return chunkAdaptive && actual.getKind() != null;
+	}
+
 	/** Convenience method */
 	private ObjectifyFactory fact() {
 		return loader.getObjectify().factory();
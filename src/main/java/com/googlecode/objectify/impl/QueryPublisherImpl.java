@@ -0,0 +1,161 @@
+package com.googlecode.objectify.impl;
+
+import com.google.appengine.api.datastore.Cursor;
+import com.google.appengine.api.datastore.QueryResultIterator;
+import com.googlecode.objectify.cmd.QueryPublisher;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * <p>Implementation of QueryPublisher. Each subscription runs the query once, opening it when the first
+ * demand arrives and keeping it open across requests. Results are fetched a chunk at a time, and the query
+ * prefetches: while one chunk is being delivered, the batch get for the next one is already running.
+ * The query ends when its keys run out, so entities deleted since indexing are skipped without
+ * ending the stream.</p>
+ */
+class QueryPublisherImpl<T> implements QueryPublisher<T>
+{
+	/** */
+	QueryImpl<T> impl;
+
+	/** */
+	QueryPublisherImpl(QueryImpl<T> query) {
+		this.impl = query;
+	}
+
+	@Override
+	public void subscribe(Subscriber<? super T> subscriber) {
+		SubscriptionImpl subscription = new SubscriptionImpl(subscriber);
+		subscriber.onSubscribe(subscription);
+	}
+
+	@Override
+	public String toString() {
+		return impl.toString();
+	}
+
+	/**
+	 * One execution of the query, driven by the subscriber's demand.
+	 */
+	private class SubscriptionImpl implements Subscription
+	{
+		/** */
+		private final Subscriber<? super T> subscriber;
+
+		/** Outstanding demand; Long.MAX_VALUE means unbounded */
+		private final AtomicLong requested = new AtomicLong();
+
+		/** Serializes the drain loop; anyone who increments from zero owns the loop */
+		private final AtomicInteger wip = new AtomicInteger();
+
+		/** */
+		private volatile boolean cancelled;
+		private boolean done;
+
+		/** Set by an invalid request(); delivered by the drain loop like any other signal */
+		private volatile IllegalArgumentException invalidRequest;
+
+		/** The open query, once there has been demand. Guarded by this, so getCursor() can be called from any thread. */
+		private QueryResultIterator<T> results;
+
+		/** */
+		SubscriptionImpl(Subscriber<? super T> subscriber) {
+			this.subscriber = subscriber;
+		}
+
+		@Override
+		public void request(long n) {
+			if (n <= 0) {
+				invalidRequest = new IllegalArgumentException("request() must be positive, was " + n);
+				drain();
+				return;
+			}
+
+			// Add without overflowing past unbounded
+			while (true) {
+				long current = requested.get();
+				if (current == Long.MAX_VALUE)
+					break;
+
+				long next = current + n;
+				if (next < 0)
+					next = Long.MAX_VALUE;
+
+				if (requested.compareAndSet(current, next))
+					break;
+			}
+
+			drain();
+		}
+
+		@Override
+		public void cancel() {
+			cancelled = true;
+			drain();
+		}
+
+		@Override
+		public synchronized Cursor getCursor() {
+			// The query is positioned just past the last delivered result
+			return results == null ? impl.startAt : results.getCursor();
+		}
+
+		/**
+		 * Deliver as many results as demand allows. Calls to request() made from within onNext() just
+		 * bump the counters and let the outer loop pick up the new demand.
+		 */
+		private void drain() {
+			if (wip.getAndIncrement() != 0)
+				return;
+
+			int missed = 1;
+			do {
+				try {
+					if (invalidRequest != null)
+						throw invalidRequest;
+
+					emit();
+				} catch (RuntimeException ex) {
+					if (!done && !cancelled) {
+						cancelled = true;
+						subscriber.onError(ex);
+					}
+				}
+
+				missed = wip.addAndGet(-missed);
+			} while (missed != 0);
+		}
+
+		/** */
+		private void emit() {
+			while (!done && !cancelled && requested.get() > 0) {
+				T item = nextResult();
+
+				if (item == null) {
+					done = true;
+					subscriber.onComplete();
+					return;
+				}
+
+				if (requested.get() != Long.MAX_VALUE)
+					requested.decrementAndGet();
+
+				subscriber.onNext(item);
+			}
+		}
+
+		/**
+		 * @return the next result, opening the query if necessary, or null if there are no more
+		 */
+		private synchronized T nextResult() {
+			if (results == null) {
+				QueryImpl<T> q = impl.createQuery();
+				q.setPrefetch();
+				results = q.iterator();
+			}
+
+			return results.hasNext() ? results.next() : null;
+		}
+	}
+}
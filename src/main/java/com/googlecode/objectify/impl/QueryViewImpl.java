@@ -0,0 +1,57 @@
+package com.googlecode.objectify.impl;
+
+import com.google.appengine.api.datastore.QueryResultIterable;
+import com.google.appengine.api.datastore.QueryResultIterator;
+import com.googlecode.objectify.LoadResult;
+import com.googlecode.objectify.Result;
+import com.googlecode.objectify.cmd.QueryExecute;
+import com.googlecode.objectify.util.IteratorFirstResult;
+import com.googlecode.objectify.util.MakeListResult;
+import com.googlecode.objectify.util.ResultProxy;
+
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Executes a projection query into a view type; see SimpleQuery.projectInto().
+ */
+class QueryViewImpl<T, V> implements QueryExecute<V>
+{
+	QueryImpl<T> impl;
+	ProjectionView<V> view;
+
+	/** */
+	QueryViewImpl(QueryImpl<T> query, ProjectionView<V> view) {
+		assert !query.actual.getProjections().isEmpty();
+		this.impl = query;
+		this.view = view;
+	}
+
+	@Override
+	public LoadResult<V> first() {
+		Iterator<V> it = impl.limit(1).viewIterable(view).iterator();
+		Result<V> result = new IteratorFirstResult<>(it);
+
+		return new LoadResult<>(null, result);
+	}
+
+	@Override
+	public QueryResultIterable<V> iterable() {
+		return impl.viewIterable(view);
+	}
+
+	@Override
+	public List<V> list() {
+		return ResultProxy.create(List.class, new MakeListResult<>(impl.chunk(Integer.MAX_VALUE).viewIterable(view)));
+	}
+
+	@Override
+	public QueryResultIterator<V> iterator() {
+		return iterable().iterator();
+	}
+
+	@Override
+	public String toString() {
+		return impl.toString() + "->" + view.getViewType().getName();
+	}
+}
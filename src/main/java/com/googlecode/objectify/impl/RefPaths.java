@@ -0,0 +1,202 @@
+package com.googlecode.objectify.impl;
+
+import com.googlecode.objectify.ObjectifyFactory;
+import com.googlecode.objectify.Ref;
+import com.googlecode.objectify.annotation.Id;
+import com.googlecode.objectify.annotation.Load;
+import com.googlecode.objectify.annotation.Parent;
+import com.googlecode.objectify.annotation.Serialize;
+import com.googlecode.objectify.impl.translate.ClassMembers;
+import com.googlecode.objectify.repackaged.gentyref.GenericTypeReflector;
+import com.googlecode.objectify.util.GenericUtils;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * <p>An index of the properties of each class which can lead to {@code @Load} Refs, either directly (a Ref,
+ * or a collection, array, or map of Refs) or through embedded objects. Walking the index visits every such Ref
+ * in a pojo without translating anything else, so finding the Refs to upgrade when a new load arrangement is
+ * seen costs roughly in proportion to the number of Refs rather than the size of the entity.</p>
+ *
+ * <p>This mirrors what the standard translators do when saving: the load conditions of a Ref come from the
+ * nearest enclosing property, @IgnoreSave is respected, and @Serialize properties are opaque. The @Parent
+ * field is not included; LoadEngine loads parents on its own.</p>
+ *
+ * <p>Entity classes are indexed when registered. Embedded classes are indexed the first time an instance is
+ * walked, which takes care of polymorphic and generically-typed properties.</p>
+ */
+public class RefPaths
+{
+	/** Receives each Ref found along the indexed paths */
+	public interface Visitor
+	{
+		/** @param conditions are the load conditions of the property which holds the Ref */
+		void visit(Ref<?> ref, LoadConditions conditions);
+	}
+
+	/** What a declared type can lead to */
+	private enum Reach {
+		/** Nothing we care about */
+		NOTHING,
+		/** Refs, directly or inside collections, arrays, or maps */
+		REFS,
+		/** Objects which might themselves have properties leading to Refs */
+		OBJECTS
+	}
+
+	/** One property which must be walked */
+	private static class Step
+	{
+		final Property property;
+
+		/** Null if the property has no @Load, in which case Refs directly in this property are ignored */
+		final LoadConditions conditions;
+
+		Step(Property property, LoadConditions conditions) {
+			this.property = property;
+			this.conditions = conditions;
+		}
+	}
+
+	/** */
+	private final ObjectifyFactory fact;
+
+	/** Steps for each class, including those of its superclasses. Empty means nothing to walk. */
+	private final Map<Class<?>, Step[]> byClass = new ConcurrentHashMap<>();
+
+	/** */
+	public RefPaths(ObjectifyFactory fact) {
+		this.fact = fact;
+	}
+
+	/**
+	 * Precompute the paths for the class.
+	 */
+	public void index(Class<?> clazz) {
+		getSteps(clazz);
+	}
+
+	/**
+	 * Visit every Ref reachable from the pojo along indexed paths.
+	 */
+	public void walk(Object pojo, Visitor visitor) {
+		for (Step step: getSteps(pojo.getClass())) {
+			if (step.property.isSaved(pojo))
+				walkValue(step.property.get(pojo), step.conditions, visitor);
+		}
+	}
+
+	/** */
+	private void walkValue(Object value, LoadConditions conditions, Visitor visitor) {
+		if (value == null)
+			return;
+
+		if (value instanceof Ref<?>) {
+			if (conditions != null)
+				visitor.visit((Ref<?>)value, conditions);
+		}
+		else if (value instanceof Collection<?>) {
+			for (Object element: (Collection<?>)value)
+				walkValue(element, conditions, visitor);
+		}
+		else if (value instanceof Map<?, ?>) {
+			for (Object element: ((Map<?, ?>)value).values())
+				walkValue(element, conditions, visitor);
+		}
+		else if (value instanceof Object[]) {
+			for (Object element: (Object[])value)
+				walkValue(element, conditions, visitor);
+		}
+		else if (!isLeaf(value.getClass())) {
+			// An embedded object; its own properties supply the conditions for anything inside
+			walk(value, visitor);
+		}
+	}
+
+	/**
+	 * Relaxed like the various stats; if two threads build the same steps, no big deal.
+	 */
+	private Step[] getSteps(Class<?> clazz) {
+		Step[] steps = byClass.get(clazz);
+		if (steps == null) {
+			steps = buildSteps(clazz);
+			byClass.put(clazz, steps);
+		}
+
+		return steps;
+	}
+
+	/** */
+	private Step[] buildSteps(Class<?> clazz) {
+		List<Step> steps = new ArrayList<>();
+
+		for (Class<?> examined = clazz; examined != null && examined != Object.class; examined = examined.getSuperclass()) {
+			for (Field field: ClassMembers.of(examined).getFields()) {
+				if (!isOfInterest(field))
+					continue;
+
+				Load load = field.getAnnotation(Load.class);
+				Reach reach = reach(field.getGenericType());
+
+				if (reach == Reach.OBJECTS || (reach == Reach.REFS && load != null)) {
+					LoadConditions conditions = (load == null) ? null : new LoadConditions(load, null);
+					steps.add(new Step(new FieldProperty(fact, clazz, field), conditions));
+				}
+			}
+		}
+
+		return steps.toArray(new Step[steps.size()]);
+	}
+
+	/**
+	 * Of the fields ClassPopulator would use, key fields and serialized fields are excluded.
+	 */
+	private boolean isOfInterest(Field field) {
+		return !field.isAnnotationPresent(Id.class)
+				&& !field.isAnnotationPresent(Parent.class)
+				&& !field.isAnnotationPresent(Serialize.class);
+	}
+
+	/**
+	 * Figure out what a declared type can lead to.
+	 */
+	private Reach reach(Type type) {
+		Class<?> clazz = GenericTypeReflector.erase(type);
+
+		if (Ref.class.isAssignableFrom(clazz))
+			return Reach.REFS;
+		else if (clazz.isArray())
+			return reach(GenericTypeReflector.getArrayComponentType(type));
+		else if (Collection.class.isAssignableFrom(clazz))
+			return reach(GenericUtils.getCollectionComponentType(type));
+		else if (Map.class.isAssignableFrom(clazz))
+			return reach(GenericUtils.getMapValueType(type));
+		else if (isLeaf(clazz))
+			return Reach.NOTHING;
+		else
+			return Reach.OBJECTS;
+	}
+
+	/**
+	 * @return true if instances of the class cannot possibly hold Refs. Abstract types like Object
+	 *  might hold anything at runtime.
+	 */
+	private static boolean isLeaf(Class<?> clazz) {
+		if (clazz.isPrimitive() || clazz.isEnum())
+			return true;
+
+		if (clazz.isInterface() || Modifier.isAbstract(clazz.getModifiers()) || clazz == Object.class)
+			return false;
+
+		String name = clazz.getName();
+		return name.startsWith("java.") || name.startsWith("javax.") || name.startsWith("com.google.appengine.")
+				|| name.startsWith("org.joda.") || name.equals(com.googlecode.objectify.Key.class.getName());
+	}
+}
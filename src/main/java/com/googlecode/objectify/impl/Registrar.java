@@ -2,11 +2,26 @@ package com.googlecode.objectify.impl;
 
 import com.googlecode.objectify.Key;
 import com.googlecode.objectify.ObjectifyFactory;
+import com.googlecode.objectify.annotation.Cache;
 import com.googlecode.objectify.annotation.Entity;
 import com.googlecode.objectify.annotation.Subclass;
+import com.googlecode.objectify.impl.translate.ClassMembers;
 
+import java.lang.reflect.Field;
+import java.lang.reflect.GenericArrayType;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
+import java.util.logging.Level;
 import java.util.logging.Logger;
 
 /**
@@ -20,17 +35,54 @@ import java.util.logging.Logger;
 public class Registrar
 {
 	/** */
-	@SuppressWarnings("unused")
 	private static final Logger log = Logger.getLogger(Registrar.class.getName());
 
+	/**
+	 * An entity class whose metadata may not have been built yet. Building happens at most once; it is done
+	 * holding the Translators lock, which is what guards translator creation, so that a build can't deadlock
+	 * with a translator being created on another thread.
+	 */
+	protected class Registration<T>
+	{
+		/** */
+		private final Class<T> clazz;
+
+		/** */
+		private volatile EntityMetadata<T> metadata;
+
+		/** */
+		Registration(Class<T> clazz) {
+			this.clazz = clazz;
+		}
+
+		/** Builds the metadata if that hasn't happened yet */
+		public EntityMetadata<T> getMetadata() {
+			EntityMetadata<T> meta = metadata;
+			if (meta == null) {
+				synchronized (fact.getTranslators()) {
+					meta = metadata;
+					if (meta == null) {
+						meta = new EntityMetadata<>(fact, clazz);
+						metadata = meta;
+					}
+				}
+			}
+
+			return meta;
+		}
+	}
+
 	/** Needed to obtain the converters */
 	protected ObjectifyFactory fact;
 
-	/** This maps kind to EntityMetadata */
-	protected Map<String, EntityMetadata<?>> byKind = new HashMap<>();
+	/**
+	 * This maps kind to the registration of the entity class. The map is never modified; registering
+	 * publishes a new copy (holding the Registrar lock) so lookups need no locking at all.
+	 */
+	protected volatile Map<String, Registration<?>> byKind = Collections.emptyMap();
 
 	/** True if any @Cached entities have been registered */
-	protected boolean cacheEnabled;
+	protected volatile boolean cacheEnabled;
 
 	/** @return true if any entities are cacheable */
 	public boolean isCacheEnabled()
@@ -67,11 +119,10 @@ public class Registrar
 			if (this.byKind.containsKey(kind))
 				return;
 
-			EntityMetadata<T> cmeta = new EntityMetadata<>(this.fact, clazz);
-			this.byKind.put(kind, cmeta);
-
-			if (cmeta.getCacheExpirySeconds() != null)
-				this.cacheEnabled = true;
+			// Build before adding so that a class which can't be translated is not left registered
+			Registration<T> reg = new Registration<>(clazz);
+			reg.getMetadata();
+			this.add(kind, reg);
 		}
 		else if (clazz.isAnnotationPresent(Subclass.class)) {
 			// We just need to make sure that a translator was created
@@ -82,12 +133,127 @@ public class Registrar
 		}
 	}
 
+	/**
+	 * <p>Like register(), but an @Entity class only has its kind recorded; its translators are built the
+	 * first time the kind is used, from whatever thread uses it. Problems with the class (say, conflicting
+	 * annotations) are therefore not reported until then.</p>
+	 *
+	 * <p>@Subclass classes are registered immediately, since loading any entity of the hierarchy requires
+	 * knowing about them. This builds the translators of their superclasses as well.</p>
+	 *
+	 * @param clazz must be annotated with either @Entity or @Subclass
+	 */
+	public <T> void registerLazily(Class<T> clazz) {
+		if (TypeUtils.isDeclaredAnnotationPresent(clazz, Entity.class)) {
+			String kind = Key.getKind(clazz);
+
+			if (!this.byKind.containsKey(kind))
+				this.add(kind, new Registration<>(clazz));
+		}
+		else {
+			this.register(clazz);
+		}
+	}
+
+	/**
+	 * <p>Registers many classes, using the executor for the part of the work which doesn't depend on the
+	 * factory: scanning the members and annotations of each class, its superclasses, and the classes its
+	 * fields hold (ClassMembers, which is shared by every factory). The scans run in parallel and take no
+	 * locks. The translators are then built on the calling thread, in order, exactly as register() builds
+	 * them; that part stays serial because it holds the Translators lock and because building one class
+	 * can register translators another class needs (eg the @Subclass hierarchy).</p>
+	 *
+	 * <p>Same rules as register(). On App Engine the executor's threads must come from the ThreadManager.</p>
+	 */
+	public void register(Iterable<? extends Class<?>> classes, Executor executor) {
+		List<Class<?>> all = new ArrayList<>();
+		for (Class<?> clazz: classes)
+			all.add(clazz);
+
+		List<FutureTask<Void>> scans = new ArrayList<>();
+		for (final Class<?> clazz: all) {
+			FutureTask<Void> scan = new FutureTask<>(new Runnable() {
+				@Override
+				public void run() {
+					scan(clazz, new HashSet<Class<?>>());
+				}
+			}, null);
+
+			executor.execute(scan);
+			scans.add(scan);
+		}
+
+		for (FutureTask<Void> scan: scans) {
+			try {
+				scan.get();
+			} catch (ExecutionException ex) {
+				// Registering the class will report the same problem with better context
+				log.log(Level.FINE, "Scan before registration failed", ex.getCause());
+			} catch (InterruptedException ex) {
+				// The scans only save time; whatever they didn't finish is done by register()
+				Thread.currentThread().interrupt();
+				break;
+			}
+		}
+
+		for (Class<?> clazz: all)
+			this.register(clazz);
+	}
+
+	/**
+	 * Scan the class, its superclasses, and the classes its fields can hold (including type arguments,
+	 * so the Address of a {@code List<Address>} is found), caching the results in ClassMembers.
+	 */
+	private void scan(Class<?> clazz, Set<Class<?>> seen) {
+		while (clazz.isArray())
+			clazz = clazz.getComponentType();
+
+		if (clazz.isPrimitive() || clazz.isEnum() || clazz.getName().startsWith("java.") || !seen.add(clazz))
+			return;
+
+		for (Field field: ClassMembers.of(clazz).getFields())
+			scan(field.getGenericType(), seen);
+
+		if (clazz.getSuperclass() != null)
+			scan(clazz.getSuperclass(), seen);
+	}
+
+	/** Scan whatever classes appear in the type */
+	private void scan(Type type, Set<Class<?>> seen) {
+		if (type instanceof Class) {
+			scan((Class<?>)type, seen);
+		}
+		else if (type instanceof ParameterizedType) {
+			scan(((ParameterizedType)type).getRawType(), seen);
+			for (Type arg: ((ParameterizedType)type).getActualTypeArguments())
+				scan(arg, seen);
+		}
+		else if (type instanceof GenericArrayType) {
+			scan(((GenericArrayType)type).getGenericComponentType(), seen);
+		}
+		// Type variables and wildcards are left to the translators
+	}
+
+	/** Publishes a new snapshot which includes the registration, unless the kind is already there */
+	private synchronized void add(String kind, Registration<?> reg) {
+		if (this.byKind.containsKey(kind))
+			return;
+
+		Map<String, Registration<?>> copy = new HashMap<>(this.byKind);
+		copy.put(kind, reg);
+		this.byKind = Collections.unmodifiableMap(copy);
+
+		if (reg.clazz.getAnnotation(Cache.class) != null)
+			this.cacheEnabled = true;
+	}
+
 	/**
 	 * @return the metadata for the specified kind, or null if there was nothing appropriate registered
 	 */
 	@SuppressWarnings("unchecked")
 	public <T> EntityMetadata<T> getMetadata(String kind) {
-		return (EntityMetadata<T>)this.byKind.get(kind);
+		Registration<?> reg = this.byKind.get(kind);
+		return (reg == null) ? null : (EntityMetadata<T>)reg.getMetadata();
 	}
 
 	/**
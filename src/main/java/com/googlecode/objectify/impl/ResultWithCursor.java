@@ -21,10 +21,19 @@ public class ResultWithCursor<T> {
 	final boolean lastInChunk;
 	public boolean isLast() { return lastInChunk; }
 
+	/** If this is the last item and its chunk recorded where it ended, a cursor past the chunk; otherwise null */
+	final Cursor endCursor;
+	public Cursor getEndCursor() { return endCursor; }
+
 	public ResultWithCursor(Cursor cursor, int offset, T result, boolean lastInChunk) {
+		this(cursor, offset, result, lastInChunk, null);
+	}
+
+	public ResultWithCursor(Cursor cursor, int offset, T result, boolean lastInChunk, Cursor endCursor) {
 		this.cursor = cursor;
 		this.offset = offset;
 		this.result = result;
 		this.lastInChunk = lastInChunk;
+		this.endCursor = lastInChunk ? endCursor : null;
 	}
 }
\ No newline at end of file
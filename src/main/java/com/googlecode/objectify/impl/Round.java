@@ -4,7 +4,6 @@ import com.google.appengine.api.datastore.Entity;
 import com.googlecode.objectify.Key;
 import com.googlecode.objectify.Ref;
 import com.googlecode.objectify.Result;
-import com.googlecode.objectify.impl.translate.SaveContext;
 import com.googlecode.objectify.util.ResultCache;
 import com.googlecode.objectify.util.ResultNow;
 
@@ -84,38 +83,29 @@ class Round {
 			if (log.isLoggable(Level.FINEST))
 				log.finest("Adding to round (session hit): " + key);
 
+			if (loadEngine.profile != null)
+				loadEngine.profile.recordSessionHit();
+
 			if (sv.loadWith(getLoadArrangement())) {
 				if (log.isLoggable(Level.FINEST))
 					log.finest("New load group arrangement, checking for upgrades: " + getLoadArrangement());
 
 				// We are looking at a brand-new arrangement for something that already existed in the session.
 				// We need to go through any Ref<?>s that might be in need of loading. We find those refs by
-				// actually saving the entity into a custom SaveContext.
+				// walking the paths the factory indexed for the class.
 				T thing = sv.getResult().now();
 				if (thing != null) {
-					SaveContext saveCtx = new SaveContext() {
-						@Override
-						public boolean skipLifecycle() {
-							return true;
-						}
-
+					loadEngine.ofy.factory().getRefPaths().walk(thing, new RefPaths.Visitor() {
 						@Override
-						public com.google.appengine.api.datastore.Key saveRef(Ref<?> value, LoadConditions loadConditions) {
-							com.google.appengine.api.datastore.Key key = super.saveRef(value, loadConditions);
-
+						public void visit(Ref<?> ref, LoadConditions loadConditions) {
 							if (loadEngine.shouldLoad(loadConditions)) {
 								if (log.isLoggable(Level.FINEST))
-									log.finest("Upgrading key " + key);
+									log.finest("Upgrading key " + ref.key());
 
-								loadEngine.load(value.key());
+								loadEngine.load(ref.key());
 							}
-
-							return key;
 						}
-					};
-
-					// We throw away the saved entity and we are done
-					loadEngine.ofy.factory().getMetadataForEntity(thing).save(thing, saveCtx);
+					});
 				}
 			}
 		}
@@ -137,13 +127,12 @@ class Round {
 			Result<Map<com.google.appengine.api.datastore.Key, Entity>> fetched = fetchPending();
 			translated = loadEngine.translate(fetched);
 
-			// If we're in a transaction (and beyond the first round), force all subsequent rounds to complete.
-			// This effectively means that only the first round can be asynchronous; all other rounds are
-			// materialized immediately. The reason for this is that there are some nasty edge cases with @Load
-			// annotations in transactions getting called after the transaction closes. This is possibly not the
-			// best solution to the problem, but it solves the problem now.
+			// If we're in a transaction (and beyond the first round), make sure the round completes before the
+			// transaction closes. Otherwise @Load annotations could get processed after the transaction is gone,
+			// loading through a dead transaction. Nothing else necessarily holds a result from this round, so we
+			// enlist it; the fetch stays asynchronous and commit waits for it (rollback only waits for the fetch).
 			if (loadEngine.ofy.getTransaction() != null && depth > 0)
-				translated.now();
+				loadEngine.ofy.getTransaction().enlist(translated);
 		}
 	}
 
@@ -162,6 +151,9 @@ class Round {
 				combined.put(key, ent);
 		}
 
+		if (loadEngine.profile != null)
+			loadEngine.profile.recordStuffedHits(combined.size());
+
 		if (fetch.isEmpty()) {
 			return new ResultNow<>(combined);
 		} else {
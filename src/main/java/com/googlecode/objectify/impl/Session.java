@@ -21,6 +21,12 @@ public class Session
 	/** */
 	private Map<Key<?>, SessionValue<?>> map = new HashMap<>();
 
+	/**
+	 * How many keys of each kind are in the map with a value, not counting deletes; lets queries estimate how much
+	 * of a result set is resident. Loads still in progress count, even though some may turn out to be missing.
+	 */
+	private Map<String, Integer> kindCounts = new HashMap<>();
+
 	/**
 	 * Add/overwrite a SV.
 	 */
@@ -28,14 +34,33 @@ public class Session
 		if (log.isLoggable(Level.FINEST))
 			log.finest("Adding to session: " + key + " -> " + value.getResult());
 
-		map.put(key, value);
+		recount(key, map.put(key, value), value);
 	}
 
 	/**
-	 * Convenience method
+	 * Convenience method. Replacing a value with a new unsaved one doesn't change the datastore, so
+	 * any fingerprint is carried over; a null (deleted) value drops it.
 	 */
 	public void addValue(Key<?> key, Object value) {
-		add(key, new SessionValue<>(new ResultNow<Object>(value)));
+		SessionValue<Object> sv = new SessionValue<>(new ResultNow<Object>(value));
+
+		if (value != null) {
+			SessionValue<?> previous = map.get(key);
+			if (previous != null)
+				sv.fingerprint = previous.fingerprint;
+		}
+
+		add(key, sv);
+	}
+
+	/**
+	 * Add a value which has just been written to the datastore.
+	 * @param fingerprint of the written entity, or null if not dirty checking
+	 */
+	public void addSaved(Key<?> key, Object value, byte[] fingerprint) {
+		SessionValue<Object> sv = new SessionValue<>(new ResultNow<Object>(value));
+		sv.fingerprint = fingerprint;
+		add(key, sv);
 	}
 
 	/** Add all entries in the other session to this one */
@@ -43,7 +68,8 @@ public class Session
 		if (log.isLoggable(Level.FINEST))
 			log.finest("Adding all values to session: " + other.map.keySet());
 
-		map.putAll(other.map);
+		for (Map.Entry<Key<?>, SessionValue<?>> entry: other.map.entrySet())
+			recount(entry.getKey(), map.put(entry.getKey(), entry.getValue()), entry.getValue());
 	}
 
 	/** */
@@ -63,6 +89,27 @@ public class Session
 			log.finest("Clearing session");
 
 		map.clear();
+		kindCounts.clear();
+	}
+
+	/**
+	 * @return the number of keys of the specified kind in the session
+	 */
+	public int countOfKind(String kind) {
+		Integer count = kindCounts.get(kind);
+		return count == null ? 0 : count;
+	}
+
+	/** Adjust the count of the kind for a value replacing another (or nothing) */
+	private void recount(Key<?> key, SessionValue<?> previous, SessionValue<?> value) {
+		int delta = (isCounted(value) ? 1 : 0) - (isCounted(previous) ? 1 : 0);
+		if (delta != 0)
+			kindCounts.put(key.getKind(), countOfKind(key.getKind()) + delta);
+	}
+
+	/** Deletes are a known null; anything else holds (or will hold) an entity */
+	private static boolean isCounted(SessionValue<?> sv) {
+		return sv != null && !(sv.getResult() instanceof ResultNow && sv.getResult().now() == null);
 	}
 
 	/** Convenient for debugging */
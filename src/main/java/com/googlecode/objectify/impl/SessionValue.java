@@ -27,6 +27,13 @@ public class SessionValue<T>
 	 */
 	Set<LoadArrangement> loadedWith = new HashSet<>();
 
+	/**
+	 * Digest of the datastore entity as last loaded or saved, if dirty checking was enabled. A save which
+	 * translates to the same fingerprint would be a no-op. This describes the datastore's state for the
+	 * key rather than any particular pojo instance.
+	 */
+	byte[] fingerprint;
+
 	/**
 	 * No load arrangement - in other words, this was a save operation
 	 */
@@ -2,8 +2,11 @@ package com.googlecode.objectify.impl;
 
 import com.google.appengine.api.datastore.Cursor;
 import com.google.appengine.api.datastore.Entity;
+import com.googlecode.objectify.cmd.QueryExecute;
 import com.googlecode.objectify.cmd.QueryKeys;
+import com.googlecode.objectify.cmd.QueryPublisher;
 import com.googlecode.objectify.cmd.SimpleQuery;
+import com.googlecode.objectify.stats.QueryProfile;
 
 
 /**
@@ -118,6 +121,16 @@ public abstract class SimpleQueryImpl<T> implements SimpleQuery<T>
 		return q;
 	}
 
+	/* (non-Javadoc)
+	 * @see com.googlecode.objectify.cmd.SimpleQuery#chunkAdaptive()
+	 */
+	@Override
+	public QueryImpl<T> chunkAdaptive() {
+		QueryImpl<T> q = createQuery();
+		q.setChunkAdaptive();
+		return q;
+	}
+
 	/* (non-Javadoc)
 	 * @see com.googlecode.objectify.cmd.SimpleQuery#hybrid(boolean)
 	 */
@@ -128,6 +141,16 @@ public abstract class SimpleQueryImpl<T> implements SimpleQuery<T>
 		return q;
 	}
 
+	/* (non-Javadoc)
+	 * @see com.googlecode.objectify.cmd.SimpleQuery#profile(com.googlecode.objectify.stats.QueryProfile)
+	 */
+	@Override
+	public QueryImpl<T> profile(QueryProfile profile) {
+		QueryImpl<T> q = createQuery();
+		q.setProfile(profile);
+		return q;
+	}
+
 	/* (non-Javadoc)
 	 * @see com.googlecode.objectify.cmd.SimpleQuery#chunkAll()
 	 */
@@ -157,6 +180,28 @@ public abstract class SimpleQueryImpl<T> implements SimpleQuery<T>
 		return q;
 	}
 
+	/* (non-Javadoc)
+	 * @see com.googlecode.objectify.cmd.SimpleQuery#projectInto(java.lang.Class)
+	 */
+	@Override
+	public <V> QueryExecute<V> projectInto(Class<V> viewType) {
+		ProjectionView<V> view = ProjectionView.of(viewType);
+
+		QueryImpl<T> q = createQuery();
+		if (q.actual.getProjections().isEmpty())
+			q.addProjection(view.getProjectedNames());
+
+		return new QueryViewImpl<>(q, view);
+	}
+
+	/* (non-Javadoc)
+	 * @see com.googlecode.objectify.cmd.SimpleQuery#publisher()
+	 */
+	@Override
+	public QueryPublisher<T> publisher() {
+		return new QueryPublisherImpl<>(createQuery());
+	}
+
 	/* (non-Javadoc)
 	 * @see com.googlecode.objectify.cmd.SimpleQuery#distinct(boolean)
 	 */
@@ -7,11 +7,18 @@ import com.googlecode.objectify.util.SimpleFutureWrapper;
 import com.googlecode.objectify.util.cmd.TransactionWrapper;
 
 import java.util.ArrayList;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Set;
 import java.util.concurrent.Future;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 
 /** */
 public class TransactionImpl extends TransactionWrapper {
+	/** */
+	private static final Logger log = Logger.getLogger(TransactionImpl.class.getName());
+
 	/**
 	 * Holds the session data and knows what to do with it.
 	 */
@@ -24,6 +31,18 @@ public class TransactionImpl extends TransactionWrapper {
 	 */
 	private List<Result<?>> enlisted = new ArrayList<>();
 
+	/**
+	 * Load engines which have been used in this transaction. Before waiting on anything at commit, we
+	 * start whatever each of them has pending so that all the fetches are in flight at once.
+	 */
+	private Set<LoadEngine> engines = new LinkedHashSet<>();
+
+	/**
+	 * Datastore operations which have actually been started in this transaction. Rollback waits for these
+	 * (and only these) so that none of them outlives the transaction.
+	 */
+	private List<Result<?>> inFlight = new ArrayList<>();
+
 
 	private List<Runnable> listeners = new ArrayList<>();
 
@@ -40,6 +59,20 @@ public class TransactionImpl extends TransactionWrapper {
 		enlisted.add(result);
 	}
 
+	/**
+	 * Enlist an engine with loads that might still be pending.
+	 */
+	public void enlist(LoadEngine engine) {
+		engines.add(engine);
+	}
+
+	/**
+	 * Enlist a datastore operation which has already been started.
+	 */
+	public void enlistInFlight(Result<?> started) {
+		inFlight.add(started);
+	}
+
 	/**
 	 * Add a listener to be called after the transaction commits.
 	 */
@@ -66,16 +99,7 @@ public class TransactionImpl extends TransactionWrapper {
 	 */
 	@Override
 	public Future<Void> commitAsync() {
-		// Complete any enlisted operations so that the session becomes consistent. Note that some of the
-		// enlisted load operations might result in further enlistment... so we have to do this in a loop
-		// that protects against concurrent modification exceptions
-		while (!enlisted.isEmpty()) {
-			List<Result<?>> last = enlisted;
-			enlisted = new ArrayList<>();
-
-			for (Result<?> result: last)
-				result.now();
-		}
+		completeEnlisted();
 
 		return new SimpleFutureWrapper<Void, Void>(super.commitAsync()) {
 			@Override
@@ -85,4 +109,68 @@ public class TransactionImpl extends TransactionWrapper {
 			}
 		};
 	}
+
+	/* (non-Javadoc)
+	 * @see com.googlecode.objectify.util.cmd.TransactionWrapper#rollback()
+	 */
+	@Override
+	public void rollback() {
+		FutureHelper.quietGet(rollbackAsync());
+	}
+
+	/* (non-Javadoc)
+	 * @see com.googlecode.objectify.util.cmd.TransactionWrapper#rollbackAsync()
+	 */
+	@Override
+	public Future<Void> rollbackAsync() {
+		Future<Void> rolledBack;
+		try {
+			awaitInFlight();
+		} finally {
+			rolledBack = super.rollbackAsync();
+		}
+
+		return rolledBack;
+	}
+
+	/**
+	 * Wait for the operations which were already started, so they don't outlive the transaction. Nothing new is
+	 * started; since the results are thrown away, enlisted operations which haven't begun are simply dropped. We're
+	 * usually here because something already went wrong, so failures are logged and ignored rather than masking it.
+	 */
+	private void awaitInFlight() {
+		List<Result<?>> started = inFlight;
+		inFlight = new ArrayList<>();
+		enlisted = new ArrayList<>();
+		engines.clear();
+
+		for (Result<?> result: started) {
+			try {
+				result.now();
+			} catch (RuntimeException ex) {
+				log.log(Level.FINE, "Ignoring failure of in-flight operation during rollback", ex);
+			}
+		}
+	}
+
+	/**
+	 * Complete any enlisted operations so that the session becomes consistent.
+	 */
+	private void completeEnlisted() {
+		// Note that some of the enlisted load operations might result in further enlistment... so we have
+		// to do this in a loop that protects against concurrent modification exceptions
+		while (!enlisted.isEmpty()) {
+			List<Result<?>> last = enlisted;
+			enlisted = new ArrayList<>();
+
+			// Start every pending round before waiting on any of them. Otherwise each engine's fetch would
+			// only begin after the previous engine's results had been waited on. Loads enlisted while we wait
+			// go into each engine's next round, which the next pass starts together.
+			for (LoadEngine engine: new ArrayList<>(engines))
+				engine.execute();
+
+			for (Result<?> result: last)
+				result.now();
+		}
+	}
 }
\ No newline at end of file
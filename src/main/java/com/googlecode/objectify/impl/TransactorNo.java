@@ -3,9 +3,12 @@ package com.googlecode.objectify.impl;
 import com.google.common.base.Preconditions;
 import com.googlecode.objectify.Objectify;
 import com.googlecode.objectify.ObjectifyService;
+import com.googlecode.objectify.RetryPolicy;
 import com.googlecode.objectify.TxnType;
 import com.googlecode.objectify.Work;
+import com.googlecode.objectify.stats.ContentionStats;
 import java.util.ConcurrentModificationException;
+import java.util.concurrent.TimeUnit;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -92,23 +95,52 @@ public class TransactorNo<O extends Objectify> extends Transactor<O>
 	public <R> R transactNew(ObjectifyImpl<O> parent, int limitTries, Work<R> work) {
 		Preconditions.checkArgument(limitTries >= 1);
 
+		RetryPolicy policy = parent.factory().getRetryPolicy();
+		ContentionStats stats = parent.factory().getContentionStats();
+
+		long start = System.nanoTime();
+		int failures = 0;
+
 		while (true) {
 			try {
+				stats.recordAttempt(work);
 				return transactOnce(parent, work);
 			} catch (ConcurrentModificationException ex) {
-				if (--limitTries > 0) {
+				failures++;
+				stats.recordContention(work);
+				policy.onContention(work, failures, ex);
+
+				if (--limitTries > 0 && policy.shouldRetry(failures, System.nanoTime() - start)) {
 					if (log.isLoggable(Level.WARNING))
 						log.warning("Optimistic concurrency failure for " + work + " (retrying): " + ex);
 
 					if (log.isLoggable(Level.FINEST))
 						log.log(Level.FINEST, "Details of optimistic concurrency failure", ex);
+
+					backoff(policy.getDelay(failures), ex);
 				} else {
+					stats.recordFailure(work);
 					throw ex;
 				}
 			}
 		}
 	}
 
+	/**
+	 * Wait before retrying. If interrupted, give up and throw the concurrency failure.
+	 */
+	private void backoff(long delayNanos, ConcurrentModificationException ex) {
+		if (delayNanos <= 0)
+			return;
+
+		try {
+			TimeUnit.NANOSECONDS.sleep(delayNanos);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw ex;
+		}
+	}
+
 	/**
 	 * One attempt at executing a transaction
 	 */
@@ -3,6 +3,7 @@ package com.googlecode.objectify.impl;
 import java.lang.annotation.Annotation;
 import java.lang.invoke.MethodHandle;
 import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.Constructor;
 import java.lang.reflect.Field;
 import java.lang.reflect.InvocationTargetException;
@@ -27,6 +28,22 @@ public class TypeUtils
 		PRIMITIVE_TO_WRAPPER.put(char.class, Character.class);
 	}
 
+	/**
+	 * No-arg constructors, adapted to ()Object for invokeExact. Finding a constructor and making it
+	 * accessible is far more expensive than calling it, and construct() is called for every entity loaded.
+	 */
+	private static final ClassValue<MethodHandle> NO_ARG_CONSTRUCTORS = new ClassValue<MethodHandle>() {
+		@Override
+		protected MethodHandle computeValue(Class<?> clazz) {
+			Constructor<?> ctor = getNoArgConstructor(clazz);
+			try {
+				return MethodHandles.lookup().unreflectConstructor(ctor).asType(MethodType.methodType(Object.class));
+			} catch (IllegalAccessException e) {
+				throw new IllegalStateException("Problem getting no-arg constructor for " + clazz.getName(), e);
+			}
+		}
+	};
+
 	/**
 	 * Throw an IllegalStateException if the class does not have a no-arg constructor.
 	 */
@@ -74,6 +91,22 @@ public class TypeUtils
 		}
 	}
 
+	/**
+	 * Construct an instance with the no-arg constructor, which may be private.
+	 * Throw an IllegalStateException if the class does not have a no-arg constructor.
+	 */
+	@SuppressWarnings("unchecked")
+	public static <T> T newInstance(Class<T> clazz) {
+		MethodHandle ctor = NO_ARG_CONSTRUCTORS.get(clazz);
+		try {
+			return (T)(Object)ctor.invokeExact();
+		} catch (RuntimeException e) {
+			throw e;
+		} catch (Throwable throwable) {
+			throw new RuntimeException(throwable);
+		}
+	}
+
 	/** Checked exceptions are LAME. */
 	public static <T> T newInstance(Constructor<T> ctor, Object... params) {
 		try {
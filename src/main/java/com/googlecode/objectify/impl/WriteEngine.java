@@ -1,18 +1,28 @@
 package com.googlecode.objectify.impl;
 
 import com.google.appengine.api.datastore.AsyncDatastoreService;
+import com.google.appengine.api.datastore.Blob;
+import com.google.appengine.api.datastore.EmbeddedEntity;
 import com.google.appengine.api.datastore.Entity;
+import com.google.appengine.api.datastore.PropertyContainer;
+import com.google.appengine.api.datastore.ShortBlob;
+import com.google.appengine.api.datastore.Text;
 import com.google.appengine.api.datastore.Transaction;
 import com.google.common.collect.Lists;
 import com.googlecode.objectify.Key;
 import com.googlecode.objectify.Result;
 import com.googlecode.objectify.impl.translate.SaveContext;
+import com.googlecode.objectify.util.DatastoreUtils;
 import com.googlecode.objectify.util.ResultWrapper;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Future;
 import java.util.logging.Level;
 import java.util.logging.Logger;
@@ -29,6 +39,21 @@ public class WriteEngine
 	/** */
 	private static final Logger log = Logger.getLogger(WriteEngine.class.getName());
 
+	/** The datastore rejects puts and deletes of more than this many entities or keys in one call */
+	public static final int MAX_BATCH_COUNT = 500;
+
+	/** Stay comfortably under the datastore's limit on the size of a single call */
+	static final int MAX_BATCH_BYTES = 9 * 1024 * 1024;
+
+	/** The datastore's limit on the size of one entity; batches this small can't exceed MAX_BATCH_BYTES */
+	static final int MAX_ENTITY_BYTES = 1024 * 1024;
+
+	/** Oversized batches are split into parts; no more than this many parts are outstanding at once */
+	static final int MAX_PARTS_IN_FLIGHT = 4;
+
+	/** Allowance for the encoding around each key path element, property value, and entity; generously more than it takes */
+	private static final int OVERHEAD_BYTES = 32;
+
 	/** */
 	protected final ObjectifyImpl<?> ofy;
 
@@ -66,26 +91,84 @@ public class WriteEngine
 		final SaveContext ctx = new SaveContext();
 
 		final List<Entity> entityList = new ArrayList<>();
+
+		// Parallel to entityList; what to record in the session once written
+		final List<byte[]> fingerprints = new ArrayList<>();
+
+		// Parallel to the input; the key of each entity whose write was skipped because it was unchanged, otherwise null
+		final List<com.google.appengine.api.datastore.Key> skipped = new ArrayList<>();
+
 		for (E obj: entities) {
 			if (obj == null)
 				throw new NullPointerException("Attempted to save a null entity");
 
 			deferrer.undefer(obj);
 
+			Entity entity;
 			if (obj instanceof Entity) {
-				entityList.add((Entity)obj);
+				entity = (Entity)obj;
 			} else {
+				// Gives the entity a complete key up front if its kind is pooled
+				ofy.factory().getIdPool().assign(obj);
+
 				EntityMetadata<E> metadata = ofy.factory().getMetadataForEntity(obj);
-				entityList.add(metadata.save(obj, ctx));
+				entity = metadata.save(obj, ctx);
+			}
+
+			byte[] previous = loadedFingerprint(entity);
+			byte[] fingerprint = null;
+
+			if (previous != null) {
+				fingerprint = DatastoreUtils.fingerprint(entity);
+
+				if (Arrays.equals(previous, fingerprint)) {
+					if (log.isLoggable(Level.FINEST))
+						log.finest("Skipping unchanged " + entity.getKey());
+
+					ofy.factory().getDirtyCheckStats().recordSkipped(entity.getKind());
+					skipped.add(entity.getKey());
+					continue;
+				}
+
+				ofy.factory().getDirtyCheckStats().recordWritten(entity.getKind());
+			} else if (ofy.getDirtyChecking() && entity.getKey().isComplete()) {
+				fingerprint = DatastoreUtils.fingerprint(entity);
 			}
+
+			entityList.add(entity);
+			fingerprints.add(fingerprint);
+			skipped.add(null);
 		}
 
 		// Need to make a copy of the original list because someone might clear it while we are async
 		final List<? extends E> original = Lists.newArrayList(entities);
 
-		// The CachingDatastoreService needs its own raw transaction
-		Future<List<com.google.appengine.api.datastore.Key>> raw = ads.put(getTransactionRaw(), entityList);
-		Result<List<com.google.appengine.api.datastore.Key>> adapted = new ResultAdapter<>(raw);
+		// The CachingDatastoreService needs its own raw transaction. If every write was skipped, there is nothing to send.
+		List<List<Entity>> parts = (entityList.isEmpty() && !original.isEmpty())
+				? Collections.<List<Entity>>emptyList()
+				: partition(entityList);
+		final List<Future<List<com.google.appengine.api.datastore.Key>>> futures = new ArrayList<>(parts.size());
+		for (List<Entity> part: parts) {
+			throttle(futures);
+			futures.add(ads.put(getTransactionRaw(), part));
+		}
+
+		Result<List<com.google.appengine.api.datastore.Key>> adapted;
+		if (futures.size() == 1) {
+			adapted = new ResultAdapter<>(futures.get(0));
+		} else {
+			// Parts are contiguous and in order, so concatenating the keys preserves the original order
+			adapted = new Result<List<com.google.appengine.api.datastore.Key>>() {
+				@Override
+				public List<com.google.appengine.api.datastore.Key> now() {
+					List<com.google.appengine.api.datastore.Key> keys = new ArrayList<>(original.size());
+					for (Future<List<com.google.appengine.api.datastore.Key>> fut: futures)
+						keys.addAll(ResultAdapter.create(fut).now());
+
+					return keys;
+				}
+			};
+		}
 
 		Result<Map<Key<E>, E>> result = new ResultWrapper<List<com.google.appengine.api.datastore.Key>, Map<Key<E>, E>>(adapted) {
 			private static final long serialVersionUID = 1L;
@@ -97,9 +180,20 @@ public class WriteEngine
 				// One pass through the translated pojos to patch up any generated ids in the original objects
 				// Iterator order should be exactly the same for keys and values
 				Iterator<com.google.appengine.api.datastore.Key> keysIt = base.iterator();
+				Iterator<byte[]> fingerprintsIt = fingerprints.iterator();
+				Iterator<com.google.appengine.api.datastore.Key> skippedIt = skipped.iterator();
 				for (E obj: original)
 				{
-					com.google.appengine.api.datastore.Key k = keysIt.next();
+					com.google.appengine.api.datastore.Key k = skippedIt.next();
+					if (k != null) {
+						// Not written; the datastore still matches the fingerprint, which addValue() carries over
+						Key<E> key = Key.create(k);
+						result.put(key, obj);
+						session.addValue(key, obj);
+						continue;
+					}
+
+					k = keysIt.next();
 					if (!(obj instanceof Entity)) {
 						KeyMetadata<E> metadata = ofy.factory().keys().getMetadataSafe(obj);
 						if (metadata.isIdGeneratable())
@@ -110,7 +204,7 @@ public class WriteEngine
 					result.put(key, obj);
 
 					// Also stuff this in the session
-					session.addValue(key, obj);
+					session.addSaved(key, obj, fingerprintsIt.next());
 				}
 
 				if (log.isLoggable(Level.FINEST))
@@ -120,8 +214,10 @@ public class WriteEngine
 			}
 		};
 
-		if (ofy.getTransaction() != null)
+		if (ofy.getTransaction() != null) {
 			ofy.getTransaction().enlist(result);
+			ofy.getTransaction().enlistInFlight(result);
+		}
 
 		return result;
 	}
@@ -133,8 +229,27 @@ public class WriteEngine
 		for (com.google.appengine.api.datastore.Key key: keys)
 			deferrer.undefer(Key.create(key));
 
-		Future<Void> fut = ads.delete(getTransactionRaw(), keys);
-		Result<Void> adapted = new ResultAdapter<>(fut);
+		List<com.google.appengine.api.datastore.Key> keyList = Lists.newArrayList(keys);
+		final List<Future<Void>> futures = new ArrayList<>();
+		for (List<com.google.appengine.api.datastore.Key> part: Lists.partition(keyList, MAX_BATCH_COUNT)) {
+			throttle(futures);
+			futures.add(ads.delete(getTransactionRaw(), part));
+		}
+
+		Result<Void> adapted;
+		if (futures.size() == 1) {
+			adapted = new ResultAdapter<>(futures.get(0));
+		} else {
+			adapted = new Result<Void>() {
+				@Override
+				public Void now() {
+					for (Future<Void> fut: futures)
+						ResultAdapter.create(fut).now();
+
+					return null;
+				}
+			};
+		}
 		Result<Void> result = new ResultWrapper<Void, Void>(adapted) {
 			private static final long serialVersionUID = 1L;
 
@@ -147,9 +262,150 @@ public class WriteEngine
 			}
 		};
 
-		if (ofy.getTransaction() != null)
+		if (ofy.getTransaction() != null) {
 			ofy.getTransaction().enlist(result);
+			ofy.getTransaction().enlistInFlight(result);
+		}
 
 		return result;
 	}
+
+	/**
+	 * @return the fingerprint of the entity as last loaded or saved with dirty checking, or null if there is none
+	 */
+	private byte[] loadedFingerprint(Entity entity) {
+		if (!entity.getKey().isComplete())
+			return null;
+
+		SessionValue<?> sv = session.get(Key.create(entity.getKey()));
+		return (sv == null) ? null : sv.fingerprint;
+	}
+
+	/**
+	 * Split the entities into parts which the datastore will accept in a single put. Sizes are only
+	 * estimated when there are enough entities that the batch could possibly be too large, and then
+	 * with estimateSize(), which doesn't serialize anything.
+	 * @return at least one part, even if it is empty
+	 */
+	private List<List<Entity>> partition(List<Entity> entities) {
+		if (entities.size() <= MAX_BATCH_BYTES / MAX_ENTITY_BYTES)
+			return Collections.singletonList(entities);
+
+		List<List<Entity>> parts = new ArrayList<>();
+		List<Entity> part = new ArrayList<>();
+		long partBytes = 0;
+
+		for (Entity ent: entities) {
+			long bytes = estimateSize(ent);
+
+			if (!part.isEmpty() && (part.size() >= MAX_BATCH_COUNT || partBytes + bytes > MAX_BATCH_BYTES)) {
+				parts.add(part);
+				part = new ArrayList<>();
+				partBytes = 0;
+			}
+
+			part.add(ent);
+			partBytes += bytes;
+		}
+
+		parts.add(part);
+
+		if (parts.size() > 1 && log.isLoggable(Level.FINER))
+			log.finer("Split batch of " + entities.size() + " entities into " + parts.size() + " parts");
+
+		return parts;
+	}
+
+	/**
+	 * An upper bound on the size of the entity (or embedded entity) in a put, computed from the lengths of its
+	 * contents rather than by serializing it. Each value is charged the full length of its content plus
+	 * OVERHEAD_BYTES, and the property name is counted again for every value of a collection, as it is on the wire.
+	 */
+	static long estimateSize(PropertyContainer container) {
+		long bytes = OVERHEAD_BYTES;
+
+		if (container instanceof Entity)
+			bytes += estimateKeySize(((Entity)container).getKey());
+		else if (((EmbeddedEntity)container).getKey() != null)
+			bytes += estimateKeySize(((EmbeddedEntity)container).getKey());
+
+		for (Map.Entry<String, Object> prop: container.getProperties().entrySet()) {
+			int nameBytes = utf8Length(prop.getKey());
+
+			if (prop.getValue() instanceof Collection<?>) {
+				for (Object value: (Collection<?>)prop.getValue())
+					bytes += nameBytes + estimateValueSize(value);
+			} else {
+				bytes += nameBytes + estimateValueSize(prop.getValue());
+			}
+		}
+
+		return bytes;
+	}
+
+	/** */
+	private static long estimateValueSize(Object value) {
+		if (value == null || value instanceof Number || value instanceof Boolean || value instanceof java.util.Date)
+			return OVERHEAD_BYTES;
+		else if (value instanceof String)
+			return OVERHEAD_BYTES + utf8Length((String)value);
+		else if (value instanceof Text)
+			return OVERHEAD_BYTES + utf8Length(((Text)value).getValue());
+		else if (value instanceof Blob)
+			return OVERHEAD_BYTES + ((Blob)value).getBytes().length;
+		else if (value instanceof ShortBlob)
+			return OVERHEAD_BYTES + ((ShortBlob)value).getBytes().length;
+		else if (value instanceof EmbeddedEntity)
+			return OVERHEAD_BYTES + estimateSize((EmbeddedEntity)value);
+		else if (value instanceof com.google.appengine.api.datastore.Key)
+			return OVERHEAD_BYTES + estimateKeySize((com.google.appengine.api.datastore.Key)value);
+		else
+			return OVERHEAD_BYTES + utf8Length(value.toString());	// GeoPt, User, Email, etc
+	}
+
+	/** */
+	private static long estimateKeySize(com.google.appengine.api.datastore.Key key) {
+		long bytes = OVERHEAD_BYTES + utf8Length(key.getAppId()) + utf8Length(key.getNamespace());
+
+		for (com.google.appengine.api.datastore.Key k = key; k != null; k = k.getParent())
+			bytes += OVERHEAD_BYTES + utf8Length(k.getKind()) + utf8Length(k.getName());
+
+		return bytes;
+	}
+
+	/** Bytes the string takes in UTF-8, without encoding it; a surrogate pair counts as the 4 bytes it needs */
+	private static int utf8Length(String str) {
+		if (str == null)
+			return 0;
+
+		int bytes = 0;
+		for (int i = 0; i < str.length(); i++) {
+			char c = str.charAt(i);
+			if (c < 0x80)
+				bytes += 1;
+			else if (c < 0x800 || Character.isSurrogate(c))
+				bytes += 2;
+			else
+				bytes += 3;
+		}
+
+		return bytes;
+	}
+
+	/**
+	 * Before dispatching another part, wait for the oldest outstanding part if too many are in flight.
+	 * Failures are not thrown here; they surface when the result is materialized.
+	 */
+	private void throttle(List<? extends Future<?>> dispatched) {
+		if (dispatched.size() >= MAX_PARTS_IN_FLIGHT) {
+			Future<?> oldest = dispatched.get(dispatched.size() - MAX_PARTS_IN_FLIGHT);
+			try {
+				oldest.get();
+			} catch (ExecutionException ex) {
+				// Reported by now()
+			} catch (InterruptedException ex) {
+				Thread.currentThread().interrupt();
+			}
+		}
+	}
 }
\ No newline at end of file
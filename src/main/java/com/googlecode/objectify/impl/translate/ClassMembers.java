@@ -0,0 +1,296 @@
+package com.googlecode.objectify.impl.translate;
+
+import com.googlecode.objectify.annotation.AlsoLoad;
+import com.googlecode.objectify.annotation.Ignore;
+import com.googlecode.objectify.annotation.Index;
+import com.googlecode.objectify.annotation.OnLoad;
+import com.googlecode.objectify.annotation.OnSave;
+import com.googlecode.objectify.annotation.Unindex;
+import com.googlecode.objectify.impl.TypeUtils;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * <p>The members of a class which matter for persistence. None of this depends on the factory or on how the
+ * class is used, so it can be worked out at build time: MetadataProcessor writes an index for each entity
+ * class, and if there is one it is read instead of scanning the class and parsing the annotations of every
+ * field and method. Classes without an index (or with one that no longer matches the class) are scanned
+ * by reflection. Either way this is done once per class and shared by every factory and every translator
+ * of the class.</p>
+ *
+ * <p>The index is a resource named {@link #INDEX_PREFIX} plus the binary class name, one entry per line:</p>
+ * <ul>
+ * <li>{@code fields <n>} - the number of non-synthetic declared fields, to detect a stale index</li>
+ * <li>{@code index true|false} - the class-level index instruction, if any</li>
+ * <li>{@code field <name>} - a persistable field, in order of declaration</li>
+ * <li>{@code alsoload <name> <parameter class>...} - a method with @AlsoLoad parameters</li>
+ * <li>{@code onsave <name>} and {@code onload <name>} - lifecycle methods</li>
+ * <li>{@code if <If class> <value class> <pojo class>} - the erased type parameters of an If class used on
+ * the fields, which otherwise have to be resolved with gentyref</li>
+ * </ul>
+ * <p>Classes are named as by Class.getName().</p>
+ *
+ * <p>Only members declared on the class itself are included; superclasses have their own.</p>
+ */
+public class ClassMembers
+{
+	/** */
+	private static final Logger log = Logger.getLogger(ClassMembers.class.getName());
+
+	/** Where MetadataProcessor puts the index of each class */
+	public static final String INDEX_PREFIX = "META-INF/objectify/members/";
+
+	/** We do not persist fields with any of these modifiers */
+	private static final int NOT_SAVEABLE_MODIFIERS = Modifier.FINAL | Modifier.STATIC;
+
+	/** */
+	private static final ClassValue<ClassMembers> CACHE = new ClassValue<ClassMembers>() {
+		@Override
+		protected ClassMembers computeValue(Class<?> clazz) {
+			ClassMembers indexed = read(clazz);
+			return indexed != null ? indexed : reflect(clazz);
+		}
+	};
+
+	/** Class.forName() doesn't know these */
+	private static final Map<String, Class<?>> PRIMITIVES = new HashMap<>();
+	static {
+		for (Class<?> prim: new Class<?>[] { boolean.class, byte.class, char.class, short.class, int.class, long.class, float.class, double.class })
+			PRIMITIVES.put(prim.getName(), prim);
+	}
+
+	/**
+	 * @throws IllegalStateException if the class has conflicting annotations; this is not cached
+	 */
+	public static ClassMembers of(Class<?> clazz) {
+		return CACHE.get(clazz);
+	}
+
+	/** Persistable fields (including @Id and @Parent), in order of declaration */
+	private final List<Field> fields;
+
+	/** Methods with @AlsoLoad parameters */
+	private final List<Method> alsoLoadMethods;
+
+	/** */
+	private final List<LifecycleMethod> onSaveMethods;
+	private final List<LifecycleMethod> onLoadMethods;
+
+	/** Three-state index instruction for the whole class. Null means "leave it as-is". */
+	private final Boolean indexInstruction;
+
+	/** Erased value and pojo types of If classes, by If class name; only known from an index */
+	private final Map<String, Class<?>[]> ifTypes;
+
+	/** True if this came from an index */
+	private final boolean precomputed;
+
+	/** */
+	private ClassMembers(List<Field> fields, List<Method> alsoLoadMethods, List<LifecycleMethod> onSaveMethods,
+			List<LifecycleMethod> onLoadMethods, Boolean indexInstruction, Map<String, Class<?>[]> ifTypes, boolean precomputed) {
+		this.fields = Collections.unmodifiableList(fields);
+		this.alsoLoadMethods = Collections.unmodifiableList(alsoLoadMethods);
+		this.onSaveMethods = Collections.unmodifiableList(onSaveMethods);
+		this.onLoadMethods = Collections.unmodifiableList(onLoadMethods);
+		this.indexInstruction = indexInstruction;
+		this.ifTypes = ifTypes;
+		this.precomputed = precomputed;
+	}
+
+	/**
+	 * Scan the class by reflection.
+	 */
+	private static ClassMembers reflect(Class<?> clazz) {
+		Boolean indexInstruction = getIndexInstruction(clazz);
+
+		List<Field> fields = new ArrayList<>();
+		for (Field field: clazz.getDeclaredFields())
+			if (isOfInterest(field))
+				fields.add(field);
+
+		List<Method> alsoLoadMethods = new ArrayList<>();
+		List<LifecycleMethod> onSaveMethods = new ArrayList<>();
+		List<LifecycleMethod> onLoadMethods = new ArrayList<>();
+
+		for (Method method: clazz.getDeclaredMethods()) {
+			if (isOfInterest(method))
+				alsoLoadMethods.add(method);
+
+			if (method.isAnnotationPresent(OnSave.class))
+				onSaveMethods.add(new LifecycleMethod(method));
+
+			if (method.isAnnotationPresent(OnLoad.class))
+				onLoadMethods.add(new LifecycleMethod(method));
+		}
+
+		return new ClassMembers(fields, alsoLoadMethods, onSaveMethods, onLoadMethods, indexInstruction, Collections.<String, Class<?>[]>emptyMap(), false);
+	}
+
+	/**
+	 * Read the index written by MetadataProcessor.
+	 *
+	 * @return null if there is no index, or if it does not match the class
+	 */
+	private static ClassMembers read(Class<?> clazz) {
+		ClassLoader loader = clazz.getClassLoader();
+		if (loader == null)
+			return null;
+
+		InputStream in = loader.getResourceAsStream(INDEX_PREFIX + clazz.getName());
+		if (in == null)
+			return null;
+
+		try (BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8))) {
+			int expectedFields = -1;
+			Boolean indexInstruction = null;
+			List<Field> fields = new ArrayList<>();
+			List<Method> alsoLoadMethods = new ArrayList<>();
+			List<LifecycleMethod> onSaveMethods = new ArrayList<>();
+			List<LifecycleMethod> onLoadMethods = new ArrayList<>();
+			Map<String, Class<?>[]> ifTypes = new HashMap<>();
+
+			String line;
+			while ((line = reader.readLine()) != null) {
+				if (line.isEmpty() || line.startsWith("#"))
+					continue;
+
+				String[] parts = line.split(" ");
+
+				switch (parts[0]) {
+					case "fields":
+						expectedFields = Integer.parseInt(parts[1]);
+						break;
+
+					case "index":
+						indexInstruction = Boolean.valueOf(parts[1]);
+						break;
+
+					case "field":
+						fields.add(clazz.getDeclaredField(parts[1]));
+						break;
+
+					case "alsoload":
+						Class<?>[] params = new Class<?>[parts.length - 2];
+						for (int i=0; i<params.length; i++)
+							params[i] = forName(parts[i + 2], loader);
+
+						alsoLoadMethods.add(clazz.getDeclaredMethod(parts[1], params));
+						break;
+
+					case "onsave":
+						onSaveMethods.add(new LifecycleMethod(clazz.getDeclaredMethod(parts[1])));
+						break;
+
+					case "onload":
+						onLoadMethods.add(new LifecycleMethod(clazz.getDeclaredMethod(parts[1])));
+						break;
+
+					case "if":
+						ifTypes.put(parts[1], new Class<?>[] { forName(parts[2], loader), forName(parts[3], loader) });
+						break;
+
+					default:
+						throw new IllegalStateException("Unknown entry '" + line + "'");
+				}
+			}
+
+			int actualFields = 0;
+			for (Field field: clazz.getDeclaredFields())
+				if (!field.isSynthetic())
+					actualFields++;
+
+			if (actualFields != expectedFields) {
+				log.warning("Ignoring stale metadata index for " + clazz.getName() + "; it has " + expectedFields + " fields but the class has " + actualFields);
+				return null;
+			}
+
+			return new ClassMembers(fields, alsoLoadMethods, onSaveMethods, onLoadMethods, indexInstruction, ifTypes, true);
+		}
+		catch (IOException | ReflectiveOperationException | RuntimeException ex) {
+			log.log(Level.WARNING, "Ignoring unusable metadata index for " + clazz.getName(), ex);
+
+			return null;
+		}
+	}
+
+	/** */
+	private static Class<?> forName(String name, ClassLoader loader) throws ClassNotFoundException {
+		Class<?> prim = PRIMITIVES.get(name);
+		return prim != null ? prim : Class.forName(name, false, loader);
+	}
+
+	/** */
+	public List<Field> getFields() { return fields; }
+	public List<Method> getAlsoLoadMethods() { return alsoLoadMethods; }
+	public List<LifecycleMethod> getOnSaveMethods() { return onSaveMethods; }
+	public List<LifecycleMethod> getOnLoadMethods() { return onLoadMethods; }
+
+	/** @return true, false, or null (which means no info) */
+	public Boolean getIndexInstruction() { return indexInstruction; }
+
+	/** @return true if this was read from an index written at build time */
+	public boolean isPrecomputed() { return precomputed; }
+
+	/**
+	 * @return the erased value and pojo type parameters of an If class used on this class's fields, or null
+	 *  if they were not worked out at build time
+	 */
+	public Class<?>[] getIfTypes(Class<?> ifClass) {
+		return ifTypes.get(ifClass.getName());
+	}
+
+	/**
+	 * Figure out if there is an index instruction for the whole class.
+	 * @return true, false, or null (which means no info)
+	 */
+	private static Boolean getIndexInstruction(Class<?> clazz) {
+		Index ind = clazz.getAnnotation(Index.class);
+		Unindex unind = clazz.getAnnotation(Unindex.class);
+
+		if (ind != null && unind != null)
+			throw new IllegalStateException("You cannot have @Index and @Unindex on the same class: " + clazz);
+
+		if (ind != null)
+			return true;
+		else if (unind != null)
+			return false;
+		else
+			return null;
+	}
+
+	/**
+	 * Determine if we should create a Property for the field.  Things we ignore:  static, final, @Ignore, synthetic
+	 */
+	private static boolean isOfInterest(Field field) {
+		return !field.isAnnotationPresent(Ignore.class)
+				&& ((field.getModifiers() & NOT_SAVEABLE_MODIFIERS) == 0)
+				&& !field.isSynthetic()
+				&& !field.getName().startsWith("bitmap$init");	// Scala adds a field bitmap$init$0 and bitmap$init$1 etc
+	}
+
+	/**
+	 * Determine if we should create a Property for the method (ie, @AlsoLoad)
+	 */
+	private static boolean isOfInterest(Method method) {
+		for (Annotation[] annos: method.getParameterAnnotations())
+			if (TypeUtils.getAnnotation(annos, AlsoLoad.class) != null)
+				return true;
+
+		return false;
+	}
+}
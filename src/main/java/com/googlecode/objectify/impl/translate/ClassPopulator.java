@@ -3,25 +3,16 @@ package com.googlecode.objectify.impl.translate;
 import com.google.appengine.api.datastore.PropertyContainer;
 import com.google.common.base.Predicate;
 import com.googlecode.objectify.ObjectifyFactory;
-import com.googlecode.objectify.annotation.AlsoLoad;
 import com.googlecode.objectify.annotation.Id;
-import com.googlecode.objectify.annotation.Ignore;
-import com.googlecode.objectify.annotation.Index;
-import com.googlecode.objectify.annotation.OnLoad;
-import com.googlecode.objectify.annotation.OnSave;
 import com.googlecode.objectify.annotation.Parent;
-import com.googlecode.objectify.annotation.Unindex;
 import com.googlecode.objectify.impl.FieldProperty;
 import com.googlecode.objectify.impl.MethodProperty;
 import com.googlecode.objectify.impl.Path;
 import com.googlecode.objectify.impl.Property;
 import com.googlecode.objectify.impl.PropertyPopulator;
-import com.googlecode.objectify.impl.TypeUtils;
 
-import java.lang.annotation.Annotation;
 import java.lang.reflect.Field;
 import java.lang.reflect.Method;
-import java.lang.reflect.Modifier;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.logging.Level;
@@ -40,9 +31,6 @@ public class ClassPopulator<P> implements Populator<P>
 {
 	private static final Logger log = Logger.getLogger(ClassPopulator.class.getName());
 
-	/** We do not persist fields with any of these modifiers */
-	private static final int NOT_SAVEABLE_MODIFIERS = Modifier.FINAL | Modifier.STATIC;
-
 	/** We don't want to include the key fields in population */
 	private static final Predicate<Property> INCLUDED_FIELDS = new Predicate<Property>() {
 		@Override
@@ -64,8 +52,8 @@ public class ClassPopulator<P> implements Populator<P>
 	private final Boolean indexInstruction;
 
 	/** */
-	private final List<LifecycleMethod> onSaveMethods = new ArrayList<>();
-	private final List<LifecycleMethod> onLoadMethods = new ArrayList<>();
+	private final List<LifecycleMethod> onSaveMethods;
+	private final LifecycleMethod[] onLoadMethods;
 
 	/**
 	 */
@@ -78,10 +66,12 @@ public class ClassPopulator<P> implements Populator<P>
 		if (log.isLoggable(Level.FINEST))
 			log.finest("Creating class translator for " + clazz.getName() + " at path '"+ path + "'");
 
-		indexInstruction = getIndexInstruction(clazz);
+		ClassMembers members = ClassMembers.of(clazz);
+
+		indexInstruction = members.getIndexInstruction();
 
 		// Find all the basic properties
-		for (Property prop: getDeclaredProperties(ctx.getFactory(), clazz)) {
+		for (Property prop: getDeclaredProperties(ctx.getFactory(), clazz, members)) {
 			if (INCLUDED_FIELDS.apply(prop)) {
 				Path propPath = path.extend(prop.getName());
 				try {
@@ -95,19 +85,13 @@ public class ClassPopulator<P> implements Populator<P>
 			}
 		}
 
-		// Find the @OnSave methods
-		for (Method method: clazz.getDeclaredMethods()) {
-			if (method.isAnnotationPresent(OnSave.class))
-				onSaveMethods.add(new LifecycleMethod(method));
-
-			if (method.isAnnotationPresent(OnLoad.class))
-				onLoadMethods.add(new LifecycleMethod(method));
-		}
+		onSaveMethods = members.getOnSaveMethods();
+		onLoadMethods = members.getOnLoadMethods().toArray(new LifecycleMethod[0]);
 	}
 
 	/* */
 	@Override
-	public void load(PropertyContainer node, LoadContext ctx, Path path, final P into) {
+	public void load(PropertyContainer node, LoadContext ctx, Path path, P into) {
 		superPopulator.load(node, ctx, path, into);
 
 		ctx.enterContainerContext(into);
@@ -120,20 +104,8 @@ public class ClassPopulator<P> implements Populator<P>
 		}
 
 		// If there are any @OnLoad methods, call them after everything else
-		if (!onLoadMethods.isEmpty()) {
-			ctx.defer(new Runnable() {
-				@Override
-				public void run() {
-					for (LifecycleMethod method: onLoadMethods)
-						method.execute(into);
-				}
-
-				@Override
-				public String toString() {
-					return "(deferred invoke " + clazz + " @OnLoad callbacks on " + into + ")";
-				}
-			});
-		}
+		if (onLoadMethods.length > 0)
+			ctx.deferOnLoad(onLoadMethods, into);
 	}
 
 	/* */
@@ -155,62 +127,20 @@ public class ClassPopulator<P> implements Populator<P>
 		}
 	}
 
-	/**
-	 * Figure out if there is an index instruction for the whole class.
-	 * @return true, false, or null (which means no info)
-	 */
-	private Boolean getIndexInstruction(Class<P> clazz) {
-		Index ind = clazz.getAnnotation(Index.class);
-		Unindex unind = clazz.getAnnotation(Unindex.class);
-
-		if (ind != null && unind != null)
-			throw new IllegalStateException("You cannot have @Index and @Unindex on the same class: " + clazz);
-
-		if (ind != null)
-			return true;
-		else if (unind != null)
-			return false;
-		else
-			return null;
-	}
-
-	/**
-	 * Determine if we should create a Property for the field.  Things we ignore:  static, final, @Ignore, synthetic
-	 */
-	private boolean isOfInterest(Field field) {
-		return !field.isAnnotationPresent(Ignore.class)
-				&& ((field.getModifiers() & NOT_SAVEABLE_MODIFIERS) == 0)
-				&& !field.isSynthetic()
-				&& !field.getName().startsWith("bitmap$init");	// Scala adds a field bitmap$init$0 and bitmap$init$1 etc
-	}
-
-	/**
-	 * Determine if we should create a Property for the method (ie, @AlsoLoad)
-	 */
-	private  boolean isOfInterest(Method method) {
-		for (Annotation[] annos: method.getParameterAnnotations())
-			if (TypeUtils.getAnnotation(annos, AlsoLoad.class) != null)
-				return true;
-
-		return false;
-	}
-
 	/**
 	 * Get all the persistable fields and methods declared on a class. Ignores superclasses.
 	 *
 	 * @return the fields we load and save, including @Id and @Parent fields. All fields will be set accessable
 	 *  and returned in order of declaration.
 	 */
-	private List<Property> getDeclaredProperties(ObjectifyFactory fact, Class<?> clazz) {
+	private List<Property> getDeclaredProperties(ObjectifyFactory fact, Class<?> clazz, ClassMembers members) {
 		List<Property> good = new ArrayList<>();
 
-		for (Field field: clazz.getDeclaredFields())
-			if (isOfInterest(field))
-				good.add(new FieldProperty(fact, clazz, field));
+		for (Field field: members.getFields())
+			good.add(new FieldProperty(fact, clazz, field));
 
-		for (Method method: clazz.getDeclaredMethods())
-			if (isOfInterest(method))
-				good.add(new MethodProperty(method));
+		for (Method method: members.getAlsoLoadMethods())
+			good.add(new MethodProperty(method));
 
 		return good;
 	}
@@ -2,6 +2,7 @@ package com.googlecode.objectify.impl.translate;
 
 import com.googlecode.objectify.ObjectifyFactory;
 import com.googlecode.objectify.impl.Path;
+import com.googlecode.objectify.impl.translate.NumberTranslatorFactory.NumberTranslator;
 import com.googlecode.objectify.util.GenericUtils;
 
 import java.lang.reflect.Type;
@@ -37,6 +38,11 @@ public class CollectionTranslatorFactory implements TranslatorFactory<Collection
 		Type componentType = GenericUtils.getCollectionComponentType(tk.getType());
 		final Translator<Object, Object> componentTranslator = ctx.getTranslator(new TypeKey<>(componentType, tk), ctx, path);
 
+		// Numbers are saved as they are, and load as they are when they already have the right type (as Long
+		// and Double almost always do), so collections of them can be copied wholesale
+		Translator<?, ?> untyped = componentTranslator;
+		final Class<?> numberType = (untyped instanceof NumberTranslator) ? ((NumberTranslator)untyped).getType() : null;
+
 		return new TranslatorRecycles<Collection<Object>, Collection<Object>>() {
 
 			@Override
@@ -52,6 +58,11 @@ public class CollectionTranslatorFactory implements TranslatorFactory<Collection
 				else
 					collection.clear();
 
+				if (numberType != null && allOfType(node, numberType)) {
+					collection.addAll(node);
+					return collection;
+				}
+
 				for (Object child: node) {
 					try {
 						Object value = componentTranslator.load(child, ctx, path);
@@ -72,6 +83,9 @@ public class CollectionTranslatorFactory implements TranslatorFactory<Collection
 				if (pojo == null || pojo.isEmpty())
 					throw new SkipException();
 
+				if (numberType != null)
+					return new ArrayList<>(pojo);
+
 				List<Object> list = new ArrayList<>();
 
 				for (Object obj: pojo) {
@@ -88,4 +102,13 @@ public class CollectionTranslatorFactory implements TranslatorFactory<Collection
 			}
 		};
 	}
+
+	/** @return true if every element is exactly of the type */
+	private static boolean allOfType(Collection<Object> node, Class<?> type) {
+		for (Object child: node)
+			if (child == null || child.getClass() != type)
+				return false;
+
+		return true;
+	}
 }
@@ -1,7 +1,10 @@
 package com.googlecode.objectify.impl.translate;
 
-import java.lang.reflect.InvocationTargetException;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
 
 /**
  * A lifecycle method that can be executed on a POJO
@@ -13,6 +16,9 @@ public class LifecycleMethod
 	/** */
 	private final Method method;
 
+	/** Adapted to (Object)void so it can be called with invokeExact, without reflection or boxing */
+	private final MethodHandle handle;
+
 	/** */
 	public LifecycleMethod(Method method) {
 		this.method = method;
@@ -20,20 +26,31 @@ public class LifecycleMethod
 
 		if (method.getParameterTypes().length > 0)
 			throw new IllegalArgumentException("Lifecycle methods cannot have parameters:  " + method);
+
+		try {
+			MethodHandle unreflected = MethodHandles.lookup().unreflect(method);
+
+			// Method.invoke() ignores the target of a static method, so we do too
+			if (Modifier.isStatic(method.getModifiers()))
+				unreflected = MethodHandles.dropArguments(unreflected, 0, Object.class);
+
+			this.handle = unreflected.asType(MethodType.methodType(void.class, Object.class));
+		}
+		catch (IllegalAccessException e) { throw new IllegalStateException(e); }
 	}
 
 	/** */
 	public void execute(Object pojo) {
 		try {
-			this.method.invoke(pojo);
-		}
-		catch (IllegalAccessException e) { throw new RuntimeException(e); }
-		catch (InvocationTargetException e)
-		{
-			if (e.getCause() instanceof RuntimeException)
-				throw (RuntimeException)e.getCause();
-			else
-				throw new RuntimeException(e.getCause());
+			this.handle.invokeExact(pojo);
 		}
+		catch (RuntimeException e) { throw e; }
+		catch (Throwable e) { throw new RuntimeException(e); }
+	}
+
+	/** */
+	@Override
+	public String toString() {
+		return this.method.toString();
 	}
 }
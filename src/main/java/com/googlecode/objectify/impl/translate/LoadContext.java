@@ -2,6 +2,7 @@ package com.googlecode.objectify.impl.translate;
 
 import com.googlecode.objectify.Key;
 import com.googlecode.objectify.Ref;
+import com.googlecode.objectify.impl.FieldMask;
 import com.googlecode.objectify.impl.LoadConditions;
 import com.googlecode.objectify.impl.LoadEngine;
 import com.googlecode.objectify.impl.Path;
@@ -9,10 +10,9 @@ import com.googlecode.objectify.repackaged.gentyref.GenericTypeReflector;
 
 import java.lang.reflect.Type;
 import java.util.ArrayDeque;
-import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Deque;
 import java.util.Iterator;
-import java.util.List;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -27,8 +27,14 @@ public class LoadContext
 	/** */
 	LoadEngine engine;
 
-	/** Lazily created, but executed at the end of done() */
-	List<Runnable> deferred;
+	/**
+	 * Operations executed at the end of done(), in order. Each slot holds either a Runnable (with a null
+	 * target) or the @OnLoad methods to call on the target. Lazily created, then reused; @OnLoad callbacks
+	 * are queued for nearly every entity loaded, so they shouldn't cost an allocation each.
+	 */
+	Object[] deferredActions;
+	Object[] deferredTargets;
+	int deferredCount;
 
 	/** The key of the current root entity; will change as multiple entities are loaded */
 	Key<?> currentRoot;
@@ -42,9 +48,18 @@ public class LoadContext
 	 */
 	Object recycled;
 
+	/** If non-null, only these properties are loaded */
+	FieldMask fieldMask;
+
 	/** */
 	public LoadContext(LoadEngine engine) {
 		this.engine = engine;
+		this.fieldMask = engine.getFieldMask();
+	}
+
+	/** @return the properties to load, or null to load everything */
+	public FieldMask getFieldMask() {
+		return fieldMask;
 	}
 
 	/** The most recently recycled value. It can be used exactly once. */
@@ -70,15 +85,27 @@ public class LoadContext
 	public void done() {
 		engine.execute();
 
-		while (deferred != null) {
-			List<Runnable> runme = deferred;
-			deferred = null;	// reset this because it might get filled with more
+		// Anything deferred while running these goes on the end of the queue and gets run too
+		try {
+			for (int i = 0; i < deferredCount; i++) {
+				Object action = deferredActions[i];
+				Object target = deferredTargets[i];
 
-			for (Runnable run: runme) {
 				if (log.isLoggable(Level.FINEST))
-					log.finest("Executing " + run);
-
-				run.run();
+					log.finest("Executing " + describeDeferred(action, target));
+
+				if (action instanceof Runnable) {
+					((Runnable)action).run();
+				} else {
+					for (LifecycleMethod method: (LifecycleMethod[])action)
+						method.execute(target);
+				}
+			}
+		} finally {
+			if (deferredCount > 0) {
+				Arrays.fill(deferredActions, 0, deferredCount, null);
+				Arrays.fill(deferredTargets, 0, deferredCount, null);
+				deferredCount = 0;
 			}
 		}
 	}
@@ -94,13 +121,41 @@ public class LoadContext
 	 * Delays an operation until the context is done().  Typically this is for lifecycle methods.
 	 */
 	public void defer(Runnable runnable) {
-		if (this.deferred == null)
-			this.deferred = new ArrayList<>();
+		enqueueDeferred(runnable, null);
+	}
+
+	/**
+	 * Delays calling the @OnLoad methods on the pojo until the context is done().
+	 */
+	public void deferOnLoad(LifecycleMethod[] onLoadMethods, Object pojo) {
+		enqueueDeferred(onLoadMethods, pojo);
+	}
 
+	/** */
+	private void enqueueDeferred(Object action, Object target) {
 		if (log.isLoggable(Level.FINEST))
-			log.finest("Deferring: " + runnable);
+			log.finest("Deferring: " + describeDeferred(action, target));
+
+		if (deferredActions == null) {
+			deferredActions = new Object[16];
+			deferredTargets = new Object[16];
+		}
+		else if (deferredCount == deferredActions.length) {
+			deferredActions = Arrays.copyOf(deferredActions, deferredCount * 2);
+			deferredTargets = Arrays.copyOf(deferredTargets, deferredCount * 2);
+		}
+
+		deferredActions[deferredCount] = action;
+		deferredTargets[deferredCount] = target;
+		deferredCount++;
+	}
 
-		this.deferred.add(runnable);
+	/** For logging */
+	private static String describeDeferred(Object action, Object target) {
+		if (action instanceof Runnable)
+			return action.toString();
+		else
+			return "(deferred invoke @OnLoad callbacks " + Arrays.toString((LifecycleMethod[])action) + " on " + target + ")";
 	}
 
 	/**
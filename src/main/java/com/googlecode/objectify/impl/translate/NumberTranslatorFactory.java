@@ -14,6 +14,51 @@ import com.googlecode.objectify.impl.TypeUtils;
  */
 public class NumberTranslatorFactory implements TranslatorFactory<Number, Object>
 {
+	/**
+	 * The translator for a particular number type. Other translators may recognize it and handle numbers
+	 * of that type in bulk, knowing that saving leaves numbers as they are and loading only coerces them.
+	 */
+	public static class NumberTranslator extends ValueTranslator<Number, Object>
+	{
+		/** The wrapper type of the pojo value */
+		private final Class<?> clazz;
+
+		/** */
+		NumberTranslator(Class<?> clazz) {
+			super(Object.class, clazz);
+			this.clazz = clazz;
+		}
+
+		/** @return the wrapper type of the pojo value, eg Long for a long */
+		public Class<?> getType() {
+			return clazz;
+		}
+
+		@Override
+		protected Number loadValue(Object value, LoadContext ctx, Path path) throws SkipException {
+			if (value instanceof String) {
+				try {
+					return coerceNumber(Long.valueOf((String)value), clazz);
+				} catch (NumberFormatException ex) {}
+
+				try {
+					return coerceNumber(Double.valueOf((String)value), clazz);
+				} catch (NumberFormatException ex) {}
+			}
+			else if (value instanceof Number) {
+				return coerceNumber((Number)value, clazz);
+			}
+
+			path.throwIllegalState("Don't know how to translate " + value + " to a number");
+			return null;	// never gets here
+		}
+
+		@Override
+		protected Object saveValue(Number value, boolean index, SaveContext ctx, Path path) throws SkipException {
+			return value;
+		}
+	}
+
 	@Override
 	public Translator<Number, Object> create(TypeKey<Number> tk, CreateContext ctx, Path path) {
 		final Class<?> clazz = Primitives.wrap(tk.getTypeAsClass());
@@ -21,31 +66,7 @@ public class NumberTranslatorFactory implements TranslatorFactory<Number, Object
 		if (!TypeUtils.isAssignableFrom(Number.class, clazz))
 			return null;
 
-		return new ValueTranslator<Number, Object>(Object.class, clazz) {
-			@Override
-			protected Number loadValue(Object value, LoadContext ctx, Path path) throws SkipException {
-				if (value instanceof String) {
-					try {
-						return coerceNumber(Long.valueOf((String)value), clazz);
-					} catch (NumberFormatException ex) {}
-
-					try {
-						return coerceNumber(Double.valueOf((String)value), clazz);
-					} catch (NumberFormatException ex) {}
-				}
-				else if (value instanceof Number) {
-					return coerceNumber((Number)value, clazz);
-				}
-
-				path.throwIllegalState("Don't know how to translate " + value + " to a number");
-				return null;	// never gets here
-			}
-
-			@Override
-			protected Object saveValue(Number value, boolean index, SaveContext ctx, Path path) throws SkipException {
-				return value;
-			}
-		};
+		return new NumberTranslator(clazz);
 	}
 
 	/**
@@ -54,9 +75,10 @@ public class NumberTranslatorFactory implements TranslatorFactory<Number, Object
 	 * any type that expects something smaller. We don't need to worry about primitive
 	 * types because we wrapped the class earlier.
 	 */
-	private Number coerceNumber(Number value, Class<?> type)
+	private static Number coerceNumber(Number value, Class<?> type)
 	{
-		if (type == Byte.class) return value.byteValue();
+		if (value.getClass() == type) return value;	// the usual case for Long and Double, no need to box again
+		else if (type == Byte.class) return value.byteValue();
 		else if (type == Short.class) return value.shortValue();
 		else if (type == Integer.class) return value.intValue();
 		else if (type == Long.class) return value.longValue();
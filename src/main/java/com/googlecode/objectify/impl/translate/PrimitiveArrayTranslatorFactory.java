@@ -0,0 +1,149 @@
+package com.googlecode.objectify.impl.translate;
+
+import com.googlecode.objectify.impl.Path;
+import com.googlecode.objectify.impl.translate.NumberTranslatorFactory.NumberTranslator;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+
+/**
+ * <p>Translator for arrays of primitive numbers (int[], long[], short[], float[], double[]) which converts
+ * in a simple loop instead of going through reflection and the component translator one element at a time.
+ * Large arrays (say, a series of measurements) are much cheaper this way. byte[] is handled by
+ * ByteArrayTranslatorFactory.</p>
+ *
+ * <p>The stored format is exactly what ArrayTranslatorFactory produces, and anything unusual on load (nulls,
+ * strings, projection values) is handed to the same translator ArrayTranslatorFactory would have created.
+ * Arrays whose components have been given some other translator are left to ArrayTranslatorFactory.</p>
+ */
+public class PrimitiveArrayTranslatorFactory implements TranslatorFactory<Object, Collection<Object>>
+{
+	@Override
+	public Translator<Object, Collection<Object>> create(TypeKey<Object> tk, CreateContext ctx, Path path) {
+		final Class<?> arrayType = tk.getTypeAsClass();
+
+		if (!arrayType.isArray())
+			return null;
+
+		final Class<?> componentType = arrayType.getComponentType();
+		if (componentType != int.class && componentType != long.class && componentType != short.class
+				&& componentType != float.class && componentType != double.class)
+			return null;
+
+		Translator<?, ?> componentTranslator = ctx.getTranslator(new TypeKey<>(componentType, tk), ctx, path);
+		if (!(componentTranslator instanceof NumberTranslator))
+			return null;
+
+		final Translator<Object, Collection<Object>> general = new ArrayTranslatorFactory().create(tk, ctx, path);
+
+		return new Translator<Object, Collection<Object>>() {
+			@Override
+			public Object load(Collection<Object> node, LoadContext ctx, Path path) throws SkipException {
+				if (node == null)
+					throw new SkipException();
+
+				for (Object componentNode: node)
+					if (!(componentNode instanceof Number))
+						return general.load(node, ctx, path);
+
+				return toArray(componentType, node);
+			}
+
+			@Override
+			public Collection<Object> save(Object pojo, boolean index, SaveContext ctx, Path path) throws SkipException {
+				// Use same behavior as collections.
+				if (pojo == null)
+					throw new SkipException();
+
+				List<Object> list = toList(pojo);
+
+				// If it's empty, might as well skip it - the datastore doesn't store empty lists
+				if (list.isEmpty())
+					throw new SkipException();
+
+				return list;
+			}
+		};
+	}
+
+	/**
+	 * @param node must contain only Numbers
+	 */
+	private static Object toArray(Class<?> componentType, Collection<Object> node) {
+		int i = 0;
+
+		if (componentType == long.class) {
+			long[] array = new long[node.size()];
+			for (Object value: node)
+				array[i++] = ((Number)value).longValue();
+			return array;
+		}
+		else if (componentType == double.class) {
+			double[] array = new double[node.size()];
+			for (Object value: node)
+				array[i++] = ((Number)value).doubleValue();
+			return array;
+		}
+		else if (componentType == int.class) {
+			int[] array = new int[node.size()];
+			for (Object value: node)
+				array[i++] = ((Number)value).intValue();
+			return array;
+		}
+		else if (componentType == float.class) {
+			float[] array = new float[node.size()];
+			for (Object value: node)
+				array[i++] = ((Number)value).floatValue();
+			return array;
+		}
+		else {
+			short[] array = new short[node.size()];
+			for (Object value: node)
+				array[i++] = ((Number)value).shortValue();
+			return array;
+		}
+	}
+
+	/**
+	 * Boxes the elements into the same wrapper types the general array translator would.
+	 */
+	private static List<Object> toList(Object pojo) {
+		if (pojo instanceof long[]) {
+			long[] array = (long[])pojo;
+			List<Object> list = new ArrayList<>(array.length);
+			for (long value: array)
+				list.add(value);
+			return list;
+		}
+		else if (pojo instanceof double[]) {
+			double[] array = (double[])pojo;
+			List<Object> list = new ArrayList<>(array.length);
+			for (double value: array)
+				list.add(value);
+			return list;
+		}
+		else if (pojo instanceof int[]) {
+			int[] array = (int[])pojo;
+			List<Object> list = new ArrayList<>(array.length);
+			for (int value: array)
+				list.add(value);
+			return list;
+		}
+		else if (pojo instanceof float[]) {
+			float[] array = (float[])pojo;
+			List<Object> list = new ArrayList<>(array.length);
+			for (float value: array)
+				list.add(value);
+			return list;
+		}
+		else {
+			short[] array = (short[])pojo;
+			List<Object> list = new ArrayList<>(array.length);
+			for (short value: array)
+				list.add(value);
+			return list;
+		}
+	}
+}
@@ -1,59 +1,75 @@
 package com.googlecode.objectify.impl.translate;
 
 import com.google.appengine.api.datastore.Blob;
+import com.googlecode.objectify.Lazy;
 import com.googlecode.objectify.annotation.Serialize;
+import com.googlecode.objectify.codec.JavaSerializationCodec;
+import com.googlecode.objectify.codec.SerializeCodec;
 import com.googlecode.objectify.impl.Path;
 
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.ObjectInputStream;
-import java.io.ObjectOutputStream;
-import java.io.OutputStream;
-import java.util.logging.Level;
-import java.util.logging.Logger;
 import java.util.zip.Deflater;
 import java.util.zip.DeflaterOutputStream;
+import java.util.zip.Inflater;
 import java.util.zip.InflaterInputStream;
 
 
 /**
  * <p>Loader which can load any serialized thing from a Blob.</p>
  *
+ * <p>The default codec, java serialization, is written the way it always has been: the serialized bytes, possibly
+ * deflated, with no header. Their first byte is that of the java serialization magic number or of a zlib header,
+ * so they can be told apart from the output of any other codec, which is written as {@code HEADER_PLAIN} or
+ * {@code HEADER_DEFLATED} followed by what the codec produced. Values of the default codec thus stay readable by
+ * older versions of Objectify.</p>
+ *
+ * <p>A {@code Lazy<?>} property keeps the bytes until the value is needed; see {@link Lazy}.</p>
+ *
  * @author Jeff Schnitzer <jeff@infohazard.org>
  */
 public class SerializeTranslatorFactory implements TranslatorFactory<Object, Blob>
 {
-	private static final Logger log = Logger.getLogger(SerializeTranslatorFactory.class.getName());
+	/** Header bytes of the current format */
+	public static final int HEADER_PLAIN = 0x01;
+	public static final int HEADER_DEFLATED = 0x02;
+
+	/** First bytes of the headerless java serialization format */
+	private static final int LEGACY_JAVA = 0xAC;
+	private static final int LEGACY_DEFLATED = 0x78;
+
+	/** Creating these is expensive (they have native state), so each thread keeps one around */
+	private static final ThreadLocal<Deflater> DEFLATER = new ThreadLocal<>();
+	private static final ThreadLocal<Inflater> INFLATER = new ThreadLocal<>();
+
+	/** For the headerless format */
+	private static final SerializeCodec JAVA_CODEC = new JavaSerializationCodec();
 
 	@Override
 	public Translator<Object, Blob> create(TypeKey<Object> tk, CreateContext ctx, Path path) {
 		final Serialize serializeAnno = tk.getAnnotationAnywhere(Serialize.class);
+		final boolean lazy = Lazy.class.isAssignableFrom(tk.getTypeAsClass());
 
 		// We only work with @Serialize classes
-		if (serializeAnno == null)
+		if (serializeAnno == null) {
+			if (lazy)
+				path.throwIllegalState("Lazy<?> properties must be @Serialize");
+
 			return null;
+		}
+
+		final SerializeCodec codec = ctx.getFactory().construct(serializeAnno.codec());
+
+		if (lazy)
+			return createLazy(codec, serializeAnno);
 
 		return new ValueTranslator<Object, Blob>(Blob.class) {
 			@Override
 			protected Object loadValue(Blob value, LoadContext ctx, Path path) throws SkipException {
-				// Need to be careful here because we don't really know if the data was serialized or not.  Start
-				// with whatever the annotation says, and if that doesn't work, try the other option.
 				try {
-					ByteArrayInputStream bais = new ByteArrayInputStream(value.getBytes());
-
-					// Start with the annotation
-					boolean unzip = serializeAnno.zip();
-					try {
-						return readObject(bais, unzip);
-					} catch (IOException ex) {	// will be one of ZipException or StreamCorruptedException
-						if (log.isLoggable(Level.INFO))
-							log.log(Level.INFO, "Error trying to deserialize object using unzip=" + unzip + ", retrying with " + !unzip, ex);
-
-						unzip = !unzip;
-						return readObject(bais, unzip);	// this will pass the exception up
-					}
+					return decode(value.getBytes(), codec);
 				} catch (Exception ex) {
 					path.throwIllegalState("Unable to deserialize " + value, ex);
 					return null;	// never gets here
@@ -63,37 +79,131 @@ public class SerializeTranslatorFactory implements TranslatorFactory<Object, Blo
 			@Override
 			protected Blob saveValue(Object value, boolean index, SaveContext ctx, Path path) throws SkipException {
 				try {
-					ByteArrayOutputStream baos = new ByteArrayOutputStream();
-					OutputStream out = baos;
+					return new Blob(encode(value, codec, serializeAnno));
+				} catch (IOException ex) {
+					path.throwIllegalState("Unable to serialize " + value, ex);
+					return null;	// never gets here
+				}
+			}
+		};
+	}
 
-					if (serializeAnno.zip()) {
-						Deflater deflater = new Deflater(serializeAnno.compressionLevel());
-						out = new DeflaterOutputStream(out, deflater);
-					}
+	/**
+	 * Loading keeps the bytes; saving writes them back untouched unless the value was decoded.
+	 */
+	private Translator<Object, Blob> createLazy(final SerializeCodec codec, final Serialize serializeAnno) {
+		return new ValueTranslator<Object, Blob>(Blob.class) {
+			@Override
+			protected Object loadValue(Blob value, LoadContext ctx, Path path) throws SkipException {
+				return new SerializedLazy<>(value.getBytes(), codec);
+			}
 
-					ObjectOutputStream oos = new ObjectOutputStream(out);
-					oos.writeObject(value);
-					oos.close();
+			@Override
+			protected Blob saveValue(Object value, boolean index, SaveContext ctx, Path path) throws SkipException {
+				if (value instanceof SerializedLazy<?>) {
+					byte[] stored = ((SerializedLazy<?>)value).getStoredBytes();
+					if (stored != null)
+						return new Blob(stored);
+				}
 
-					return new Blob(baos.toByteArray());
+				Object actual = ((Lazy<?>)value).get();
+				if (actual == null)
+					return null;
 
+				try {
+					return new Blob(encode(actual, codec, serializeAnno));
 				} catch (IOException ex) {
-					path.throwIllegalState("Unable to serialize " + value, ex);
+					path.throwIllegalState("Unable to serialize " + actual, ex);
 					return null;	// never gets here
 				}
 			}
+		};
+	}
 
-			/** Try reading an object from the stream */
-			private Object readObject(ByteArrayInputStream bais, boolean unzip) throws IOException, ClassNotFoundException {
-				bais.reset();
-				InputStream in = bais;
+	/**
+	 * Write the value as the annotation instructs; only codecs other than the default get a header.
+	 */
+	public static byte[] encode(Object value, SerializeCodec codec, Serialize serializeAnno) throws IOException {
+		ByteArrayOutputStream baos = new ByteArrayOutputStream();
+		boolean header = codec.getClass() != JavaSerializationCodec.class;
+
+		if (serializeAnno.zip()) {
+			if (header)
+				baos.write(HEADER_DEFLATED);
+
+			Deflater deflater = borrowDeflater();
+			try {
+				deflater.setLevel(serializeAnno.compressionLevel());
+				DeflaterOutputStream out = new DeflaterOutputStream(baos, deflater);
+				codec.encode(value, out);
+				out.finish();
+			} finally {
+				returnDeflater(deflater);
+			}
+		} else {
+			if (header)
+				baos.write(HEADER_PLAIN);
 
-				if (unzip)
-					in = new InflaterInputStream(in);
+			codec.encode(value, baos);
+		}
 
-				ObjectInputStream ois = new ObjectInputStream(in);
-				return ois.readObject();
-			}
-		};
+		return baos.toByteArray();
+	}
+
+	/**
+	 * Read a value in either the headerless or the header format. No guessing is involved.
+	 */
+	public static Object decode(byte[] bytes, SerializeCodec codec) throws IOException, ClassNotFoundException {
+		if (bytes.length == 0)
+			throw new IOException("Serialized data is empty");
+
+		switch (bytes[0] & 0xFF) {
+			case HEADER_PLAIN:
+				return codec.decode(new ByteArrayInputStream(bytes, 1, bytes.length - 1));
+
+			case HEADER_DEFLATED:
+				return inflateAndDecode(new ByteArrayInputStream(bytes, 1, bytes.length - 1), codec);
+
+			case LEGACY_JAVA:
+				return JAVA_CODEC.decode(new ByteArrayInputStream(bytes));
+
+			case LEGACY_DEFLATED:
+				return inflateAndDecode(new ByteArrayInputStream(bytes), JAVA_CODEC);
+
+			default:
+				throw new IOException("Unrecognized serialization header " + (bytes[0] & 0xFF));
+		}
+	}
+
+	/** */
+	private static Object inflateAndDecode(InputStream in, SerializeCodec codec) throws IOException, ClassNotFoundException {
+		Inflater inflater = INFLATER.get();
+		if (inflater == null)
+			inflater = new Inflater();
+		else
+			INFLATER.set(null);	// in case a codec ends up back here; the inner call gets its own
+
+		try {
+			return codec.decode(new InflaterInputStream(in, inflater));
+		} finally {
+			inflater.reset();
+			INFLATER.set(inflater);
+		}
+	}
+
+	/** Take this thread's deflater, if it has one; see inflateAndDecode() */
+	private static Deflater borrowDeflater() {
+		Deflater deflater = DEFLATER.get();
+		if (deflater == null)
+			return new Deflater();
+
+		DEFLATER.set(null);
+		return deflater;
+	}
+
+	/** */
+	private static void returnDeflater(Deflater deflater) {
+		deflater.reset();
+		DEFLATER.set(deflater);
 	}
 }
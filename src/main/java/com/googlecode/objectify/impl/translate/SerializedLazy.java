@@ -0,0 +1,76 @@
+package com.googlecode.objectify.impl.translate;
+
+import com.googlecode.objectify.Lazy;
+import com.googlecode.objectify.codec.SerializeCodec;
+
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+
+
+/**
+ * <p>The Lazy used for {@code @Serialize} properties. Holds either the value or the stored bytes and the
+ * codec which can decode them; decoding discards the bytes.</p>
+ */
+public class SerializedLazy<T> extends Lazy<T>
+{
+	private static final long serialVersionUID = 1L;
+
+	/** */
+	private T value;
+
+	/** Non-null until decoded */
+	private transient byte[] bytes;
+	private transient SerializeCodec codec;
+
+	/** */
+	public SerializedLazy(T value) {
+		this.value = value;
+	}
+
+	/** @param bytes are in any format SerializeTranslatorFactory.decode() understands */
+	public SerializedLazy(byte[] bytes, SerializeCodec codec) {
+		this.bytes = bytes;
+		this.codec = codec;
+	}
+
+	@Override
+	@SuppressWarnings("unchecked")
+	public synchronized T get() {
+		if (bytes != null) {
+			try {
+				value = (T)SerializeTranslatorFactory.decode(bytes, codec);
+			} catch (Exception ex) {
+				throw new IllegalStateException("Unable to deserialize lazy value", ex);
+			}
+
+			bytes = null;
+			codec = null;
+		}
+
+		return value;
+	}
+
+	@Override
+	public synchronized boolean isDecoded() {
+		return bytes == null;
+	}
+
+	/**
+	 * @return the bytes as they were loaded, or null if they have been decoded (in which case the value
+	 * might have been changed)
+	 */
+	public synchronized byte[] getStoredBytes() {
+		return bytes;
+	}
+
+	/** The bytes aren't serialized, so make sure the value is there */
+	private void writeObject(ObjectOutputStream out) throws IOException {
+		get();
+		out.defaultWriteObject();
+	}
+
+	@Override
+	public synchronized String toString() {
+		return (bytes == null) ? "Lazy(" + value + ")" : "Lazy(" + bytes.length + " bytes)";
+	}
+}
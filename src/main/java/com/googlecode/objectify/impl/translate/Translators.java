@@ -62,6 +62,7 @@ public class Translators
 		this.insertPoint = this.translatorFactories.size();
 
 		this.translatorFactories.add(new ByteArrayTranslatorFactory());
+		this.translatorFactories.add(new PrimitiveArrayTranslatorFactory());
 		this.translatorFactories.add(new ArrayTranslatorFactory());		// AFTER byte array otherwise we will occlude it
 		this.translatorFactories.add(new CollectionTranslatorFactory());
 		this.translatorFactories.add(new EmbeddedMapTranslatorFactory());
@@ -109,13 +110,23 @@ public class Translators
 	/**
 	 * Obtains the Translator appropriate for this type and annotations. May be a cached
 	 * translator; if not, one will be discovered and cached.
+	 *
+	 * <p>Creation is done holding the lock on this object, so concurrent first use creates exactly one
+	 * translator; translator factories (eg ClassTranslatorFactory) keep state which is not thread-safe and
+	 * which must see a single translator per class. Anything which builds translators in bulk (like
+	 * Registrar) should hold this lock too. Cached translators are found without locking.</p>
 	 */
 	public <P, D> Translator<P, D> get(TypeKey tk, CreateContext ctx, Path path) {
 
 		Translator<?, ?> translator = translators.get(tk);
 		if (translator == null) {
-			translator = create(tk, ctx, path);
-			translators.put(tk, translator);
+			synchronized (this) {
+				translator = translators.get(tk);
+				if (translator == null) {
+					translator = create(tk, ctx, path);
+					translators.put(tk, translator);
+				}
+			}
 		}
 
 		//noinspection unchecked
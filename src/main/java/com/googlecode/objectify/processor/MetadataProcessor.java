@@ -0,0 +1,339 @@
+package com.googlecode.objectify.processor;
+
+import com.googlecode.objectify.impl.translate.ClassMembers;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.AnnotationValue;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.ArrayType;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.tools.Diagnostic;
+import javax.tools.FileObject;
+import javax.tools.StandardLocation;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * <p>Annotation processor which works out, at build time, the part of each entity class's metadata that does
+ * not depend on the factory: its persistable fields, @AlsoLoad methods, lifecycle methods, class-level index
+ * instruction, and the type parameters of the If conditions on its fields. It writes them as an index which
+ * ClassMembers reads at runtime instead of reflecting over the class and parsing the annotations of every
+ * member, which cuts the cold-start cost of registration.</p>
+ *
+ * <p>The processor is not registered as a service, so name it explicitly, for example with javac's
+ * {@code -processor com.googlecode.objectify.processor.MetadataProcessor} or the maven-compiler-plugin
+ * {@code annotationProcessors} setting. Naming processors turns off discovery, so name any others you use
+ * (such as lombok's) as well.</p>
+ *
+ * <p>Classes with @Entity or @Subclass are indexed, along with their superclasses in the same compilation.
+ * Other classes, such as embedded ones, are still scanned at runtime. So is any class this processor can't
+ * describe exactly (conflicting annotations or lifecycle methods with parameters, which fail at registration
+ * as usual), and any class whose index has gone stale because it was recompiled without the processor.</p>
+ */
+@SupportedAnnotationTypes({MetadataProcessor.ENTITY, MetadataProcessor.SUBCLASS})
+public class MetadataProcessor extends AbstractProcessor
+{
+	/** */
+	static final String ENTITY = "com.googlecode.objectify.annotation.Entity";
+	static final String SUBCLASS = "com.googlecode.objectify.annotation.Subclass";
+
+	/** */
+	private static final String IF = "com.googlecode.objectify.condition.If";
+	private static final String ALSO_LOAD = "com.googlecode.objectify.annotation.AlsoLoad";
+	private static final String IGNORE = "com.googlecode.objectify.annotation.Ignore";
+	private static final String INDEX = "com.googlecode.objectify.annotation.Index";
+	private static final String UNINDEX = "com.googlecode.objectify.annotation.Unindex";
+	private static final String IGNORE_SAVE = "com.googlecode.objectify.annotation.IgnoreSave";
+	private static final String ON_SAVE = "com.googlecode.objectify.annotation.OnSave";
+	private static final String ON_LOAD = "com.googlecode.objectify.annotation.OnLoad";
+
+	/** Field annotations which take If classes */
+	private static final String[] CONDITIONAL = { INDEX, UNINDEX, IGNORE_SAVE };
+
+	/** Binary names of the classes already written, since a resource can only be created once */
+	private final Set<String> written = new HashSet<>();
+
+	@Override
+	public SourceVersion getSupportedSourceVersion() {
+		return SourceVersion.latestSupported();
+	}
+
+	@Override
+	public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+		Set<TypeElement> compiled = new HashSet<>();
+		collectTypes(roundEnv.getRootElements(), compiled);
+
+		for (TypeElement annotation: annotations) {
+			for (TypeElement type: ElementFilter.typesIn(roundEnv.getElementsAnnotatedWith(annotation))) {
+				// Superclasses have their own members, so they need their own index
+				for (TypeElement examined = type; examined != null && compiled.contains(examined); examined = superclassOf(examined))
+					write(examined);
+			}
+		}
+
+		// Other processors may want to see the same annotations
+		return false;
+	}
+
+	/** */
+	private void collectTypes(Iterable<? extends Element> elements, Set<TypeElement> into) {
+		for (TypeElement type: ElementFilter.typesIn(elements)) {
+			into.add(type);
+			collectTypes(type.getEnclosedElements(), into);
+		}
+	}
+
+	/** @return null if there is no declared superclass */
+	private TypeElement superclassOf(TypeElement type) {
+		TypeMirror sup = type.getSuperclass();
+		return sup.getKind() == TypeKind.DECLARED ? (TypeElement)((DeclaredType)sup).asElement() : null;
+	}
+
+	/** */
+	private void write(TypeElement type) {
+		String name = processingEnv.getElementUtils().getBinaryName(type).toString();
+		if (!written.add(name))
+			return;
+
+		List<String> lines = describe(type);
+		if (lines == null)
+			return;
+
+		try {
+			FileObject file = processingEnv.getFiler().createResource(StandardLocation.CLASS_OUTPUT, "", ClassMembers.INDEX_PREFIX + name, type);
+
+			try (Writer writer = new OutputStreamWriter(file.openOutputStream(), StandardCharsets.UTF_8)) {
+				writer.write("# Generated by " + getClass().getName() + "\n");
+				for (String line: lines)
+					writer.write(line + "\n");
+			}
+		} catch (IOException ex) {
+			processingEnv.getMessager().printMessage(Diagnostic.Kind.WARNING, "Could not write Objectify metadata for " + name + ": " + ex, type);
+		}
+	}
+
+	/**
+	 * Follows the same rules as ClassMembers does with reflection.
+	 *
+	 * @return the lines of the index, or null if the class can't be described exactly
+	 */
+	private List<String> describe(TypeElement type) {
+		if (type.getKind() != ElementKind.CLASS)
+			return null;
+
+		List<String> lines = new ArrayList<>();
+
+		boolean index = hasAnnotation(type, INDEX);
+		boolean unindex = hasAnnotation(type, UNINDEX);
+		if (index && unindex)
+			return null;
+		else if (index || unindex)
+			lines.add("index " + index);
+
+		List<VariableElement> fields = ElementFilter.fieldsIn(type.getEnclosedElements());
+		lines.add("fields " + fields.size());
+
+		Map<String, String> ifTypes = new LinkedHashMap<>();
+
+		for (VariableElement field: fields) {
+			if (!isOfInterest(field))
+				continue;
+
+			lines.add("field " + field.getSimpleName());
+
+			for (String conditional: CONDITIONAL) {
+				AnnotationMirror mirror = getAnnotation(field, conditional);
+				if (mirror != null)
+					for (TypeMirror ifClass: classesOf(mirror))
+						addIfTypes(ifClass, ifTypes);
+			}
+		}
+
+		for (ExecutableElement method: ElementFilter.methodsIn(type.getEnclosedElements())) {
+			if (isAlsoLoad(method)) {
+				StringBuilder line = new StringBuilder("alsoload ").append(method.getSimpleName());
+				for (VariableElement param: method.getParameters()) {
+					String paramName = className(param.asType());
+					if (paramName == null)
+						return null;
+
+					line.append(' ').append(paramName);
+				}
+				lines.add(line.toString());
+			}
+
+			boolean onSave = hasAnnotation(method, ON_SAVE);
+			boolean onLoad = hasAnnotation(method, ON_LOAD);
+
+			if ((onSave || onLoad) && !method.getParameters().isEmpty())
+				return null;
+
+			if (onSave)
+				lines.add("onsave " + method.getSimpleName());
+
+			if (onLoad)
+				lines.add("onload " + method.getSimpleName());
+		}
+
+		for (Map.Entry<String, String> entry: ifTypes.entrySet())
+			lines.add("if " + entry.getKey() + " " + entry.getValue());
+
+		return lines;
+	}
+
+	/** Same rules as ClassMembers */
+	private boolean isOfInterest(VariableElement field) {
+		return !hasAnnotation(field, IGNORE)
+				&& !field.getModifiers().contains(Modifier.STATIC)
+				&& !field.getModifiers().contains(Modifier.FINAL)
+				&& !field.getSimpleName().toString().startsWith("bitmap$init");
+	}
+
+	/** */
+	private boolean isAlsoLoad(ExecutableElement method) {
+		for (VariableElement param: method.getParameters())
+			if (hasAnnotation(param, ALSO_LOAD))
+				return true;
+
+		return false;
+	}
+
+	/**
+	 * Record the erased type parameters of If, as seen from the If class, unless they can only be worked
+	 * out at runtime (the If class is generic, say).
+	 */
+	private void addIfTypes(TypeMirror ifClass, Map<String, String> into) {
+		String ifName = className(ifClass);
+		if (ifName == null || into.containsKey(ifName))
+			return;
+
+		DeclaredType asIf = findIf(ifClass);
+		if (asIf == null || asIf.getTypeArguments().size() != 2)
+			return;
+
+		String valueName = className(asIf.getTypeArguments().get(0));
+		String pojoName = className(asIf.getTypeArguments().get(1));
+
+		if (valueName != null && pojoName != null)
+			into.put(ifName, valueName + " " + pojoName);
+	}
+
+	/** @return the If supertype, with its type arguments as the subclass binds them */
+	private DeclaredType findIf(TypeMirror type) {
+		for (TypeMirror sup: processingEnv.getTypeUtils().directSupertypes(type)) {
+			if (sup.getKind() != TypeKind.DECLARED)
+				continue;
+
+			DeclaredType declared = (DeclaredType)sup;
+			if (((TypeElement)declared.asElement()).getQualifiedName().contentEquals(IF))
+				return declared;
+
+			DeclaredType found = findIf(sup);
+			if (found != null)
+				return found;
+		}
+
+		return null;
+	}
+
+	/** @return the classes in the value() of the annotation, including the default */
+	private List<TypeMirror> classesOf(AnnotationMirror mirror) {
+		List<TypeMirror> classes = new ArrayList<>();
+
+		Map<? extends ExecutableElement, ? extends AnnotationValue> values = processingEnv.getElementUtils().getElementValuesWithDefaults(mirror);
+		for (Map.Entry<? extends ExecutableElement, ? extends AnnotationValue> entry: values.entrySet()) {
+			if (!entry.getKey().getSimpleName().contentEquals("value"))
+				continue;
+
+			for (Object item: (List<?>)entry.getValue().getValue())
+				if (((AnnotationValue)item).getValue() instanceof TypeMirror)
+					classes.add((TypeMirror)((AnnotationValue)item).getValue());
+		}
+
+		return classes;
+	}
+
+	/** */
+	private boolean hasAnnotation(Element element, String annotation) {
+		return getAnnotation(element, annotation) != null;
+	}
+
+	/** */
+	private AnnotationMirror getAnnotation(Element element, String annotation) {
+		for (AnnotationMirror mirror: element.getAnnotationMirrors())
+			if (((TypeElement)mirror.getAnnotationType().asElement()).getQualifiedName().contentEquals(annotation))
+				return mirror;
+
+		return null;
+	}
+
+	/** Class.getName() of the primitive types, and their array descriptors */
+	private static final Map<TypeKind, String[]> PRIMITIVES = new HashMap<>();
+	static {
+		PRIMITIVES.put(TypeKind.BOOLEAN, new String[] { "boolean", "Z" });
+		PRIMITIVES.put(TypeKind.BYTE, new String[] { "byte", "B" });
+		PRIMITIVES.put(TypeKind.CHAR, new String[] { "char", "C" });
+		PRIMITIVES.put(TypeKind.SHORT, new String[] { "short", "S" });
+		PRIMITIVES.put(TypeKind.INT, new String[] { "int", "I" });
+		PRIMITIVES.put(TypeKind.LONG, new String[] { "long", "J" });
+		PRIMITIVES.put(TypeKind.FLOAT, new String[] { "float", "F" });
+		PRIMITIVES.put(TypeKind.DOUBLE, new String[] { "double", "D" });
+	}
+
+	/**
+	 * @return the name Class.getName() gives the erasure of the type, or null if there isn't one (type
+	 *  variables are erased to their bounds, but wildcards and unresolved types have no name)
+	 */
+	private String className(TypeMirror type) {
+		if (type.getKind() == TypeKind.WILDCARD || type.getKind() == TypeKind.ERROR)
+			return null;
+
+		type = processingEnv.getTypeUtils().erasure(type);
+
+		if (type.getKind().isPrimitive())
+			return PRIMITIVES.get(type.getKind())[0];
+
+		if (type.getKind() == TypeKind.DECLARED)
+			return processingEnv.getElementUtils().getBinaryName((TypeElement)((DeclaredType)type).asElement()).toString();
+
+		if (type.getKind() == TypeKind.ARRAY) {
+			String descriptor = descriptor(((ArrayType)type).getComponentType());
+			return descriptor == null ? null : "[" + descriptor;
+		}
+
+		return null;
+	}
+
+	/** @return the descriptor of an array component type, as used in array class names */
+	private String descriptor(TypeMirror component) {
+		if (component.getKind().isPrimitive())
+			return PRIMITIVES.get(component.getKind())[1];
+
+		String name = className(component);
+		if (name == null)
+			return null;
+
+		return component.getKind() == TypeKind.ARRAY ? name : "L" + name + ";";
+	}
+}
@@ -0,0 +1,71 @@
+package com.googlecode.objectify.stats;
+
+import com.googlecode.objectify.Work;
+import com.googlecode.objectify.util.StatMap;
+
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Tracks transaction attempts and optimistic concurrency failures for each kind of work, so that
+ * contended code paths (and the entity groups they touch) stand out. Work is identified by its class
+ * name; an anonymous Work shows up as the enclosing class with a {@code $n} suffix.
+ */
+public class ContentionStats
+{
+	/** */
+	public class Stat
+	{
+		private AtomicLong attempts = new AtomicLong();
+		private AtomicLong contentions = new AtomicLong();
+		private AtomicLong failures = new AtomicLong();
+
+		/** Transaction attempts, including retries */
+		public long getAttempts() { return this.attempts.get(); }
+
+		/** Attempts which failed with a concurrency failure */
+		public long getContentions() { return this.contentions.get(); }
+
+		/** Transactions abandoned after a concurrency failure, because retries ran out */
+		public long getFailures() { return this.failures.get(); }
+
+		/** Fraction of attempts which were contended */
+		public float getContentionRate() {
+			long att = this.getAttempts();
+			return (att == 0) ? 0f : (float)this.getContentions() / att;
+		}
+	}
+
+	/** */
+	private final StatMap<Stat> stats = new StatMap<Stat>() {
+		@Override
+		protected Stat create() {
+			return new Stat();
+		}
+	};
+
+	/**
+	 * Get the live statistics, keyed by work class name.  You can clear it if you want.
+	 */
+	public Map<String, Stat> getStats() { return this.stats.asMap(); }
+
+	/** */
+	public void recordAttempt(Work<?> work) {
+		this.getStat(work).attempts.incrementAndGet();
+	}
+
+	/** */
+	public void recordContention(Work<?> work) {
+		this.getStat(work).contentions.incrementAndGet();
+	}
+
+	/** */
+	public void recordFailure(Work<?> work) {
+		this.getStat(work).failures.incrementAndGet();
+	}
+
+	/** Work is identified by its class name */
+	private Stat getStat(Work<?> work) {
+		return this.stats.get(work.getClass().getName());
+	}
+}
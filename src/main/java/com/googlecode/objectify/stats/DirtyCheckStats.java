@@ -0,0 +1,53 @@
+package com.googlecode.objectify.stats;
+
+import com.googlecode.objectify.util.StatMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Tracks how many saves of fingerprinted entities were actually written and how many were skipped
+ * because nothing changed. See {@code Objectify.dirtyChecking()}.
+ */
+public class DirtyCheckStats
+{
+	/** */
+	public class Stat
+	{
+		private AtomicLong written = new AtomicLong();
+		private AtomicLong skipped = new AtomicLong();
+
+		/** Saves of fingerprinted entities which had changed */
+		public long getWritten() { return this.written.get(); }
+
+		/** Saves of fingerprinted entities which were skipped */
+		public long getSkipped() { return this.skipped.get(); }
+	}
+
+	/** */
+	private final StatMap<Stat> stats = new StatMap<Stat>() {
+		@Override
+		protected Stat create() {
+			return new Stat();
+		}
+	};
+
+	/**
+	 * Get the live statistics, keyed by kind.  You can clear it if you want.
+	 */
+	public Map<String, Stat> getStats() { return this.stats.asMap(); }
+
+	/** */
+	public void recordWritten(String kind) {
+		this.getStat(kind).written.incrementAndGet();
+	}
+
+	/** */
+	public void recordSkipped(String kind) {
+		this.getStat(kind).skipped.incrementAndGet();
+	}
+
+	/** */
+	private Stat getStat(String kind) {
+		return this.stats.get(kind);
+	}
+}
@@ -0,0 +1,171 @@
+package com.googlecode.objectify.stats;
+
+import com.google.appengine.api.datastore.Key;
+import com.googlecode.objectify.cache.MemcacheStats;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <p>An opt-in summary of what a query actually did. Create one, attach it with {@code query.profile(profile)},
+ * execute the query, and then examine (or log) the profile. The counts accumulate as results are iterated,
+ * so the summary is complete once iteration is finished.</p>
+ *
+ * <pre>
+ * QueryProfile profile = new QueryProfile();
+ * List&lt;Thing&gt; things = ofy().load().type(Thing.class).filter("foo", bar).profile(profile).list();
+ * things.size();
+ * log.info(profile.toString());
+ * </pre>
+ *
+ * <p>A profile is not thread-safe; attach each one to a single query.</p>
+ */
+public class QueryProfile
+{
+	/** How the query was executed */
+	public enum Strategy {
+		/** Entities came back from the query itself */
+		NORMAL,
+		/** Keys-only query followed by batch gets */
+		HYBRID,
+		/** Projection query, possibly into a view type */
+		PROJECTION,
+		/** Keys only, no entities loaded */
+		KEYS_ONLY
+	}
+
+	/** */
+	Strategy strategy;
+	String query;
+
+	/** Chunks processed; for hybrid queries, this is the number of keys-only batches */
+	long chunks;
+
+	/** Results produced by the query */
+	long results;
+
+	/** Number of batch get operations issued to the (possibly caching) datastore service */
+	long batchGets;
+
+	/** Number of keys requested across all batch gets */
+	long keysFetched;
+
+	/** Keys which were satisfied by the session without being fetched */
+	long sessionHits;
+
+	/** Keys which were satisfied by entities returned from the query itself rather than a batch get */
+	long stuffedHits;
+
+	/** Keys which the batch gets satisfied from memcache */
+	long memcacheHits;
+
+	/** Results that were dropped because the batch get found nothing (eg, deleted since the index was read) */
+	long nullsDropped;
+
+	/** Time spent translating Entity objects into pojos */
+	long translationNanos;
+
+	/** */
+	public Strategy getStrategy() { return strategy; }
+
+	/** @return the query string, as from Query.toString() */
+	public String getQuery() { return query; }
+
+	/** */
+	public long getChunks() { return chunks; }
+
+	/** */
+	public long getResults() { return results; }
+
+	/** */
+	public long getBatchGets() { return batchGets; }
+
+	/** */
+	public long getKeysFetched() { return keysFetched; }
+
+	/** */
+	public long getSessionHits() { return sessionHits; }
+
+	/** */
+	public long getStuffedHits() { return stuffedHits; }
+
+	/** */
+	public long getMemcacheHits() { return memcacheHits; }
+
+	/** @return the number of keys which had to be fetched from the datastore proper */
+	public long getDatastoreFetches() { return keysFetched - memcacheHits; }
+
+	/** */
+	public long getNullsDropped() { return nullsDropped; }
+
+	/** */
+	public long getTranslationTime(TimeUnit unit) { return unit.convert(translationNanos, TimeUnit.NANOSECONDS); }
+
+	//
+	// The recording side, called by the query implementation as the query executes
+	//
+
+	/** */
+	public void recordStrategy(Strategy strategy) { this.strategy = strategy; }
+
+	/** */
+	public void recordQuery(String query) { this.query = query; }
+
+	/** */
+	public void recordChunk() { chunks++; }
+
+	/** */
+	public void recordResult() { results++; }
+
+	/** */
+	public void recordBatchGet(int keys) {
+		batchGets++;
+		keysFetched += keys;
+	}
+
+	/** */
+	public void recordSessionHit() { sessionHits++; }
+
+	/** */
+	public void recordStuffedHits(int count) { stuffedHits += count; }
+
+	/** */
+	public void recordNullDropped() { nullsDropped++; }
+
+	/** */
+	public void recordTranslation(long nanos) { translationNanos += nanos; }
+
+	/**
+	 * @return something that can observe the memcache hits caused by a single batch get
+	 */
+	public MemcacheStats memcacheObserver() {
+		return new MemcacheStats() {
+			@Override
+			public void recordHit(Key key) {
+				memcacheHits++;
+			}
+
+			@Override
+			public void recordMiss(Key key) {
+				// Will become a datastore fetch
+			}
+		};
+	}
+
+	/** */
+	@Override
+	public String toString() {
+		return getClass().getSimpleName() + "{strategy=" + strategy
+				+ ",query=" + query
+				+ ",chunks=" + chunks
+				+ ",results=" + results
+				+ ",batchGets=" + batchGets
+				+ ",keysFetched=" + keysFetched
+				+ ",sessionHits=" + sessionHits
+				+ ",stuffedHits=" + stuffedHits
+				+ ",memcacheHits=" + memcacheHits
+				+ ",datastoreFetches=" + getDatastoreFetches()
+				+ ",nullsDropped=" + nullsDropped
+				+ ",translationMillis=" + getTranslationTime(TimeUnit.MILLISECONDS)
+				+ "}";
+	}
+}
@@ -11,6 +11,8 @@ import com.googlecode.objectify.Ref;
 import com.googlecode.objectify.impl.Path;
 import com.googlecode.objectify.impl.translate.SaveContext;
 
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -30,6 +32,19 @@ public class DatastoreUtils
 		return rawKeys;
 	}
 		
+	/**
+	 * @return a digest of the serialized entity, including its key. Identical entities always produce identical
+	 * fingerprints; differing property order can (rarely) make identical content produce different ones.
+	 */
+	public static byte[] fingerprint(Entity entity) {
+		try {
+			byte[] bytes = com.google.appengine.api.datastore.EntityTranslator.convertToPb(entity).toByteArray();
+			return MessageDigest.getInstance("MD5").digest(bytes);
+		} catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException(e);	// impossible, MD5 is always available
+		}
+	}
+
 	/**
 	 * Make a new Query object that is exactly like the old.  Too bad Query isn't Cloneable. 
 	 */
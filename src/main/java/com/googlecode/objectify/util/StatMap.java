@@ -0,0 +1,36 @@
+package com.googlecode.objectify.util;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * The live statistics of one of the stats classes, keyed by kind (or whatever the owner keys on).
+ * A stat is created the first time its key is seen; concurrent first uses share the same one.
+ */
+public abstract class StatMap<S>
+{
+	/** */
+	private final ConcurrentMap<String, S> stats = new ConcurrentHashMap<>();
+
+	/** @return a fresh stat for a key seen for the first time */
+	protected abstract S create();
+
+	/** @return the live map; clearing it starts the statistics over */
+	public Map<String, S> asMap() {
+		return stats;
+	}
+
+	/** */
+	public S get(String key) {
+		S stat = stats.get(key);
+		if (stat == null) {
+			S created = create();
+			stat = stats.putIfAbsent(key, created);
+			if (stat == null)
+				stat = created;
+		}
+
+		return stat;
+	}
+}
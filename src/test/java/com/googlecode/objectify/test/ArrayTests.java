@@ -54,6 +54,9 @@ public class ArrayTests extends TestBase
 		@Unindex
 		public Integer[] integers;
 
+		@Unindex
+		public double[] doubles;
+
 		/** Default constructor must always exist */
 		public HasArrays() {}
 	}
@@ -109,4 +112,37 @@ public class ArrayTests extends TestBase
 
 		assert Arrays.equals(fetched.longs, hasa.longs);
 	}
+
+	/** */
+	@Test
+	public void testLargePrimitiveArrays() throws Exception {
+		HasArrays hasa = new HasArrays();
+		hasa.longs = new long[10000];
+		hasa.doubles = new double[10000];
+		for (int i = 0; i < 10000; i++) {
+			hasa.longs[i] = i * 1000L;
+			hasa.doubles[i] = i / 3.0;
+		}
+
+		Key<HasArrays> k = ofy().save().entity(hasa).now();
+		ofy().clear();
+
+		HasArrays fetched = ofy().load().key(k).now();
+
+		assert Arrays.equals(fetched.longs, hasa.longs);
+		assert Arrays.equals(fetched.doubles, hasa.doubles);
+	}
+
+	/** Anything other than plain numbers goes through the component translator */
+	@Test
+	public void testPrimitiveArrayOfStrings() throws Exception {
+		com.google.appengine.api.datastore.Entity ent = new com.google.appengine.api.datastore.Entity(Key.getKind(HasArrays.class), 123L);
+		ent.setUnindexedProperty("ints", Arrays.<Object>asList(5L, "6"));
+		ofy().save().entity(ent).now();
+		ofy().clear();
+
+		HasArrays fetched = ofy().load().type(HasArrays.class).id(123L).now();
+
+		assert Arrays.equals(fetched.ints, new int[] { 5, 6 });
+	}
 }
\ No newline at end of file
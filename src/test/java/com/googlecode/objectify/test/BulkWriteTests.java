@@ -0,0 +1,118 @@
+package com.googlecode.objectify.test;
+
+import com.google.appengine.api.datastore.AsyncDatastoreService;
+import com.google.appengine.api.datastore.DatastoreServiceConfig;
+import com.googlecode.objectify.Key;
+import com.googlecode.objectify.annotation.Entity;
+import com.googlecode.objectify.annotation.Id;
+import com.googlecode.objectify.test.entity.Trivial;
+import com.googlecode.objectify.test.util.TestBase;
+import com.googlecode.objectify.test.util.TestObjectifyFactory;
+import org.testng.annotations.Test;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+import static com.googlecode.objectify.test.util.TestObjectifyService.fact;
+import static com.googlecode.objectify.test.util.TestObjectifyService.ofy;
+
+/**
+ * Tests that saves and deletes larger than the datastore allows in one call are split transparently
+ */
+public class BulkWriteTests extends TestBase
+{
+	/** More than several parts' worth */
+	private static final int COUNT = 2600;
+
+	/** */
+	@Entity
+	public static class Big {
+		@Id Long id;
+		byte[] data;
+
+		Big() {}
+		Big(int size) { this.data = new byte[size]; }
+	}
+
+	/** */
+	@Test
+	public void oversizedSaveKeepsOrderAndAssignsIds() throws Exception {
+		fact().register(Trivial.class);
+
+		List<Trivial> trivs = new ArrayList<>();
+		for (int i=0; i<COUNT; i++)
+			trivs.add(new Trivial("foo" + i, i));
+
+		Map<Key<Trivial>, Trivial> saved = ofy().save().entities(trivs).now();
+		assert saved.size() == COUNT;
+
+		Iterator<Trivial> it = trivs.iterator();
+		for (Map.Entry<Key<Trivial>, Trivial> entry: saved.entrySet()) {
+			Trivial triv = it.next();
+			assert entry.getValue() == triv;
+			assert triv.getId() != null;
+			assert entry.getKey().getId() == triv.getId();
+		}
+
+		ofy().clear();
+		assert ofy().load().type(Trivial.class).count() == COUNT;
+	}
+
+	/** */
+	@Test
+	public void oversizedDeleteRemovesEverything() throws Exception {
+		fact().register(Trivial.class);
+
+		List<Trivial> trivs = new ArrayList<>();
+		for (int i=0; i<COUNT; i++)
+			trivs.add(new Trivial("foo" + i, i));
+
+		Map<Key<Trivial>, Trivial> saved = ofy().save().entities(trivs).now();
+
+		ofy().delete().keys(saved.keySet()).now();
+		ofy().clear();
+
+		assert ofy().load().type(Trivial.class).count() == 0;
+	}
+
+	/** */
+	@Test
+	public void saveLargerThanTheByteLimitIsSplit() throws Exception {
+		final int[] puts = new int[1];
+
+		// Replace the factory with one that counts puts
+		setUpObjectifyFactory(new TestObjectifyFactory() {
+			@Override
+			protected AsyncDatastoreService createRawAsyncDatastoreService(DatastoreServiceConfig cfg) {
+				final AsyncDatastoreService base = super.createRawAsyncDatastoreService(cfg);
+				return (AsyncDatastoreService)Proxy.newProxyInstance(this.getClass().getClassLoader(), new Class[] { AsyncDatastoreService.class }, new InvocationHandler() {
+					@Override
+					public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+						if (method.getName().equals("put"))
+							puts[0]++;
+
+						return method.invoke(base, args);
+					}
+				});
+			}
+		});
+		fact().register(Big.class);
+
+		// Eleven entities of 900k each is well under the count limit but over 9MB
+		List<Big> bigs = new ArrayList<>();
+		for (int i=0; i<11; i++)
+			bigs.add(new Big(900 * 1024));
+
+		Map<Key<Big>, Big> saved = ofy().save().entities(bigs).now();
+		assert saved.size() == bigs.size();
+		assert puts[0] == 2;
+
+		ofy().clear();
+		assert ofy().load().type(Big.class).count() == bigs.size();
+	}
+}
@@ -17,6 +17,11 @@ import com.googlecode.objectify.util.Closeable;
 import lombok.Data;
 import org.testng.annotations.BeforeMethod;
 import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
 import static com.googlecode.objectify.test.util.TestObjectifyService.ds;
 import static com.googlecode.objectify.test.util.TestObjectifyService.fact;
 import static com.googlecode.objectify.test.util.TestObjectifyService.ofy;
@@ -175,4 +180,23 @@ public class DeferTests extends GAETestBase
 		assertThat(hos.getData(), equalTo("onsaved"));
 	}
 
+	/** */
+	@Test
+	public void largeDeferredSetIsFlushedInBatches() throws Exception {
+		List<Trivial> trivs = new ArrayList<>();
+		for (long i = 1; i <= 1200; i++)
+			trivs.add(new Trivial(i, "foo" + i, i));
+
+		try (Closeable root = TestObjectifyService.begin()) {
+			ofy().defer().save().entities(trivs);
+			ofy().defer().delete().entity(trivs.get(0));
+		}
+
+		try (Closeable root = TestObjectifyService.begin()) {
+			Map<Key<Trivial>, Trivial> loaded = ofy().load().entities(trivs);
+			assertThat(loaded.size(), equalTo(trivs.size() - 1));
+			assertThat(loaded.get(Key.create(trivs.get(1))), equalTo(trivs.get(1)));
+			assertThat(loaded.get(Key.create(trivs.get(1199))), equalTo(trivs.get(1199)));
+		}
+	}
 }
\ No newline at end of file
@@ -0,0 +1,85 @@
+/*
+ */
+
+package com.googlecode.objectify.test;
+
+import com.googlecode.objectify.cache.PendingFutures;
+import com.googlecode.objectify.cmd.QueryDeletion;
+import com.googlecode.objectify.test.entity.Trivial;
+import com.googlecode.objectify.test.util.TestBase;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.googlecode.objectify.test.util.TestObjectifyService.fact;
+import static com.googlecode.objectify.test.util.TestObjectifyService.ofy;
+
+/**
+ * Tests of deleting by query
+ */
+public class DeleteQueryTests extends TestBase
+{
+	/** */
+	@BeforeMethod
+	public void setUpData() {
+		fact().register(Trivial.class);
+
+		List<Trivial> trivs = new ArrayList<>();
+		for (long i = 1; i <= 1200; i++)
+			trivs.add(new Trivial(i, (i % 2 == 0) ? "even" : "odd", i));
+
+		ofy().save().entities(trivs).now();
+		ofy().clear();
+	}
+
+	/** */
+	@Test
+	public void deletesEverythingMatching() throws Exception {
+		QueryDeletion deletion = ofy().delete().query(ofy().load().type(Trivial.class).filter("someString", "even"));
+
+		// The first deletes have been issued, but nothing has been waited for
+		assert deletion.getDeleted() == 0;
+		assert deletion.getCursor() == null;
+
+		assert deletion.now() == 600;
+		assert deletion.getDeleted() == 600;
+		assert deletion.getCursor() != null;
+
+		assert ofy().load().type(Trivial.class).filter("someString", "even").count() == 0;
+		assert ofy().load().type(Trivial.class).count() == 600;
+	}
+
+	/** */
+	@Test
+	public void deletedEntitiesLeaveTheSession() throws Exception {
+		Trivial triv = ofy().load().type(Trivial.class).id(2).now();
+		assert triv != null;
+
+		ofy().delete().query(ofy().load().type(Trivial.class).filter("someString", "even")).now();
+
+		assert ofy().load().type(Trivial.class).id(2).now() == null;
+	}
+
+	/** */
+	@Test
+	public void deletesWithoutCallingNow() throws Exception {
+		ofy().delete().query(ofy().load().type(Trivial.class).filter("someString", "even"));
+
+		// What the end of the request does
+		PendingFutures.completeAllPendingFutures();
+
+		assert ofy().load().type(Trivial.class).filter("someString", "even").count() == 0;
+		assert ofy().load().type(Trivial.class).count() == 600;
+	}
+
+	/** */
+	@Test
+	public void respectsLimit() throws Exception {
+		int deleted = ofy().delete().query(ofy().load().type(Trivial.class).limit(100)).now();
+
+		assert deleted == 100;
+		assert ofy().load().type(Trivial.class).count() == 1100;
+	}
+}
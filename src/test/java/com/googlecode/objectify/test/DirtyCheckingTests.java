@@ -0,0 +1,90 @@
+/*
+ */
+
+package com.googlecode.objectify.test;
+
+import com.googlecode.objectify.Key;
+import com.googlecode.objectify.Objectify;
+import com.googlecode.objectify.stats.DirtyCheckStats;
+import com.googlecode.objectify.test.entity.Trivial;
+import com.googlecode.objectify.test.util.TestBase;
+import org.testng.annotations.Test;
+
+import static com.googlecode.objectify.test.util.TestObjectifyService.fact;
+import static com.googlecode.objectify.test.util.TestObjectifyService.ofy;
+
+/**
+ * Tests of skipping saves of unchanged entities
+ */
+public class DirtyCheckingTests extends TestBase
+{
+	/** */
+	private Key<Trivial> saveOne() {
+		fact().register(Trivial.class);
+
+		Key<Trivial> key = ofy().save().entity(new Trivial(123L, "foo", 5)).now();
+		ofy().clear();
+
+		return key;
+	}
+
+	/** */
+	@Test
+	public void unchangedSaveIsSkipped() throws Exception {
+		Key<Trivial> key = saveOne();
+
+		Objectify ofy = ofy().dirtyChecking(true);
+		Trivial triv = ofy.load().key(key).now();
+		ofy.save().entity(triv).now();
+
+		DirtyCheckStats.Stat stat = fact().getDirtyCheckStats().getStats().get("Trivial");
+		assert stat.getSkipped() == 1;
+		assert stat.getWritten() == 0;
+	}
+
+	/** */
+	@Test
+	public void changedSaveIsWritten() throws Exception {
+		Key<Trivial> key = saveOne();
+
+		Objectify ofy = ofy().dirtyChecking(true);
+		Trivial triv = ofy.load().key(key).now();
+		triv.setSomeString("bar");
+		ofy.save().entity(triv).now();
+
+		DirtyCheckStats.Stat stat = fact().getDirtyCheckStats().getStats().get("Trivial");
+		assert stat.getSkipped() == 0;
+		assert stat.getWritten() == 1;
+
+		// Saving it again without changes is now a no-op
+		ofy.save().entity(triv).now();
+		assert stat.getSkipped() == 1;
+
+		ofy().clear();
+		assert ofy().load().key(key).now().getSomeString().equals("bar");
+	}
+
+	/** */
+	@Test
+	public void deferredUnchangedSaveIsSkipped() throws Exception {
+		Key<Trivial> key = saveOne();
+
+		Objectify ofy = ofy().dirtyChecking(true);
+		Trivial triv = ofy.load().key(key).now();
+		ofy.defer().save().entity(triv);
+		ofy.flush();
+
+		assert fact().getDirtyCheckStats().getStats().get("Trivial").getSkipped() == 1;
+	}
+
+	/** */
+	@Test
+	public void withoutDirtyCheckingEverythingIsWritten() throws Exception {
+		Key<Trivial> key = saveOne();
+
+		Trivial triv = ofy().load().key(key).now();
+		ofy().save().entity(triv).now();
+
+		assert fact().getDirtyCheckStats().getStats().get("Trivial") == null;
+	}
+}
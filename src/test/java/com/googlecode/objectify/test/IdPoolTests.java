@@ -0,0 +1,157 @@
+/*
+ */
+
+package com.googlecode.objectify.test;
+
+import com.google.appengine.api.datastore.AsyncDatastoreService;
+import com.google.appengine.api.datastore.DatastoreServiceConfig;
+import com.google.apphosting.api.ApiProxy;
+import com.googlecode.objectify.Key;
+import com.googlecode.objectify.Result;
+import com.googlecode.objectify.test.entity.Child;
+import com.googlecode.objectify.test.entity.Trivial;
+import com.googlecode.objectify.test.util.TestBase;
+import com.googlecode.objectify.test.util.TestObjectifyFactory;
+import org.testng.annotations.Test;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.googlecode.objectify.test.util.TestObjectifyService.fact;
+import static com.googlecode.objectify.test.util.TestObjectifyService.ofy;
+
+/**
+ * Tests of assigning preallocated ids before saving
+ */
+public class IdPoolTests extends TestBase
+{
+	/** */
+	@Test
+	public void pooledIdsAreAssignedBeforeThePut() throws Exception {
+		fact().register(Trivial.class);
+		fact().getIdPool().enable(Trivial.class, 10);
+
+		List<Trivial> trivs = new ArrayList<>();
+		for (int i = 0; i < 25; i++)
+			trivs.add(new Trivial("foo" + i, i));
+
+		Result<Map<Key<Trivial>, Trivial>> result = ofy().save().entities(trivs);
+
+		// Ids are there before the save completes, and they are all different
+		Set<Long> ids = new HashSet<>();
+		for (Trivial triv: trivs) {
+			assert triv.getId() != null;
+			ids.add(triv.getId());
+		}
+		assert ids.size() == trivs.size();
+
+		assert result.now().size() == trivs.size();
+
+		ofy().clear();
+		Map<Key<Trivial>, Trivial> loaded = ofy().load().entities(trivs);
+		assert loaded.size() == trivs.size();
+	}
+
+	/** */
+	@Test
+	public void deferredSaveWithPooledIdIsInSession() throws Exception {
+		fact().register(Trivial.class);
+		fact().getIdPool().enable(Trivial.class, 10);
+
+		Trivial triv = new Trivial("foo", 5);
+		ofy().defer().save().entity(triv);
+
+		assert triv.getId() != null;
+		assert ofy().load().entity(triv).now() == triv;
+
+		ofy().flush();
+		ofy().clear();
+
+		Trivial fetched = ofy().load().entity(triv).now();
+		assert fetched.getSomeString().equals("foo");
+	}
+
+	/** */
+	@Test
+	public void concurrentSavesShareOneAllocation() throws Exception {
+		final AtomicInteger allocations = new AtomicInteger();
+
+		// Replace the factory with one that counts allocations
+		setUpObjectifyFactory(new TestObjectifyFactory() {
+			@Override
+			protected AsyncDatastoreService createRawAsyncDatastoreService(DatastoreServiceConfig cfg) {
+				final AsyncDatastoreService base = super.createRawAsyncDatastoreService(cfg);
+				return (AsyncDatastoreService)Proxy.newProxyInstance(this.getClass().getClassLoader(), new Class[] { AsyncDatastoreService.class }, new InvocationHandler() {
+					@Override
+					public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+						if (method.getName().equals("allocateIds"))
+							allocations.incrementAndGet();
+
+						return method.invoke(base, args);
+					}
+				});
+			}
+		});
+
+		fact().register(Trivial.class);
+		fact().getIdPool().enable(Trivial.class, 100);
+
+		final int threads = 8;
+		final int perThread = 50;
+		final Set<Long> ids = Collections.synchronizedSet(new HashSet<Long>());
+		final ApiProxy.Environment env = ApiProxy.getCurrentEnvironment();
+
+		List<Thread> running = new ArrayList<>();
+		for (int t = 0; t < threads; t++) {
+			Thread thread = new Thread(new Runnable() {
+				@Override
+				public void run() {
+					ApiProxy.setEnvironmentForCurrentThread(env);
+
+					for (int i = 0; i < perThread; i++) {
+						Trivial triv = new Trivial("foo", i);
+						fact().getIdPool().assign(triv);
+						ids.add(triv.getId());
+					}
+				}
+			});
+			thread.start();
+			running.add(thread);
+		}
+
+		for (Thread thread: running)
+			thread.join();
+
+		assert ids.size() == threads * perThread;
+
+		// One range per hundred ids, plus at most one refill still outstanding; never one per thread
+		assert allocations.get() <= threads * perThread / 100 + 1;
+	}
+
+	/** */
+	@Test
+	public void kindsWithoutPoolingAreUntouched() throws Exception {
+		fact().register(Trivial.class);
+
+		Trivial triv = new Trivial("foo", 5);
+		assert !fact().getIdPool().assign(triv);
+		assert triv.getId() == null;
+	}
+
+	/** */
+	@Test(expectedExceptions = IllegalArgumentException.class)
+	public void classesWithParentsCannotBePooled() throws Exception {
+		fact().register(Trivial.class);
+		fact().register(Child.class);
+
+		fact().getIdPool().enable(Child.class, 10);
+	}
+}
@@ -9,6 +9,7 @@ import com.googlecode.objectify.annotation.Cache;
 import com.googlecode.objectify.annotation.Id;
 import com.googlecode.objectify.annotation.IgnoreSave;
 import com.googlecode.objectify.condition.IfDefault;
+import com.googlecode.objectify.condition.IfNull;
 import com.googlecode.objectify.condition.IfTrue;
 import com.googlecode.objectify.test.util.TestBase;
 import org.testng.annotations.Test;
@@ -177,4 +178,39 @@ public class IgnoreSaveTests extends TestBase
 		assert ent.getProperties().isEmpty();
 	}
 
+	/** A subclass of a built-in condition must not be mistaken for the condition itself */
+	public static class IfNullOrEmpty extends IfNull {
+		@Override
+		public boolean matchesValue(Object value) {
+			return value == null || "".equals(value);
+		}
+	}
+
+	/** */
+	@com.googlecode.objectify.annotation.Entity
+	@Cache
+	static class UnsavedNullsAndEmpties
+	{
+		@Id Long id;
+		@IgnoreSave(IfNull.class) String nullOnly;
+		@IgnoreSave(IfNullOrEmpty.class) String nullOrEmpty;
+		@IgnoreSave(IfDefault.class) String nullDefault;
+	}
+
+	/** */
+	@Test
+	public void testUnsavedNullsAndEmpties() throws Exception
+	{
+		fact().register(UnsavedNullsAndEmpties.class);
+
+		UnsavedNullsAndEmpties thing = new UnsavedNullsAndEmpties();
+		thing.nullOnly = "";
+		thing.nullOrEmpty = "";
+		Key<UnsavedNullsAndEmpties> key = ofy().save().entity(thing).now();
+
+		Entity ent = ds().get(null, key.getRaw());
+		assert ent.getProperties().size() == 1;
+		assert ent.hasProperty("nullOnly");
+	}
+
 }
\ No newline at end of file
@@ -1,5 +1,6 @@
 package com.googlecode.objectify.test;
 
+import com.googlecode.objectify.Key;
 import com.googlecode.objectify.Ref;
 import com.googlecode.objectify.SaveException;
 import com.googlecode.objectify.annotation.Cache;
@@ -12,6 +13,9 @@ import com.googlecode.objectify.annotation.Parent;
 import com.googlecode.objectify.test.entity.Trivial;
 import com.googlecode.objectify.test.util.TestBase;
 import org.testng.annotations.Test;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
 import static com.googlecode.objectify.test.util.TestObjectifyService.fact;
 import static com.googlecode.objectify.test.util.TestObjectifyService.ofy;
 
@@ -181,4 +185,24 @@ public class LifecycleTests extends TestBase
 		assert fetched.onLoaded;	// would fail without session clear
 	}
 
+	/** */
+	@Test
+	public void lifecycleMethodsAreCalledForEveryEntityInABatch() throws Exception {
+		fact().register(HasLifecycle.class);
+
+		// More than fit in the initial deferred queue
+		List<HasLifecycle> lives = new ArrayList<>();
+		for (int i = 0; i < 40; i++)
+			lives.add(new HasLifecycle());
+
+		Map<Key<HasLifecycle>, HasLifecycle> saved = ofy().save().entities(lives).now();
+		ofy().clear();
+
+		Map<Key<HasLifecycle>, HasLifecycle> fetched = ofy().load().keys(saved.keySet());
+		assert fetched.size() == 40;
+
+		for (HasLifecycle life: fetched.values())
+			assert life.onLoaded;
+	}
+
 }
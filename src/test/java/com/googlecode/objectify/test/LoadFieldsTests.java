@@ -0,0 +1,179 @@
+package com.googlecode.objectify.test;
+
+import com.google.appengine.api.datastore.AsyncDatastoreService;
+import com.google.appengine.api.datastore.DatastoreServiceConfig;
+import com.googlecode.objectify.Key;
+import com.googlecode.objectify.Ref;
+import com.googlecode.objectify.annotation.Entity;
+import com.googlecode.objectify.annotation.Id;
+import com.googlecode.objectify.annotation.Load;
+import com.googlecode.objectify.impl.FieldMask;
+import com.googlecode.objectify.test.entity.Trivial;
+import com.googlecode.objectify.test.util.TestBase;
+import com.googlecode.objectify.test.util.TestObjectifyFactory;
+import org.testng.annotations.Test;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.List;
+
+import static com.googlecode.objectify.test.util.TestObjectifyService.fact;
+import static com.googlecode.objectify.test.util.TestObjectifyService.ofy;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.nullValue;
+
+/**
+ * Tests of load().fields()
+ */
+public class LoadFieldsTests extends TestBase
+{
+	/** */
+	public static class Address {
+		public String street;
+		public String city;
+	}
+
+	/** */
+	@Entity
+	public static class Person {
+		public @Id Long id;
+		public String name;
+		public Address address;
+	}
+
+	/** */
+	@Entity
+	public static class HasLoadRef {
+		public @Id Long id;
+		public String name;
+		public @Load Ref<Trivial> triv;
+	}
+
+	/** */
+	@Test
+	public void onlySelectedFieldsAreLoaded() throws Exception {
+		fact().register(Trivial.class);
+
+		Trivial triv = new Trivial("foo", 5);
+		Key<Trivial> key = ofy().save().entity(triv).now();
+		ofy().clear();
+
+		Trivial partial = ofy().load().fields("someString").key(key).now();
+		assertThat(partial.getId(), equalTo(key.getId()));
+		assertThat(partial.getSomeString(), equalTo("foo"));
+		assertThat(partial.getSomeNumber(), equalTo(0L));
+	}
+
+	/** */
+	@Test
+	public void partialEntitiesStayOutOfTheSession() throws Exception {
+		fact().register(Trivial.class);
+
+		Trivial triv = new Trivial("foo", 5);
+		Key<Trivial> key = ofy().save().entity(triv).now();
+		ofy().clear();
+
+		ofy().load().fields("someString").key(key).now();
+
+		Trivial whole = ofy().load().key(key).now();
+		assertThat(whole.getSomeNumber(), equalTo(5L));
+	}
+
+	/** */
+	@Test(expectedExceptions = IllegalStateException.class)
+	public void partialEntitiesCannotBeSaved() throws Exception {
+		fact().register(Trivial.class);
+
+		Trivial triv = new Trivial("foo", 5);
+		Key<Trivial> key = ofy().save().entity(triv).now();
+		ofy().clear();
+
+		Trivial partial = ofy().load().fields("someString").key(key).now();
+		ofy().save().entity(partial);
+	}
+
+	/** */
+	@Test
+	public void embeddedPathsSelectPartOfTheEmbeddedObject() throws Exception {
+		fact().register(Person.class);
+
+		Person person = new Person();
+		person.name = "Bob";
+		person.address = new Address();
+		person.address.street = "1 Main St";
+		person.address.city = "Springfield";
+		Key<Person> key = ofy().save().entity(person).now();
+		ofy().clear();
+
+		Person partial = ofy().load().fields("address.city").key(key).now();
+		assertThat(partial.name, nullValue());
+		assertThat(partial.address.city, equalTo("Springfield"));
+		assertThat(partial.address.street, nullValue());
+
+		Person wholeAddress = ofy().load().fields("address").key(key).now();
+		assertThat(wholeAddress.name, nullValue());
+		assertThat(wholeAddress.address.street, equalTo("1 Main St"));
+	}
+
+	/** */
+	@Test
+	public void queriesLoadSelectedFields() throws Exception {
+		fact().register(Trivial.class);
+
+		ofy().save().entities(new Trivial("foo", 5), new Trivial("bar", 6)).now();
+		ofy().clear();
+
+		List<Trivial> partials = ofy().load().fields("someNumber").type(Trivial.class).order("someString").list();
+		assertThat(partials, hasSize(2));
+		assertThat(partials.get(0).getSomeString(), nullValue());
+		assertThat(partials.get(0).getSomeNumber(), equalTo(6L));
+	}
+
+	/** */
+	@Test
+	public void loadAnnotationsAreNotFollowed() throws Exception {
+		fact().register(Trivial.class);
+		fact().register(HasLoadRef.class);
+
+		Key<Trivial> trivKey = ofy().save().entity(new Trivial("foo", 5)).now();
+
+		HasLoadRef holder = new HasLoadRef();
+		holder.name = "holder";
+		holder.triv = Ref.create(trivKey);
+		Key<HasLoadRef> key = ofy().save().entity(holder).now();
+
+		final int[] gets = new int[1];
+
+		// Replace the factory with one that counts fetches
+		setUpObjectifyFactory(new TestObjectifyFactory() {
+			@Override
+			protected AsyncDatastoreService createRawAsyncDatastoreService(DatastoreServiceConfig cfg) {
+				final AsyncDatastoreService base = super.createRawAsyncDatastoreService(cfg);
+				return (AsyncDatastoreService)Proxy.newProxyInstance(this.getClass().getClassLoader(), new Class[] { AsyncDatastoreService.class }, new InvocationHandler() {
+					@Override
+					public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+						if (method.getName().equals("get"))
+							gets[0]++;
+
+						return method.invoke(base, args);
+					}
+				});
+			}
+		});
+		fact().register(Trivial.class);
+		fact().register(HasLoadRef.class);
+
+		HasLoadRef partial = ofy().load().fields("triv").key(key).now();
+		assertThat(partial.name, nullValue());
+		assertThat(partial.triv.key(), equalTo(trivKey));
+		assertThat(gets[0], equalTo(1));
+
+		// The target comes whole from the session when used
+		Trivial triv = partial.triv.get();
+		assertThat(triv.getSomeNumber(), equalTo(5L));
+		assert !FieldMask.isPartial(triv);
+	}
+}
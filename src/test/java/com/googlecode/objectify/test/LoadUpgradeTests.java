@@ -9,6 +9,7 @@ import com.googlecode.objectify.VoidWork;
 import com.googlecode.objectify.annotation.Entity;
 import com.googlecode.objectify.annotation.Id;
 import com.googlecode.objectify.annotation.Load;
+import com.googlecode.objectify.test.LoadUpgradeTests.HasEmbedded.Deep;
 import com.googlecode.objectify.test.LoadUpgradeTests.HasMulti.Multi;
 import com.googlecode.objectify.test.LoadUpgradeTests.HasSingle.Single;
 import com.googlecode.objectify.test.util.TestBase;
@@ -221,4 +222,45 @@ public class LoadUpgradeTests extends TestBase
 
 		assert fetched.single.get().id == other0.id;
 	}
+
+	/** */
+	public static class Inner {
+		public @Load(Deep.class) Ref<Other> deep;
+		public Inner() {}
+		public Inner(Ref<Other> deep) { this.deep = deep; }
+	}
+
+	/** */
+	@Entity
+	public static class HasEmbedded {
+		public static class Deep {}
+
+		public @Id Long id;
+		public List<Inner> inners = new ArrayList<>();
+	}
+
+	/** */
+	@Test
+	public void embeddedRefsAreUpgraded() throws Exception
+	{
+		fact().register(HasEmbedded.class);
+
+		HasEmbedded he = new HasEmbedded();
+		he.inners.add(new Inner(Ref.create(ko0)));
+		he.inners.add(new Inner(Ref.create(ko1)));
+		Key<HasEmbedded> hekey = ofy().save().entity(he).now();
+
+		ofy().clear();
+		HasEmbedded plain = ofy().load().key(hekey).now();	// load once
+
+		assert !plain.inners.get(0).deep.isLoaded();
+		assert !plain.inners.get(1).deep.isLoaded();
+
+		HasEmbedded fetched = ofy().load().group(Deep.class).key(hekey).now();	// upgrade through the embedded list
+
+		assert fetched.inners.get(0).deep.isLoaded();
+		assert fetched.inners.get(1).deep.isLoaded();
+		assert fetched.inners.get(0).deep.get().id == other0.id;
+		assert fetched.inners.get(1).deep.get().id == other1.id;
+	}
 }
\ No newline at end of file
@@ -0,0 +1,181 @@
+/*
+ */
+
+package com.googlecode.objectify.test;
+
+import com.googlecode.objectify.ObjectifyFactory;
+import com.googlecode.objectify.annotation.Entity;
+import com.googlecode.objectify.condition.IfEmptyString;
+import com.googlecode.objectify.condition.IfNull;
+import com.googlecode.objectify.impl.translate.ClassMembers;
+import com.googlecode.objectify.impl.translate.LifecycleMethod;
+import com.googlecode.objectify.processor.MetadataProcessor;
+import com.googlecode.objectify.test.util.TestBase;
+import com.googlecode.objectify.test.util.TestObjectifyFactory;
+import org.testng.SkipException;
+import org.testng.annotations.Test;
+
+import javax.tools.JavaCompiler;
+import javax.tools.JavaCompiler.CompilationTask;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.ToolProvider;
+import java.io.File;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.logging.Logger;
+
+/**
+ * Tests of the build-time metadata index. Each test compiles an entity class with javac, with and without
+ * MetadataProcessor, and loads it in a class loader of its own so that nothing about it is cached yet.
+ */
+public class MetadataProcessorTests extends TestBase
+{
+	/** */
+	private static Logger log = Logger.getLogger(MetadataProcessorTests.class.getName());
+
+	/** The %s is for extra members */
+	private static final String SOURCE =
+			"package ex;\n" +
+			"import com.googlecode.objectify.annotation.*;\n" +
+			"import com.googlecode.objectify.condition.*;\n" +
+			"import java.util.List;\n" +
+			"@Entity @Unindex\n" +
+			"public class Thing {\n" +
+			"	static final long serialVersionUID = 1;\n" +
+			"	@Id Long id;\n" +
+			"	@Index String name;\n" +
+			"	@IgnoreSave({IfNull.class, IfEmptyString.class}) String note;\n" +
+			"	@Ignore String skipped;\n" +
+			"	List<String> tags;\n" +
+			"	void importOld(@AlsoLoad(\"old\") String[] old) {}\n" +
+			"	@OnSave void saving() {}\n" +
+			"	@OnLoad void loaded() {}\n" +
+			"	%s\n" +
+			"}\n";
+
+	/** Compile the source into the directory */
+	private void compile(String source, File dir, boolean process) throws Exception {
+		JavaCompiler javac = ToolProvider.getSystemJavaCompiler();
+		if (javac == null)
+			throw new SkipException("Compiling needs a JDK");
+
+		File file = new File(dir, "Thing.java");
+		Files.write(file.toPath(), source.getBytes(StandardCharsets.UTF_8));
+
+		// Objectify's own classes are all the entity needs
+		String classpath = new File(Entity.class.getProtectionDomain().getCodeSource().getLocation().toURI()).getPath();
+
+		List<String> options = new ArrayList<>(Arrays.asList("-d", dir.getPath(), "-classpath", classpath));
+		if (!process)
+			options.add("-proc:none");
+
+		try (StandardJavaFileManager files = javac.getStandardFileManager(null, null, StandardCharsets.UTF_8)) {
+			CompilationTask task = javac.getTask(null, files, null, options, null, files.getJavaFileObjects(file));
+			if (process)
+				task.setProcessors(Collections.singletonList(new MetadataProcessor()));
+
+			assert task.call();
+		}
+	}
+
+	/** Compile the source into a new directory */
+	private File compile(String source, boolean process) throws Exception {
+		File dir = Files.createTempDirectory("metadata").toFile();
+		compile(source, dir, process);
+		return dir;
+	}
+
+	/** Load the class afresh */
+	private Class<?> load(File dir) throws Exception {
+		ClassLoader loader = new URLClassLoader(new URL[] { dir.toURI().toURL() }, getClass().getClassLoader());
+		return loader.loadClass("ex.Thing");
+	}
+
+	/** */
+	private List<String> names(List<?> members) {
+		List<String> names = new ArrayList<>();
+		for (Object member: members) {
+			if (member instanceof Field)
+				names.add(((Field)member).getName());
+			else if (member instanceof Method)
+				names.add(((Method)member).getName());
+			else
+				names.add(((LifecycleMethod)member).toString());
+		}
+		return names;
+	}
+
+	/** */
+	@Test
+	public void indexMatchesReflection() throws Exception {
+		String source = String.format(SOURCE, "");
+		ClassMembers indexed = ClassMembers.of(load(compile(source, true)));
+		ClassMembers reflected = ClassMembers.of(load(compile(source, false)));
+
+		assert indexed.isPrecomputed();
+		assert !reflected.isPrecomputed();
+
+		assert names(indexed.getFields()).equals(Arrays.asList("id", "name", "note", "tags"));
+		assert names(indexed.getFields()).equals(names(reflected.getFields()));
+		assert names(indexed.getAlsoLoadMethods()).equals(names(reflected.getAlsoLoadMethods()));
+		assert names(indexed.getOnSaveMethods()).equals(names(reflected.getOnSaveMethods()));
+		assert names(indexed.getOnLoadMethods()).equals(names(reflected.getOnLoadMethods()));
+		assert indexed.getIndexInstruction() == Boolean.FALSE;
+		assert reflected.getIndexInstruction() == Boolean.FALSE;
+
+		assert Arrays.equals(indexed.getIfTypes(IfNull.class), new Class<?>[] { Object.class, Object.class });
+		assert Arrays.equals(indexed.getIfTypes(IfEmptyString.class), new Class<?>[] { String.class, Object.class });
+		assert reflected.getIfTypes(IfNull.class) == null;
+	}
+
+	/** */
+	@Test
+	public void staleIndexIsIgnored() throws Exception {
+		File dir = compile(String.format(SOURCE, ""), true);
+
+		// Recompiled without the processor, the old index stays behind
+		compile(String.format(SOURCE, "String added;"), dir, false);
+
+		ClassMembers members = ClassMembers.of(load(dir));
+
+		assert !members.isPrecomputed();
+		assert names(members.getFields()).contains("added");
+	}
+
+	/**
+	 * A measurement rather than a pass/fail test; the times are logged at INFO. A throwaway copy is
+	 * registered first so that neither measured copy pays for loading Objectify's own classes.
+	 */
+	@Test
+	public void measureColdRegistration() throws Exception {
+		String source = String.format(SOURCE, "");
+		Class<?> warmup = load(compile(source, false));
+		Class<?> indexed = load(compile(source, true));
+		Class<?> reflected = load(compile(source, false));
+
+		new TestObjectifyFactory().register(warmup);
+
+		long start = System.nanoTime();
+		ObjectifyFactory withIndex = new TestObjectifyFactory();
+		withIndex.register(indexed);
+		long indexedNanos = System.nanoTime() - start;
+
+		start = System.nanoTime();
+		ObjectifyFactory withoutIndex = new TestObjectifyFactory();
+		withoutIndex.register(reflected);
+		long reflectedNanos = System.nanoTime() - start;
+
+		log.info("Registering a cold class took " + (indexedNanos / 1000) + "us with a build-time index, " + (reflectedNanos / 1000) + "us without");
+
+		assert withIndex.getMetadata(indexed) != null;
+		assert withoutIndex.getMetadata(reflected) != null;
+	}
+}
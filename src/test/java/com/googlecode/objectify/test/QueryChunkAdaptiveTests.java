@@ -0,0 +1,96 @@
+/*
+ */
+
+package com.googlecode.objectify.test;
+
+import com.googlecode.objectify.ChunkSizer;
+import com.googlecode.objectify.test.entity.Trivial;
+import com.googlecode.objectify.test.util.TestBase;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static com.googlecode.objectify.test.util.TestObjectifyService.fact;
+import static com.googlecode.objectify.test.util.TestObjectifyService.ofy;
+
+/**
+ * Tests of adaptive chunk sizing
+ */
+public class QueryChunkAdaptiveTests extends TestBase
+{
+	/** */
+	@Test
+	public void smallFastEntitiesGrowTheChunk() throws Exception {
+		ChunkSizer sizer = new ChunkSizer();
+
+		int size = sizer.initialChunkSize("Thing");
+		int next = sizer.adjust("Thing", size, size, 100, 1, TimeUnit.MILLISECONDS.toNanos(1));
+
+		assert next == size * 2;
+		assert sizer.initialChunkSize("Thing") == next;
+	}
+
+	/** */
+	@Test
+	public void hugeEntitiesShrinkTheChunk() throws Exception {
+		ChunkSizer sizer = new ChunkSizer();
+
+		int next = sizer.adjust("Thing", 100, 100, 500 * 1024, 1, TimeUnit.MILLISECONDS.toNanos(1));
+
+		assert next == 50;
+	}
+
+	/** */
+	@Test
+	public void slowEntitiesShrinkTheChunk() throws Exception {
+		ChunkSizer sizer = new ChunkSizer();
+		sizer.setTargetBatchTime(100, TimeUnit.MILLISECONDS);
+
+		int next = sizer.adjust("Thing", 100, 100, 100, 1, TimeUnit.SECONDS.toNanos(1));
+
+		assert next == 50;
+	}
+
+	/** */
+	@Test
+	public void chunkStaysInBounds() throws Exception {
+		ChunkSizer sizer = new ChunkSizer();
+		sizer.setMinChunkSize(20);
+		sizer.setMaxChunkSize(40);
+
+		assert sizer.adjust("Thing", 30, 30, 100, 1, 1) == 40;
+		assert sizer.adjust("Thing", 30, 30, 10 * 1024 * 1024, 1, 1) == 20;
+	}
+
+	/** */
+	@Test
+	public void adaptiveQueriesReturnEverything() throws Exception {
+		fact().register(Trivial.class);
+
+		List<Trivial> trivs = new ArrayList<>();
+		for (int i=1; i<=100; i++)
+			trivs.add(new Trivial((long)i, "foo" + i, i));
+
+		ofy().save().entities(trivs).now();
+		ofy().clear();
+
+		fact().getChunkSizer().setMinChunkSize(5);
+		fact().getChunkSizer().setMaxChunkSize(50);
+
+		List<Trivial> hybrid = ofy().load().type(Trivial.class).hybrid(true).chunkAdaptive().list();
+		assert hybrid.size() == 100;
+
+		ofy().clear();
+
+		int count = 0;
+		for (Trivial triv: ofy().load().type(Trivial.class).hybrid(false).chunkAdaptive()) {
+			count++;
+			assert triv.getId() == count;
+		}
+		assert count == 100;
+
+		assert fact().getChunkSizer().getStats().get("Trivial") != null;
+	}
+}
@@ -0,0 +1,107 @@
+/*
+ */
+
+package com.googlecode.objectify.test;
+
+import com.google.appengine.api.datastore.KeyFactory;
+import com.googlecode.objectify.HybridStrategy;
+import com.googlecode.objectify.impl.EntityMemcacheStats;
+import com.googlecode.objectify.test.entity.Trivial;
+import com.googlecode.objectify.test.util.TestBase;
+import org.testng.annotations.Test;
+import java.util.List;
+import static com.googlecode.objectify.test.util.TestObjectifyService.fact;
+import static com.googlecode.objectify.test.util.TestObjectifyService.ofy;
+
+/**
+ * Tests of the adaptive hybrid query decision.
+ */
+public class QueryHybridStrategyTests extends TestBase
+{
+	/** */
+	private void record(EntityMemcacheStats stats, String kind, int hits, int misses) {
+		for (int i=0; i<hits; i++)
+			stats.recordHit(KeyFactory.createKey(kind, i + 1));
+
+		for (int i=0; i<misses; i++)
+			stats.recordMiss(KeyFactory.createKey(kind, i + 1));
+	}
+
+	/** */
+	@Test
+	public void cacheableKindWithoutStatsIsHybridized() throws Exception {
+		HybridStrategy strategy = new HybridStrategy(new EntityMemcacheStats());
+
+		assert strategy.shouldHybridize("Thing", true, 0, 0);
+		assert strategy.getStats().get("Thing").getHybrid() == 1;
+	}
+
+	/** */
+	@Test
+	public void lowHitRatioRunsNormalQuery() throws Exception {
+		EntityMemcacheStats stats = new EntityMemcacheStats();
+		record(stats, "Thing", 10, 190);
+
+		HybridStrategy strategy = new HybridStrategy(stats);
+		strategy.setProbeInterval(0);
+
+		assert !strategy.shouldHybridize("Thing", true, 0, 0);
+		assert strategy.getStats().get("Thing").getNormal() == 1;
+	}
+
+	/** */
+	@Test
+	public void highHitRatioIsHybridized() throws Exception {
+		EntityMemcacheStats stats = new EntityMemcacheStats();
+		record(stats, "Thing", 190, 10);
+
+		HybridStrategy strategy = new HybridStrategy(stats);
+
+		assert strategy.shouldHybridize("Thing", true, 0, 0);
+	}
+
+	/** */
+	@Test
+	public void sessionResidentUncachedKindIsHybridized() throws Exception {
+		HybridStrategy strategy = new HybridStrategy(new EntityMemcacheStats());
+
+		assert !strategy.shouldHybridize("Thing", false, 0, 10);
+		assert !strategy.shouldHybridize("Thing", false, 10, 0);	// unbounded, can't tell
+		assert strategy.shouldHybridize("Thing", false, 8, 10);
+	}
+
+	/** */
+	@Test
+	public void lowHitRatioStillProbesOccasionally() throws Exception {
+		EntityMemcacheStats stats = new EntityMemcacheStats();
+		record(stats, "Thing", 0, 200);
+
+		HybridStrategy strategy = new HybridStrategy(stats);
+		strategy.setProbeInterval(5);
+
+		int hybridized = 0;
+		for (int i=0; i<20; i++)
+			if (strategy.shouldHybridize("Thing", true, 0, 0))
+				hybridized++;
+
+		assert hybridized == 4;
+	}
+
+	/** */
+	@Test
+	public void queriesRecordDecisions() throws Exception {
+		fact().register(Trivial.class);
+
+		ofy().save().entity(new Trivial(123L, "foo", 5)).now();
+
+		List<Trivial> list = ofy().load().type(Trivial.class).list();
+		assert list.size() == 1;
+
+		List<Trivial> forced = ofy().load().type(Trivial.class).hybrid(false).list();
+		assert forced.size() == 1;
+
+		HybridStrategy.Stat stat = fact().getHybridStrategy().getStats().get("Trivial");
+		assert stat.getHybrid() + stat.getNormal() == 1;
+		assert stat.getForced() == 1;
+	}
+}
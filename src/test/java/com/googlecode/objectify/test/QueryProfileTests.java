@@ -0,0 +1,73 @@
+/*
+ */
+
+package com.googlecode.objectify.test;
+
+import com.googlecode.objectify.stats.QueryProfile;
+import com.googlecode.objectify.test.entity.Trivial;
+import com.googlecode.objectify.test.util.TestBase;
+import org.testng.annotations.Test;
+import java.util.List;
+import static com.googlecode.objectify.test.util.TestObjectifyService.fact;
+import static com.googlecode.objectify.test.util.TestObjectifyService.ofy;
+
+/**
+ * Tests of per-query execution profiles.
+ */
+public class QueryProfileTests extends TestBase
+{
+	/** */
+	@Test
+	public void hybridQueryIsProfiled() throws Exception {
+		fact().register(Trivial.class);
+
+		ofy().save().entity(new Trivial(123L, "foo", 5)).now();
+		ofy().save().entity(new Trivial(456L, "bar", 6)).now();
+		ofy().clear();
+
+		QueryProfile profile = new QueryProfile();
+		List<Trivial> list = ofy().load().type(Trivial.class).hybrid(true).profile(profile).list();
+		assert list.size() == 2;
+
+		assert profile.getStrategy() == QueryProfile.Strategy.HYBRID;
+		assert profile.getResults() == 2;
+		assert profile.getBatchGets() >= 1;
+		assert profile.getKeysFetched() == 2;
+		assert profile.getQuery() != null;
+	}
+
+	/** */
+	@Test
+	public void sessionHitsAreProfiled() throws Exception {
+		fact().register(Trivial.class);
+
+		ofy().save().entity(new Trivial(123L, "foo", 5)).now();
+		ofy().load().type(Trivial.class).id(123L).now();
+
+		QueryProfile profile = new QueryProfile();
+		List<Trivial> list = ofy().load().type(Trivial.class).hybrid(true).profile(profile).list();
+		assert list.size() == 1;
+
+		assert profile.getSessionHits() == 1;
+		assert profile.getKeysFetched() == 0;
+	}
+
+	/** */
+	@Test
+	public void normalAndKeysOnlyQueriesAreProfiled() throws Exception {
+		fact().register(Trivial.class);
+
+		ofy().save().entity(new Trivial(123L, "foo", 5)).now();
+
+		QueryProfile normal = new QueryProfile();
+		ofy().load().type(Trivial.class).hybrid(false).profile(normal).list().size();
+		assert normal.getStrategy() == QueryProfile.Strategy.NORMAL;
+		assert normal.getResults() == 1;
+		assert normal.getChunks() >= 1;
+
+		QueryProfile keys = new QueryProfile();
+		ofy().load().type(Trivial.class).profile(keys).keys().list().size();
+		assert keys.getStrategy() == QueryProfile.Strategy.KEYS_ONLY;
+		assert keys.getResults() == 1;
+	}
+}
@@ -124,4 +124,94 @@ public class QueryProjectionTests extends TestBase
 		assert fetched.t;
 		assert !fetched.f;
 	}
+
+	/** */
+	public interface TrivialView {
+		Key<Trivial> getKey();
+		String getSomeString();
+	}
+
+	/** */
+	@Test
+	public void projectionIntoInterfaceWorks() throws Exception {
+		fact().register(Trivial.class);
+
+		Trivial triv = new Trivial(123L, "foo", 12);
+		Key<Trivial> trivKey = ofy().save().entity(triv).now();
+		ofy().clear();
+
+		List<TrivialView> projected = ofy().load().type(Trivial.class).projectInto(TrivialView.class).list();
+		assert projected.size() == 1;
+
+		TrivialView view = projected.get(0);
+		assert view.getKey().equals(trivKey);
+		assert view.getSomeString().equals(triv.getSomeString());
+		assert !ofy().isLoaded(trivKey);
+	}
+
+	/** */
+	public static class NumberView {
+		long id;
+		int number;
+	}
+
+	/** */
+	@Test
+	public void projectionIntoClassWorks() throws Exception {
+		fact().register(HasIndexedNumber.class);
+
+		HasIndexedNumber hin = new HasIndexedNumber();
+		hin.number = 5;
+		ofy().save().entity(hin).now();
+		ofy().clear();
+
+		NumberView view = ofy().load().type(HasIndexedNumber.class).project("number").projectInto(NumberView.class).first().now();
+		assert view.number == 5;
+		assert view.id == 0;	// not projected, not a key type
+	}
+
+	/** */
+	@Entity
+	public static class HasOwner {
+		@Id Long id;
+		@Index Key<Trivial> owner;
+	}
+
+	/** */
+	public static class OwnerView {
+		Key<HasOwner> key;
+		Key<Trivial> owner;
+	}
+
+	/** */
+	@Test
+	public void keyPropertiesAreProjectedNotFilledWithTheEntityKey() throws Exception {
+		fact().register(Trivial.class);
+		fact().register(HasOwner.class);
+
+		Key<Trivial> trivKey = ofy().save().entity(new Trivial(123L, "foo", 12)).now();
+
+		HasOwner ho = new HasOwner();
+		ho.owner = trivKey;
+		Key<HasOwner> hoKey = ofy().save().entity(ho).now();
+		ofy().clear();
+
+		OwnerView view = ofy().load().type(HasOwner.class).projectInto(OwnerView.class).first().now();
+		assert view.key.equals(hoKey);
+		assert view.owner.equals(trivKey);
+	}
+
+	/** */
+	public interface BadView {
+		String getSomeString();
+		void touch();
+	}
+
+	/** */
+	@Test(expectedExceptions = IllegalArgumentException.class)
+	public void viewInterfacesAreCheckedUpFront() throws Exception {
+		fact().register(Trivial.class);
+
+		ofy().load().type(Trivial.class).projectInto(BadView.class);
+	}
 }
\ No newline at end of file
@@ -0,0 +1,233 @@
+/*
+ */
+
+package com.googlecode.objectify.test;
+
+import com.google.appengine.api.datastore.AsyncDatastoreService;
+import com.google.appengine.api.datastore.DatastoreServiceConfig;
+import com.googlecode.objectify.cmd.QueryPublisher;
+import com.googlecode.objectify.cmd.QueryPublisher.Subscription;
+import com.googlecode.objectify.test.entity.Trivial;
+import com.googlecode.objectify.test.util.TestBase;
+import com.googlecode.objectify.test.util.TestObjectifyFactory;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.googlecode.objectify.test.util.TestObjectifyService.fact;
+import static com.googlecode.objectify.test.util.TestObjectifyService.ofy;
+
+/**
+ * Tests of demand-driven query publishing
+ */
+public class QueryPublisherTests extends TestBase
+{
+	/** Records everything it receives; requests nothing on its own */
+	static class Recorder implements QueryPublisher.Subscriber<Trivial> {
+		Subscription subscription;
+		List<Trivial> items = new ArrayList<>();
+		Throwable error;
+		boolean completed;
+
+		@Override
+		public void onSubscribe(Subscription subscription) {
+			this.subscription = subscription;
+		}
+
+		@Override
+		public void onNext(Trivial item) {
+			items.add(item);
+		}
+
+		@Override
+		public void onError(Throwable throwable) {
+			this.error = throwable;
+		}
+
+		@Override
+		public void onComplete() {
+			this.completed = true;
+		}
+	}
+
+	/** */
+	@BeforeMethod
+	public void setUpExtra() {
+		fact().register(Trivial.class);
+
+		List<Trivial> trivs = new ArrayList<>();
+		for (int i=1; i<=5; i++)
+			trivs.add(new Trivial((long)i, "foo" + i, i));
+
+		ofy().save().entities(trivs).now();
+	}
+
+	/** */
+	@Test
+	public void nothingIsDeliveredWithoutDemand() throws Exception {
+		Recorder rec = new Recorder();
+		ofy().load().type(Trivial.class).publisher().subscribe(rec);
+
+		assert rec.subscription != null;
+		assert rec.items.isEmpty();
+		assert !rec.completed;
+	}
+
+	/** */
+	@Test
+	public void demandDrivesDelivery() throws Exception {
+		Recorder rec = new Recorder();
+		ofy().load().type(Trivial.class).publisher().subscribe(rec);
+
+		rec.subscription.request(2);
+		assert rec.items.size() == 2;
+		assert !rec.completed;
+
+		rec.subscription.request(2);
+		assert rec.items.size() == 4;
+
+		rec.subscription.request(10);
+		assert rec.items.size() == 5;
+		assert rec.completed;
+		assert rec.error == null;
+
+		for (int i=0; i<5; i++)
+			assert rec.items.get(i).getId() == i + 1;
+	}
+
+	/** */
+	@Test
+	public void limitIsObeyed() throws Exception {
+		Recorder rec = new Recorder();
+		ofy().load().type(Trivial.class).limit(3).publisher().subscribe(rec);
+
+		rec.subscription.request(Long.MAX_VALUE);
+		assert rec.items.size() == 3;
+		assert rec.completed;
+	}
+
+	/** */
+	@Test
+	public void cancelStopsDelivery() throws Exception {
+		Recorder rec = new Recorder();
+		ofy().load().type(Trivial.class).publisher().subscribe(rec);
+
+		rec.subscription.request(2);
+		rec.subscription.cancel();
+		rec.subscription.request(2);
+
+		assert rec.items.size() == 2;
+		assert !rec.completed;
+	}
+
+	/** */
+	@Test
+	public void cursorResumesAfterLastDelivered() throws Exception {
+		Recorder rec = new Recorder();
+		ofy().load().type(Trivial.class).publisher().subscribe(rec);
+
+		rec.subscription.request(3);
+		assert rec.items.size() == 3;
+
+		List<Trivial> rest = ofy().load().type(Trivial.class).startAt(rec.subscription.getCursor()).list();
+		assert rest.size() == 2;
+		assert rest.get(0).getId() == 4;
+	}
+
+	/** */
+	@Test
+	public void nonPositiveRequestIsAnError() throws Exception {
+		Recorder rec = new Recorder();
+		ofy().load().type(Trivial.class).publisher().subscribe(rec);
+
+		rec.subscription.request(0);
+		assert rec.error instanceof IllegalArgumentException;
+	}
+
+	/** */
+	@Test
+	public void invalidRequestFromOnNextIsNotReentrant() throws Exception {
+		final boolean[] errorDuringOnNext = new boolean[1];
+
+		Recorder rec = new Recorder() {
+			boolean inOnNext;
+
+			@Override
+			public void onNext(Trivial item) {
+				inOnNext = true;
+				super.onNext(item);
+				subscription.request(0);
+				inOnNext = false;
+			}
+
+			@Override
+			public void onError(Throwable throwable) {
+				errorDuringOnNext[0] = inOnNext;
+				super.onError(throwable);
+			}
+		};
+		ofy().load().type(Trivial.class).publisher().subscribe(rec);
+
+		rec.subscription.request(3);
+
+		assert rec.items.size() == 1;
+		assert rec.error instanceof IllegalArgumentException;
+		assert !errorDuringOnNext[0];
+	}
+
+	/** */
+	@Test
+	public void requestingOneAtATimeRunsOneQuery() throws Exception {
+		final int[] queries = new int[1];
+
+		// Replace the factory with one that counts queries
+		setUpObjectifyFactory(new TestObjectifyFactory() {
+			@Override
+			protected AsyncDatastoreService createRawAsyncDatastoreService(DatastoreServiceConfig cfg) {
+				final AsyncDatastoreService base = super.createRawAsyncDatastoreService(cfg);
+				return (AsyncDatastoreService)Proxy.newProxyInstance(this.getClass().getClassLoader(), new Class[] { AsyncDatastoreService.class }, new InvocationHandler() {
+					@Override
+					public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+						if (method.getName().equals("prepare"))
+							queries[0]++;
+
+						return method.invoke(base, args);
+					}
+				});
+			}
+		});
+		setUpExtra();
+
+		Recorder rec = new Recorder();
+		ofy().load().type(Trivial.class).chunk(2).publisher().subscribe(rec);
+
+		for (int i=0; i<6; i++)
+			rec.subscription.request(1);
+
+		assert rec.items.size() == 5;
+		assert rec.completed;
+		assert queries[0] == 1;
+
+		for (int i=0; i<5; i++)
+			assert rec.items.get(i).getId() == i + 1;
+	}
+
+	/** */
+	@Test
+	public void cursorResumesAcrossPrefetchedChunks() throws Exception {
+		Recorder rec = new Recorder();
+		ofy().load().type(Trivial.class).chunk(2).publisher().subscribe(rec);
+
+		rec.subscription.request(2);
+		assert rec.items.size() == 2;
+
+		List<Trivial> rest = ofy().load().type(Trivial.class).startAt(rec.subscription.getCursor()).list();
+		assert rest.size() == 3;
+		assert rest.get(0).getId() == 3;
+	}
+}
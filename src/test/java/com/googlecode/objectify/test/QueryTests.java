@@ -357,6 +357,34 @@ public class QueryTests extends TestBase
 		assert  result.get(0).getName().equals("fred");
 	}
 
+	/** */
+	@Test
+	public void testINfilteringWithArray() throws Exception
+	{
+		String[] conditions = new String[] {"foo1", "foo2", "baz"};
+
+		List<Trivial> result = ofy().load().type(Trivial.class).filter("someString in", conditions).list();
+		assert result.size() == 2;
+	}
+
+	/** */
+	@Test
+	public void testINfilteringWithEntities() throws Exception
+	{
+		fact().register(Employee.class);
+
+		Employee bob = new Employee("bob");
+		Employee fred = new Employee("fred", Key.create(bob));
+		ofy().save().entities(bob, fred).now();
+
+		// Filter values of the same class twice, so the second time uses the remembered conversion
+		for (int i = 0; i < 2; i++) {
+			List<Employee> result = ofy().load().type(Employee.class).filter("manager in", Collections.singleton(bob)).list();
+			assert result.size() == 1;
+			assert result.get(0).getName().equals("fred");
+		}
+	}
+
 	/** */
 	@Test
 	public void testCount() throws Exception
@@ -0,0 +1,190 @@
+/*
+ */
+
+package com.googlecode.objectify.test;
+
+import com.googlecode.objectify.ObjectifyFactory;
+import com.googlecode.objectify.annotation.AlsoLoad;
+import com.googlecode.objectify.annotation.Entity;
+import com.googlecode.objectify.annotation.Id;
+import com.googlecode.objectify.annotation.IgnoreSave;
+import com.googlecode.objectify.annotation.Index;
+import com.googlecode.objectify.annotation.OnLoad;
+import com.googlecode.objectify.annotation.OnSave;
+import com.googlecode.objectify.annotation.Serialize;
+import com.googlecode.objectify.annotation.Subclass;
+import com.googlecode.objectify.condition.IfDefault;
+import com.googlecode.objectify.condition.IfNull;
+import com.googlecode.objectify.test.util.TestBase;
+import com.googlecode.objectify.test.util.TestObjectifyFactory;
+import org.testng.annotations.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.logging.Logger;
+
+/**
+ * Measures how long registration takes: the first time classes are seen by the JVM and again in a second
+ * factory, and lazily compared to eagerly. These are measurements rather than pass/fail tests; the times are
+ * logged at INFO. The entity classes are only used here, and each test uses its own, so the first registration
+ * really is cold (as far as Objectify is concerned; the JVM has already loaded Objectify itself).
+ */
+public class RegisterPerformanceTests extends TestBase
+{
+	/** */
+	private static Logger log = Logger.getLogger(RegisterPerformanceTests.class.getName());
+
+	/** */
+	public static class Address {
+		@Index String street;
+		@IgnoreSave(IfNull.class) String city;
+		@IgnoreSave(IfDefault.class) int zip;
+	}
+
+	/** */
+	@Entity
+	public static class Customer {
+		@Id Long id;
+		@Index String name;
+		@AlsoLoad("mail") String email;
+		@IgnoreSave(IfDefault.class) boolean active = true;
+		Address home;
+		List<Address> others;
+		@Serialize Map<String, Long> counts;
+
+		@OnSave void onSave() {}
+		@OnLoad void onLoad() {}
+	}
+
+	/** */
+	@Subclass(index = true)
+	public static class PreferredCustomer extends Customer {
+		@Index int level;
+		Address office;
+	}
+
+	/** */
+	@Entity
+	public static class Invoice {
+		@Id Long id;
+		@Index long customerId;
+		@Index(IfNull.class) String note;
+		List<Address> shipTo;
+		Map<String, String> extra;
+	}
+
+	/** Same shape as Customer, so that lazy registration has a cold class of its own */
+	@Entity
+	public static class LazyCustomer {
+		@Id Long id;
+		@Index String name;
+		@AlsoLoad("mail") String email;
+		@IgnoreSave(IfDefault.class) boolean active = true;
+		Address home;
+		List<Address> others;
+		@Serialize Map<String, Long> counts;
+	}
+
+	/** */
+	@Entity
+	public static class LazyInvoice {
+		@Id Long id;
+		@Index long customerId;
+		@Index(IfNull.class) String note;
+		List<Address> shipTo;
+		Map<String, String> extra;
+	}
+
+	/** Same shape as Customer, so that parallel registration has a cold class of its own */
+	@Entity
+	public static class ParallelCustomer {
+		@Id Long id;
+		@Index String name;
+		@AlsoLoad("mail") String email;
+		@IgnoreSave(IfDefault.class) boolean active = true;
+		ParallelAddress home;
+		List<ParallelAddress> others;
+		@Serialize Map<String, Long> counts;
+	}
+
+	/** */
+	@Entity
+	public static class ParallelInvoice {
+		@Id Long id;
+		@Index long customerId;
+		@Index(IfNull.class) String note;
+		List<ParallelAddress> shipTo;
+		Map<String, String> extra;
+	}
+
+	/** */
+	public static class ParallelAddress {
+		@Index String street;
+		@IgnoreSave(IfNull.class) String city;
+		@IgnoreSave(IfDefault.class) int zip;
+	}
+
+	/** */
+	private long register(ObjectifyFactory fact) {
+		long start = System.nanoTime();
+		fact.register(Customer.class);
+		fact.register(PreferredCustomer.class);
+		fact.register(Invoice.class);
+		return System.nanoTime() - start;
+	}
+
+	/** */
+	@Test
+	public void measureRegistration() throws Exception {
+		ObjectifyFactory first = new TestObjectifyFactory();
+		long cold = register(first);
+
+		ObjectifyFactory second = new TestObjectifyFactory();
+		long warm = register(second);
+
+		log.info("Registering 3 classes took " + (cold / 1000) + "us the first time, " + (warm / 1000) + "us in a second factory");
+
+		assert first.getMetadata(PreferredCustomer.class) != null;
+		assert second.getMetadata(PreferredCustomer.class) != null;
+	}
+
+	/** */
+	@Test
+	public void measureLazyRegistration() throws Exception {
+		ObjectifyFactory fact = new TestObjectifyFactory();
+
+		long start = System.nanoTime();
+		fact.registerLazily(LazyCustomer.class);
+		fact.registerLazily(LazyInvoice.class);
+		long registered = System.nanoTime() - start;
+
+		start = System.nanoTime();
+		assert fact.getMetadata(LazyCustomer.class) != null;
+		assert fact.getMetadata(LazyInvoice.class) != null;
+		long firstUse = System.nanoTime() - start;
+
+		log.info("Registering 2 classes lazily took " + (registered / 1000) + "us, then " + (firstUse / 1000) + "us on first use");
+	}
+
+	/** */
+	@Test
+	public void measureParallelRegistration() throws Exception {
+		ObjectifyFactory fact = new TestObjectifyFactory();
+		ExecutorService executor = Executors.newFixedThreadPool(2);
+		try {
+			long start = System.nanoTime();
+			fact.register(Arrays.<Class<?>>asList(ParallelCustomer.class, ParallelInvoice.class), executor);
+			long registered = System.nanoTime() - start;
+
+			log.info("Registering 2 classes with their scans in parallel took " + (registered / 1000) + "us");
+		} finally {
+			executor.shutdown();
+		}
+
+		assert fact.getMetadata(ParallelCustomer.class) != null;
+		assert fact.getMetadata(ParallelInvoice.class) != null;
+	}
+}
@@ -3,11 +3,21 @@ package com.googlecode.objectify.test;
 import org.testng.annotations.Test;
 
 import com.googlecode.objectify.Key;
+import com.googlecode.objectify.impl.EntityMetadata;
+import com.googlecode.objectify.impl.translate.Translator;
 import com.googlecode.objectify.annotation.Cache;
 import com.googlecode.objectify.annotation.Entity;
 import com.googlecode.objectify.annotation.Id;
 import com.googlecode.objectify.test.util.TestBase;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
 import static com.googlecode.objectify.test.util.TestObjectifyService.fact;
 import static com.googlecode.objectify.test.util.TestObjectifyService.ofy;
 
@@ -101,4 +111,85 @@ public class RegisterTests extends TestBase {
 		// New behavior
 		assert ofy().load().key(k).now() == null;
 	}
+
+	/** */
+	@Test
+	public void lazyRegistrationBuildsOnFirstUse() throws Exception {
+		fact().registerLazily(Normal.class);
+
+		Normal normal = new Normal();
+		normal.foo = "bar";
+		ofy().save().entity(normal).now();
+		ofy().clear();
+
+		Normal fetched = ofy().load().entity(normal).now();
+		assert fetched.foo.equals("bar");
+	}
+
+	/** */
+	@Test
+	public void lazyRegistrationIsBuiltOnceUnderContention() throws Exception {
+		fact().registerLazily(Normal.class);
+
+		ExecutorService executor = Executors.newFixedThreadPool(8);
+		try {
+			List<Future<EntityMetadata<Normal>>> futures = new ArrayList<>();
+			for (int i = 0; i < 8; i++) {
+				futures.add(executor.submit(new Callable<EntityMetadata<Normal>>() {
+					@Override
+					public EntityMetadata<Normal> call() throws Exception {
+						return fact().getMetadata(Normal.class);
+					}
+				}));
+			}
+
+			EntityMetadata<Normal> first = futures.get(0).get();
+			for (Future<EntityMetadata<Normal>> future: futures)
+				assert future.get() == first;
+		} finally {
+			executor.shutdown();
+		}
+	}
+
+	/** */
+	@Test
+	public void parallelRegistration() throws Exception {
+		ExecutorService executor = Executors.newFixedThreadPool(4);
+		try {
+			fact().register(Arrays.<Class<?>>asList(Normal.class, NonPublicConstructor.class, HasEmbedded.class), executor);
+		} finally {
+			executor.shutdown();
+		}
+
+		assert fact().getMetadata(Normal.class) != null;
+		assert fact().getMetadata(NonPublicConstructor.class) != null;
+		assert fact().getMetadata(HasEmbedded.class) != null;
+	}
+
+	public static class Embedded {
+		String foo;
+	}
+
+	/** */
+	@Test
+	public void concurrentFirstUseCreatesOneTranslator() throws Exception {
+		ExecutorService executor = Executors.newFixedThreadPool(8);
+		try {
+			List<Future<Translator<Embedded, ?>>> futures = new ArrayList<>();
+			for (int i = 0; i < 8; i++) {
+				futures.add(executor.submit(new Callable<Translator<Embedded, ?>>() {
+					@Override
+					public Translator<Embedded, ?> call() throws Exception {
+						return fact().getTranslators().getRoot(Embedded.class);
+					}
+				}));
+			}
+
+			Translator<Embedded, ?> first = futures.get(0).get();
+			for (Future<Translator<Embedded, ?>> future: futures)
+				assert future.get() == first;
+		} finally {
+			executor.shutdown();
+		}
+	}
 }
@@ -1,16 +1,28 @@
 package com.googlecode.objectify.test;
 
+import com.google.appengine.api.datastore.Blob;
+import com.googlecode.objectify.Key;
+import com.googlecode.objectify.Lazy;
 import com.googlecode.objectify.annotation.Cache;
 import com.googlecode.objectify.annotation.Entity;
 import com.googlecode.objectify.annotation.Id;
 import com.googlecode.objectify.annotation.Serialize;
+import com.googlecode.objectify.codec.CompactCodec;
+import com.googlecode.objectify.impl.translate.SerializeTranslatorFactory;
 import com.googlecode.objectify.test.util.TestBase;
 import com.googlecode.objectify.test.util.TestObjectifyFactory;
 import org.testng.annotations.Test;
 
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectOutputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.zip.DeflaterOutputStream;
 
 import static com.googlecode.objectify.test.util.TestObjectifyService.fact;
 import static com.googlecode.objectify.test.util.TestObjectifyService.ofy;
@@ -124,4 +136,164 @@ public class SerializeTests extends TestBase
 		HasSerializeZip fetched = fact2.begin().load().type(HasSerializeZip.class).id(hs.id).now();
 		assert fetched.numbers.equals(hs.numbers);
 	}
+
+	/** Writes the value the way @Serialize did before there was a format header */
+	private byte[] legacyBytes(Object value, boolean zip) throws Exception {
+		ByteArrayOutputStream baos = new ByteArrayOutputStream();
+		OutputStream out = zip ? new DeflaterOutputStream(baos) : baos;
+
+		ObjectOutputStream oos = new ObjectOutputStream(out);
+		oos.writeObject(value);
+		oos.close();
+
+		return baos.toByteArray();
+	}
+
+	@Test
+	public void testLegacyFormatsAreReadable() throws Exception
+	{
+		fact().register(HasSerialize.class);
+
+		HashMap<Long, Long> numbers = new HashMap<>();
+		numbers.put(1L, 2L);
+
+		for (boolean zip: new boolean[] { false, true }) {
+			com.google.appengine.api.datastore.Entity ent = new com.google.appengine.api.datastore.Entity(Key.getKind(HasSerialize.class), 123L);
+			ent.setUnindexedProperty("numbers", new Blob(legacyBytes(numbers, zip)));
+			ofy().save().entity(ent).now();
+			ofy().clear();
+
+			HasSerialize fetched = ofy().load().type(HasSerialize.class).id(123L).now();
+			assert fetched.numbers.equals(numbers);
+		}
+	}
+
+	@Test
+	public void testDefaultCodecWritesLegacyFormat() throws Exception
+	{
+		fact().register(HasSerialize.class);
+
+		HasSerialize hs = new HasSerialize();
+		hs.numbers.put(1L, 2L);
+		Blob plain = (Blob)ofy().save().toEntity(hs).getProperty("numbers");
+		assert Arrays.equals(plain.getBytes(), legacyBytes(hs.numbers, false));
+
+		// Same kind, so it needs a separate factory
+		TestObjectifyFactory fact2 = new TestObjectifyFactory();
+		fact2.register(HasSerializeZip.class);
+
+		HasSerializeZip hsz = new HasSerializeZip();
+		hsz.numbers.put(1L, 2L);
+		Blob zipped = (Blob)fact2.begin().save().toEntity(hsz).getProperty("numbers");
+		assert (zipped.getBytes()[0] & 0xFF) == 0x78;	// zlib header
+	}
+
+	/** */
+	public static class Thing implements java.io.Serializable {
+		private static final long serialVersionUID = 1L;
+		String name;
+		Thing(String name) { this.name = name; }
+		@Override public boolean equals(Object o) { return o instanceof Thing && ((Thing)o).name.equals(name); }
+		@Override public int hashCode() { return name.hashCode(); }
+	}
+
+	@Entity
+	@Cache
+	public static class HasCompact
+	{
+		@Id public Long id;
+		@Serialize(codec=CompactCodec.class) public Map<String, List<Object>> plain;
+		@Serialize(codec=CompactCodec.class, zip=true) public Map<String, List<Object>> zipped;
+		@Serialize(codec=CompactCodec.class) public long[] longs;
+	}
+
+	@Test
+	public void testCompactCodec() throws Exception
+	{
+		fact().register(HasCompact.class);
+
+		Map<String, List<Object>> map = new LinkedHashMap<>();
+		map.put("numbers", new ArrayList<Object>(Arrays.asList(1L, -2L, Long.MAX_VALUE, Long.MIN_VALUE, 3, (short)4, 5.5, 6.5f)));
+		map.put("other", new ArrayList<Object>(Arrays.asList("\u00e9t\u00e9", true, false, null, new byte[] { 1, 2 }, new Thing("foo"))));
+		map.put("strings", new ArrayList<Object>(Arrays.asList("", "nul\u0000", "\u20ac\ud83d\ude00", "lone \ud83d and \ude00")));
+
+		HasCompact hc = new HasCompact();
+		hc.plain = map;
+		hc.zipped = map;
+		hc.longs = new long[] { 0, -1, 1L << 40 };
+
+		com.google.appengine.api.datastore.Entity ent = ofy().save().toEntity(hc);
+		assert ((Blob)ent.getProperty("plain")).getBytes()[0] == SerializeTranslatorFactory.HEADER_PLAIN;
+		assert ((Blob)ent.getProperty("zipped")).getBytes()[0] == SerializeTranslatorFactory.HEADER_DEFLATED;
+
+		HasCompact fetched = ofy().saveClearLoad(hc);
+
+		assert fetched.plain instanceof LinkedHashMap;
+		assert fetched.plain.get("numbers").equals(map.get("numbers"));
+		assert fetched.zipped.get("numbers").equals(map.get("numbers"));
+
+		List<Object> other = fetched.plain.get("other");
+		assert other.get(0).equals("\u00e9t\u00e9");
+		assert other.get(1).equals(true);
+		assert other.get(2).equals(false);
+		assert other.get(3) == null;
+		assert Arrays.equals((byte[])other.get(4), new byte[] { 1, 2 });
+		assert other.get(5).equals(new Thing("foo"));
+
+		// Including what UTF-8 can't represent
+		assert fetched.plain.get("strings").equals(map.get("strings"));
+
+		assert Arrays.equals(fetched.longs, hc.longs);
+	}
+
+	@Entity
+	@Cache
+	public static class HasLazy
+	{
+		@Id public Long id;
+		@Serialize public Lazy<HashMap<Long, Long>> numbers;
+	}
+
+	@Test
+	public void testLazySerialize() throws Exception
+	{
+		fact().register(HasLazy.class);
+
+		HashMap<Long, Long> numbers = new HashMap<>();
+		numbers.put(1L, 2L);
+
+		HasLazy hl = new HasLazy();
+		hl.numbers = Lazy.create(numbers);
+
+		HasLazy fetched = ofy().saveClearLoad(hl);
+		assert !fetched.numbers.isDecoded();
+		assert fetched.numbers.get().equals(numbers);
+		assert fetched.numbers.isDecoded();
+	}
+
+	@Test
+	public void testUntouchedLazyKeepsStoredBytes() throws Exception
+	{
+		fact().register(HasLazy.class);
+
+		HashMap<Long, Long> numbers = new HashMap<>();
+		numbers.put(1L, 2L);
+		byte[] legacy = legacyBytes(numbers, true);
+
+		com.google.appengine.api.datastore.Entity ent = new com.google.appengine.api.datastore.Entity(Key.getKind(HasLazy.class), 123L);
+		ent.setUnindexedProperty("numbers", new Blob(legacy));
+		ofy().save().entity(ent).now();
+		ofy().clear();
+
+		HasLazy fetched = ofy().load().type(HasLazy.class).id(123L).now();
+
+		// Not decoded, so written back exactly as it was
+		Blob untouched = (Blob)ofy().save().toEntity(fetched).getProperty("numbers");
+		assert Arrays.equals(untouched.getBytes(), legacy);
+
+		// Decoded and changed, so written in the current format
+		fetched.numbers.get().put(3L, 4L);
+		Blob changed = (Blob)ofy().save().toEntity(fetched).getProperty("numbers");
+		assert changed.getBytes()[0] == SerializeTranslatorFactory.HEADER_PLAIN;
+	}
 }
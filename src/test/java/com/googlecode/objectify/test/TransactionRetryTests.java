@@ -0,0 +1,106 @@
+/*
+ */
+
+package com.googlecode.objectify.test;
+
+import com.googlecode.objectify.RetryPolicy;
+import com.googlecode.objectify.VoidWork;
+import com.googlecode.objectify.Work;
+import com.googlecode.objectify.stats.ContentionStats;
+import com.googlecode.objectify.test.util.TestBase;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.ConcurrentModificationException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static com.googlecode.objectify.test.util.TestObjectifyService.fact;
+import static com.googlecode.objectify.test.util.TestObjectifyService.ofy;
+
+/**
+ * Tests of backoff and contention tracking when transactions are retried
+ */
+public class TransactionRetryTests extends TestBase
+{
+	/** Fails the first few times it runs */
+	static class Flaky extends VoidWork {
+		int failuresLeft;
+		int runs;
+
+		Flaky(int failuresLeft) {
+			this.failuresLeft = failuresLeft;
+		}
+
+		@Override
+		public void vrun() {
+			runs++;
+			if (failuresLeft-- > 0)
+				throw new ConcurrentModificationException();
+		}
+	}
+
+	/** Remembers what it was told */
+	static class RecordingPolicy extends RetryPolicy {
+		List<Work<?>> contended = new ArrayList<>();
+
+		@Override
+		public void onContention(Work<?> work, int failures, ConcurrentModificationException ex) {
+			contended.add(work);
+		}
+	}
+
+	/** */
+	@Test
+	public void retriesUntilSuccessAndCountsContention() throws Exception {
+		RecordingPolicy policy = new RecordingPolicy();
+		policy.setBaseDelay(1, TimeUnit.MILLISECONDS);
+		fact().setRetryPolicy(policy);
+
+		Flaky work = new Flaky(2);
+		ofy().transactNew(work);
+
+		assert work.runs == 3;
+		assert policy.contended.size() == 2;
+		assert policy.contended.get(0) == work;
+
+		ContentionStats.Stat stat = fact().getContentionStats().getStats().get(Flaky.class.getName());
+		assert stat.getAttempts() == 3;
+		assert stat.getContentions() == 2;
+		assert stat.getFailures() == 0;
+	}
+
+	/** */
+	@Test
+	public void stopsAfterMaxElapsed() throws Exception {
+		RetryPolicy policy = fact().getRetryPolicy();
+		policy.setBaseDelay(5, TimeUnit.MILLISECONDS);
+		policy.setMaxElapsed(30, TimeUnit.MILLISECONDS);
+
+		Flaky work = new Flaky(Integer.MAX_VALUE);
+		try {
+			ofy().transactNew(work);
+			assert false;	// must throw exception
+		} catch (ConcurrentModificationException ex) {}
+
+		assert work.runs > 1;
+
+		ContentionStats.Stat stat = fact().getContentionStats().getStats().get(Flaky.class.getName());
+		assert stat.getFailures() == 1;
+		assert stat.getContentions() == work.runs;
+	}
+
+	/** */
+	@Test
+	public void delaysStayWithinTheCeiling() throws Exception {
+		RetryPolicy policy = new RetryPolicy();
+		policy.setBaseDelay(10, TimeUnit.MILLISECONDS);
+		policy.setMaxDelay(50, TimeUnit.MILLISECONDS);
+
+		for (int failures = 1; failures < 100; failures++) {
+			long delay = policy.getDelay(failures);
+			assert delay >= 0;
+			assert delay <= TimeUnit.MILLISECONDS.toNanos(Math.min(50, 10L << Math.min(failures - 1, 10)));
+		}
+	}
+}
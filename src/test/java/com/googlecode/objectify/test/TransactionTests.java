@@ -5,12 +5,14 @@ package com.googlecode.objectify.test;
 
 import com.google.appengine.api.datastore.Transaction;
 import com.googlecode.objectify.Key;
+import com.googlecode.objectify.Ref;
 import com.googlecode.objectify.TxnType;
 import com.googlecode.objectify.VoidWork;
 import com.googlecode.objectify.Work;
 import com.googlecode.objectify.annotation.Cache;
 import com.googlecode.objectify.annotation.Entity;
 import com.googlecode.objectify.annotation.Id;
+import com.googlecode.objectify.annotation.Load;
 import com.googlecode.objectify.impl.ObjectifyImpl;
 import com.googlecode.objectify.impl.TransactionImpl;
 import com.googlecode.objectify.test.entity.Trivial;
@@ -458,4 +460,129 @@ public class TransactionTests extends TestBase
 			}
 		});
 	}
+
+	/**
+	 */
+	@Test
+	public void unmaterializedLoadsFromSeparateCommandsCompleteAtCommit() {
+		fact().register(Trivial.class);
+
+		final List<Key<Trivial>> keys = new ArrayList<>();
+		for (long i = 1; i <= 3; i++)
+			keys.add(ofy().save().entity(new Trivial(i, "foo" + i, i)).now());
+
+		ofy().clear();
+
+		ofy().transact(new VoidWork() {
+			@Override
+			public void vrun() {
+				// Each of these is a separate load engine; none of them is ever materialized here
+				for (Key<Trivial> key: keys)
+					ofy().load().key(key);
+			}
+		});
+
+		for (Key<Trivial> key: keys)
+			assert ofy().isLoaded(key);
+	}
+
+	/** */
+	@Entity
+	public static class Chain {
+		@Id Long id;
+		@Load Ref<Chain> next;
+
+		public Chain() {}
+		public Chain(long id, Chain next) {
+			this.id = id;
+			this.next = (next == null) ? null : Ref.create(next);
+		}
+	}
+
+	/**
+	 */
+	@Test
+	public void loadChainsCompleteBeforeTransactionEnds() {
+		fact().register(Chain.class);
+
+		Chain c4 = new Chain(4, null);
+		Chain c3 = new Chain(3, c4);
+		Chain c2 = new Chain(2, c3);
+		Chain c1 = new Chain(1, c2);
+		ofy().save().entities(c1, c2, c3, c4).now();
+		ofy().clear();
+
+		final Key<Chain> k1 = Key.create(c1);
+
+		Chain fetched = ofy().transact(new Work<Chain>() {
+			@Override
+			public Chain run() {
+				return ofy().load().key(k1).now();
+			}
+		});
+
+		// Every round of the chain was fetched within the transaction and propagated out
+		assert ofy().isLoaded(Key.create(c2));
+		assert ofy().isLoaded(Key.create(c3));
+		assert ofy().isLoaded(Key.create(c4));
+		assert fetched.next.get().next.get().next.get().id == 4;
+	}
+
+	/** */
+	@Entity
+	public static class BadNumber {
+		@Id Long id;
+		int number;
+	}
+
+	/** */
+	@Entity
+	public static class PointsToBadNumber {
+		@Id Long id;
+		@Load Ref<BadNumber> bad;
+	}
+
+	/** */
+	private static class WorkFailed extends RuntimeException {
+		private static final long serialVersionUID = 1L;
+	}
+
+	/**
+	 */
+	@Test
+	public void rollbackHappensEvenIfEnlistedLoadFails() {
+		fact().register(BadNumber.class);
+		fact().register(PointsToBadNumber.class);
+
+		// Can't be translated into an int
+		com.google.appengine.api.datastore.Entity bad = new com.google.appengine.api.datastore.Entity(Key.getKind(BadNumber.class), 1L);
+		bad.setProperty("number", "not a number");
+		ofy().save().entity(bad).now();
+
+		PointsToBadNumber points = new PointsToBadNumber();
+		points.id = 1L;
+		points.bad = Ref.create(Key.create(BadNumber.class, 1L));
+		ofy().save().entity(points).now();
+		ofy().clear();
+
+		final Transaction[] txn = new Transaction[1];
+		try {
+			ofy().transact(new VoidWork() {
+				@Override
+				public void vrun() {
+					txn[0] = ofy().getTransaction();
+
+					// Starts the next round, for the BadNumber, which would fail if anything waited for it
+					ofy().load().type(PointsToBadNumber.class).id(1L).now();
+
+					throw new WorkFailed();
+				}
+			});
+			assert false;
+		} catch (WorkFailed ex) {
+			// The original failure is not masked
+		}
+
+		assert !txn[0].isActive();
+	}
 }
\ No newline at end of file
@@ -0,0 +1,133 @@
+/*
+ */
+
+package com.googlecode.objectify.test;
+
+import com.google.apphosting.api.ApiProxy;
+import com.googlecode.objectify.Key;
+import com.googlecode.objectify.WriteBehind;
+import com.googlecode.objectify.test.entity.Trivial;
+import com.googlecode.objectify.test.util.TestBase;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ThreadFactory;
+
+import static com.googlecode.objectify.test.util.TestObjectifyService.fact;
+import static com.googlecode.objectify.test.util.TestObjectifyService.ofy;
+
+/**
+ * Tests of the write-behind queue
+ */
+public class WriteBehindTests extends TestBase
+{
+	/**
+	 * Test workers need the test's API environment; real ones get it from ThreadManager.
+	 */
+	private WriteBehind writeBehind() {
+		final ApiProxy.Environment env = ApiProxy.getCurrentEnvironment();
+
+		WriteBehind wb = fact().getWriteBehind();
+		wb.setThreadFactory(new ThreadFactory() {
+			@Override
+			public Thread newThread(final Runnable runnable) {
+				return new Thread(new Runnable() {
+					@Override
+					public void run() {
+						ApiProxy.setEnvironmentForCurrentThread(env);
+						runnable.run();
+					}
+				});
+			}
+		});
+
+		return wb;
+	}
+
+	/** */
+	@Test
+	public void queuedSavesAreWritten() throws Exception {
+		fact().register(Trivial.class);
+		WriteBehind wb = writeBehind();
+		wb.setBatchSize(10);
+
+		List<Trivial> trivs = new ArrayList<>();
+		for (long i = 1; i <= 35; i++)
+			trivs.add(new Trivial(i, "foo" + i, i));
+
+		try {
+			wb.save(trivs);
+			wb.flush();
+		} finally {
+			wb.shutdown();
+		}
+
+		assert wb.getWritten() == trivs.size();
+		assert wb.getFailed() == 0;
+		assert wb.getPending() == 0;
+
+		assert ofy().load().entities(trivs).size() == trivs.size();
+	}
+
+	/** */
+	@Test
+	public void lastWriteWins() throws Exception {
+		fact().register(Trivial.class);
+		WriteBehind wb = writeBehind();
+		wb.setWorkers(1);
+
+		Trivial first = new Trivial(123L, "first", 1);
+		Trivial second = new Trivial(123L, "second", 2);
+
+		try {
+			wb.save(Arrays.asList(first, second));
+			wb.flush();
+		} finally {
+			wb.shutdown();
+		}
+
+		assert wb.getQueued() == 2;
+		assert wb.getWritten() + wb.getCoalesced() == 2;
+
+		Trivial fetched = ofy().load().key(Key.create(Trivial.class, 123L)).now();
+		assert fetched.getSomeString().equals("second");
+	}
+
+	/**
+	 * With several workers, a newer version of a key must not be written alongside an older one still in flight.
+	 */
+	@Test
+	public void lastWriteWinsAcrossWorkers() throws Exception {
+		fact().register(Trivial.class);
+		WriteBehind wb = writeBehind();
+		wb.setWorkers(4);
+		wb.setBatchSize(1);
+
+		try {
+			for (long i = 1; i <= 50; i++) {
+				wb.save(Arrays.asList(new Trivial(123L, "version" + i, i)));
+
+				// Keep the other workers busy so versions are taken as soon as they are queued
+				wb.save(Arrays.asList(new Trivial(1000L + i, "other", i)));
+			}
+			wb.flush();
+		} finally {
+			wb.shutdown();
+		}
+
+		Trivial fetched = ofy().load().key(Key.create(Trivial.class, 123L)).now();
+		assert fetched.getSomeNumber() == 50;
+	}
+
+	/** */
+	@Test(expectedExceptions = IllegalStateException.class)
+	public void savesAfterShutdownAreRejected() throws Exception {
+		fact().register(Trivial.class);
+		WriteBehind wb = writeBehind();
+		wb.shutdown();
+
+		wb.save(Arrays.asList(new Trivial(123L, "foo", 5)));
+	}
+}